@@ -0,0 +1,66 @@
+package org.math.plot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.math.plot.utils.Array;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Array utilities used to compute plot bounds and build plot data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ArrayBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int n;
+    private double[] column;
+    private double[][] rows;
+    private double[][] columns;
+
+    @Setup
+    public void setup() {
+        rows = Canvases.rows(n, 3, 1);
+        columns = Canvases.columns(n, 3, 2);
+        column = columns[0];
+    }
+
+    @Benchmark
+    public double min() {
+        return Array.min(column);
+    }
+
+    @Benchmark
+    public double max() {
+        return Array.max(column);
+    }
+
+    @Benchmark
+    public double[] minRows() {
+        return Array.min(rows);
+    }
+
+    @Benchmark
+    public double[] maxRows() {
+        return Array.max(rows);
+    }
+
+    @Benchmark
+    public double[][] mergeColumns() {
+        return Array.mergeColumns(columns);
+    }
+}
@@ -0,0 +1,30 @@
+package org.math.plot.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the JMH command line options, for instance
+ * java -jar benchmarks.jar PaintBenchmark -p n=1000000. Unless other
+ * profilers or result file are given, the GC profiler is enabled and the
+ * results are written to jmh-result.json, to be published and compared
+ * between versions.
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResult().hasValue()) {
+            options.result("jmh-result.json").resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package org.math.plot.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.math.plot.canvas.Plot2DCanvas;
+import org.math.plot.canvas.Plot3DCanvas;
+import org.math.plot.canvas.PlotCanvas;
+import org.math.plot.render.AWTDrawer;
+import org.math.plot.render.AWTDrawer2D;
+import org.math.plot.render.AWTDrawer3D;
+
+/**
+ * Canvases, drawers and data shared by the benchmarks. Data lies in
+ * [MIN, MAX] on every axis, so that it can be drawn with log scales.
+ */
+final class Canvases {
+
+    final static int WIDTH = 800;
+    final static int HEIGHT = 600;
+    final static double MIN = 1;
+    final static double MAX = 1000;
+    final static double MID = (MIN + MAX) / 2;
+
+    private Canvases() {
+    }
+
+    static PlotCanvas canvas(int dimension, String scale) {
+        double[] min = new double[dimension];
+        double[] max = new double[dimension];
+        String[] scales = new String[dimension];
+        String[] labels = new String[dimension];
+        for (int i = 0; i < dimension; i++) {
+            min[i] = MIN;
+            max[i] = MAX;
+            scales[i] = scale;
+            labels[i] = "X" + i;
+        }
+        PlotCanvas canvas = dimension == 3 ? new Plot3DCanvas(min, max, scales, labels) : new Plot2DCanvas(min, max, scales, labels);
+        canvas.setSize(WIDTH, HEIGHT);
+        return canvas;
+    }
+
+    /**
+     * @return a drawer on canvas, created after the canvas is sized
+     */
+    static AWTDrawer drawer(PlotCanvas canvas) {
+        return canvas instanceof Plot3DCanvas ? new AWTDrawer3D(canvas) : new AWTDrawer2D(canvas);
+    }
+
+    /**
+     * @return an antialiased graphics on a new RGB image of the canvas size
+     */
+    static Graphics2D graphics() {
+        Graphics2D g = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        return g;
+    }
+
+    /**
+     * @return n rows of uniform random coordinates
+     */
+    static double[][] rows(int n, int dimension, long seed) {
+        Random r = new Random(seed);
+        double[][] rows = new double[n][dimension];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < dimension; j++) {
+                rows[i][j] = MIN + (MAX - MIN) * r.nextDouble();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return dimension columns of n gaussian coordinates, centered in the
+     *         bounds
+     */
+    static double[][] columns(int n, int dimension, long seed) {
+        Random r = new Random(seed);
+        double[][] columns = new double[dimension][n];
+        for (int j = 0; j < dimension; j++) {
+            for (int i = 0; i < n; i++) {
+                columns[j][i] = MID + (MAX - MIN) / 8 * r.nextGaussian();
+            }
+        }
+        return columns;
+    }
+}
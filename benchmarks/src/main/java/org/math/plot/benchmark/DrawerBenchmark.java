@@ -0,0 +1,79 @@
+package org.math.plot.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.concurrent.TimeUnit;
+
+import org.math.plot.plotObjects.Base;
+import org.math.plot.render.AWTDrawer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Drawing primitives of {@link AWTDrawer}, projection included, in an
+ * antialiased offscreen image.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class DrawerBenchmark {
+
+    private final static int PRIMITIVES = 256;
+    @Param({"2", "3"})
+    public int dimension;
+    private AWTDrawer draw;
+    private Graphics2D g;
+    private double[][] points;
+
+    @Setup
+    public void setup() {
+        draw = Canvases.drawer(Canvases.canvas(dimension, Base.LINEAR));
+        g = Canvases.graphics();
+        draw.initGraphics(g);
+        draw.setColor(Color.BLUE);
+        points = Canvases.rows(3 * PRIMITIVES, dimension, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRIMITIVES)
+    public void drawLine() {
+        for (int i = 0; i < PRIMITIVES; i++) {
+            draw.drawLine(points[3 * i], points[3 * i + 1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRIMITIVES)
+    public void drawRoundDot() {
+        for (int i = 0; i < PRIMITIVES; i++) {
+            draw.drawRoundDot(points[3 * i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRIMITIVES)
+    public void fillPolygon() {
+        for (int i = 0; i < PRIMITIVES; i++) {
+            draw.fillPolygon(0.5f, points[3 * i], points[3 * i + 1], points[3 * i + 2]);
+        }
+    }
+}
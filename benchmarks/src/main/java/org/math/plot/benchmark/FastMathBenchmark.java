@@ -0,0 +1,256 @@
+package org.math.plot.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.math.plot.utils.FastMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link FastMath} against {@link Math}, each function called on the same
+ * arguments : x and y in [-10, 10], p in ]0, 1000]. The array variants call
+ * the array treatments of FastMath on all the arguments at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FastMathBenchmark {
+
+    private final static int VALUES = 1024;
+    private final double[] xs = new double[VALUES];
+    private final double[] ys = new double[VALUES];
+    private final double[] positives = new double[VALUES];
+    private final double[] results = new double[VALUES];
+    private final double[] results2 = new double[VALUES];
+
+    @Setup
+    public void setup() {
+        Random r = new Random(1);
+        for (int i = 0; i < VALUES; i++) {
+            xs[i] = 20 * r.nextDouble() - 10;
+            ys[i] = 20 * r.nextDouble() - 10;
+            positives[i] = 1000 * (1 - r.nextDouble());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastSin() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.sin(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathSin() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.sin(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastCos() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.cos(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathCos() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.cos(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastTan() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.tan(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathTan() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.tan(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastAtan2() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.atan2(ys[i], xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathAtan2() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.atan2(ys[i], xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastExp() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.exp(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathExp() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.exp(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastLog() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.log(positives[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathLog() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.log(positives[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastPow() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.pow(positives[i], ys[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathPow() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.pow(positives[i], ys[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastSqrt() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.sqrt(positives[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathSqrt() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.sqrt(positives[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double fastCbrt() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += FastMath.cbrt(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double mathCbrt() {
+        double s = 0;
+        for (int i = 0; i < VALUES; i++) {
+            s += Math.cbrt(xs[i]);
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double[] fastSinAndCosArray() {
+        FastMath.sinAndCos(xs, 0, VALUES, results, results2, 0);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double[] fastExpArray() {
+        FastMath.exp(xs, 0, VALUES, results, 0);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double[] fastLogArray() {
+        FastMath.log(positives, 0, VALUES, results, 0);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double[] fastPowArray() {
+        FastMath.pow(positives, 1.5, 0, VALUES, results, 0);
+        return results;
+    }
+}
@@ -0,0 +1,78 @@
+package org.math.plot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.math.plot.utils.Histogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binning of 1D, 2D and 3D samples by {@link Histogram}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class HistogramBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int n;
+    @Param({"100"})
+    public int classes;
+    private double[] values;
+    private double[][] rows2D;
+    private double[][] rows3D;
+    private double[] bounds;
+
+    @Setup
+    public void setup() {
+        values = Canvases.columns(n, 1, 1)[0];
+        rows2D = Canvases.rows(n, 2, 2);
+        rows3D = Canvases.rows(n, 3, 3);
+        bounds = new double[classes + 1];
+        for (int i = 0; i <= classes; i++) {
+            bounds[i] = Canvases.MIN + (Canvases.MAX - Canvases.MIN) * i / classes;
+        }
+    }
+
+    @Benchmark
+    public double[] histogram() {
+        return Histogram.histogram(values, classes);
+    }
+
+    @Benchmark
+    public double[] histogramBounds() {
+        return Histogram.histogram(values, bounds);
+    }
+
+    @Benchmark
+    public double[][] histogramClasses() {
+        return Histogram.histogram_classes(values, classes);
+    }
+
+    @Benchmark
+    public double[] histogram2D() {
+        return Histogram.histogram_2D(rows2D, classes, classes);
+    }
+
+    @Benchmark
+    public double[] histogram3D() {
+        return Histogram.histogram_3D(rows3D, bounds, bounds, bounds);
+    }
+
+    @Benchmark
+    public long[] grid2D() {
+        return Histogram.grid(rows2D, bounds, bounds);
+    }
+}
@@ -0,0 +1,469 @@
+package org.math.plot.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.swing.JComponent;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import org.math.plot.Plot2DPanel;
+import org.math.plot.Plot3DPanel;
+import org.math.plot.PlotPanel;
+import org.math.plot.canvas.Plot3DCanvas;
+import org.math.plot.canvas.PlotCanvas;
+import org.math.plot.plots.Plot;
+import org.math.plot.render.RenderStats;
+
+/**
+ * Replays recorded mouse interactions (pan, wheel zoom, zoom rectangle,
+ * hover, 3D rotation) on headless canvases of representative scenes, and
+ * reports the latency of each event : handling the event plus painting the
+ * area it asked to repaint, as Swing would, one frame per event.
+ *
+ * Repaint requests are caught by a RepaintManager and painted offscreen with
+ * the dirty area as clip. Events are replayed on the event dispatch thread,
+ * back to back, so that the full quality frame painted once the user is idle
+ * is measured apart, after each recording, as the refine frame.
+ *
+ * Usage : InteractionReplay [result.json [recording files...]]. A recording
+ * file holds one step per line : "mode translation|zoom|rotation",
+ * "pressed x y", "dragged x y", "released x y", "moved x y" or "wheel x y
+ * rotation". Lines starting with # are ignored.
+ */
+public class InteractionReplay {
+
+    final static int WIDTH = 800;
+    final static int HEIGHT = 600;
+    // rounds replayed before and while measuring, each on a new scene
+    final static int WARMUP = 1;
+    final static int ROUNDS = 3;
+
+    /**
+     * One step of a recording.
+     */
+    static class Step {
+
+        final String type;
+        final int x, y, value;
+
+        Step(String type, int x, int y, int value) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.value = value;
+        }
+    }
+
+    static class Recording {
+
+        final String name;
+        final List<Step> steps = new ArrayList<Step>();
+
+        Recording(String name) {
+            this.name = name;
+        }
+
+        Recording add(String type, int x, int y) {
+            steps.add(new Step(type, x, y, 0));
+            return this;
+        }
+
+        Recording mode(int mode) {
+            steps.add(new Step("mode", 0, 0, mode));
+            return this;
+        }
+
+        boolean rotates() {
+            for (Step s : steps) {
+                if (s.type.equals("mode") && s.value == Plot3DCanvas.ROTATION) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean hovers() {
+            for (Step s : steps) {
+                if (s.type.equals("moved")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static Recording read(File file) throws IOException {
+            Recording r = new Recording(file.getName());
+            BufferedReader in = new BufferedReader(new FileReader(file));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    line = line.trim();
+                    if (line.length() == 0 || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] t = line.split("\\s+");
+                    if (t[0].equals("mode")) {
+                        r.mode(t[1].equals("rotation") ? Plot3DCanvas.ROTATION : t[1].equals("zoom") ? PlotCanvas.ZOOM : PlotCanvas.TRANSLATION);
+                    } else {
+                        r.steps.add(new Step(t[0], Integer.parseInt(t[1]), Integer.parseInt(t[2]), t.length > 3 ? Integer.parseInt(t[3]) : 0));
+                    }
+                }
+            } finally {
+                in.close();
+            }
+            return r;
+        }
+    }
+
+    /**
+     * Builds the content of a panel, a new one for each round.
+     */
+    static abstract class Scene {
+
+        final String name;
+        final boolean is3D;
+
+        Scene(String name, boolean is3D) {
+            this.name = name;
+            this.is3D = is3D;
+        }
+
+        abstract PlotPanel build();
+    }
+
+    static class Result {
+
+        String scene, recording;
+        int events, frames, draftFrames;
+        double[] latencies;
+        double refine;
+    }
+
+    // dirty area of the canvas being replayed, as Swing would paint it
+    static class Repaints extends RepaintManager {
+
+        JComponent canvas;
+        Rectangle dirty;
+
+        public synchronized void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+            if (c != canvas || w <= 0 || h <= 0) {
+                return;
+            }
+            Rectangle r = new Rectangle(x, y, w, h);
+            dirty = dirty == null ? r : dirty.union(r);
+        }
+
+        synchronized Rectangle take() {
+            Rectangle r = dirty;
+            dirty = null;
+            return r;
+        }
+    }
+
+    static List<Scene> scenes() {
+        List<Scene> scenes = new ArrayList<Scene>();
+        scenes.add(new Scene("scatter2D", false) {
+
+            PlotPanel build() {
+                Plot2DPanel p = new Plot2DPanel();
+                p.addScatterPlot("cloud", gaussian(200000, 2, 1));
+                p.addLinePlot("trend", gaussian(1000, 2, 2));
+                return p;
+            }
+        });
+        scenes.add(new Scene("grid3D", true) {
+
+            PlotPanel build() {
+                int n = 200;
+                double[] X = new double[n];
+                double[] Y = new double[n];
+                double[][] Z = new double[n][n];
+                for (int i = 0; i < n; i++) {
+                    X[i] = Y[i] = 10.0 * i / n;
+                }
+                for (int j = 0; j < n; j++) {
+                    for (int i = 0; i < n; i++) {
+                        Z[j][i] = Math.sin(X[i]) * Math.cos(Y[j]);
+                    }
+                }
+                Plot3DPanel p = new Plot3DPanel();
+                p.addGridPlot("surface", X, Y, Z);
+                return p;
+            }
+        });
+        scenes.add(new Scene("scatter3D", true) {
+
+            PlotPanel build() {
+                Plot3DPanel p = new Plot3DPanel();
+                p.addScatterPlot("cloud", gaussian(100000, 3, 3));
+                return p;
+            }
+        });
+        return scenes;
+    }
+
+    static double[][] gaussian(int n, int dimension, long seed) {
+        Random r = new Random(seed);
+        double[][] XY = new double[n][dimension];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < dimension; j++) {
+                XY[i][j] = r.nextGaussian();
+            }
+        }
+        return XY;
+    }
+
+    static List<Recording> recordings() {
+        List<Recording> recordings = new ArrayList<Recording>();
+        int cx = WIDTH / 2;
+        int cy = HEIGHT / 2;
+
+        Recording pan = new Recording("pan").mode(PlotCanvas.TRANSLATION).add("pressed", cx, cy);
+        for (int i = 1; i <= 60; i++) {
+            pan.add("dragged", cx + (int) (150 * Math.sin(i / 10.0)), cy + (int) (100 * Math.sin(i / 15.0)));
+        }
+        recordings.add(pan.add("released", cx, cy));
+
+        Recording wheel = new Recording("wheel");
+        for (int i = 0; i < 20; i++) {
+            wheel.steps.add(new Step("wheel", cx + 10 * i, cy - 5 * i, i < 10 ? -1 : 1));
+        }
+        recordings.add(wheel);
+
+        Recording zoom = new Recording("zoomRect").mode(PlotCanvas.ZOOM).add("pressed", cx - 200, cy - 150);
+        for (int i = 1; i <= 30; i++) {
+            zoom.add("dragged", cx - 200 + 10 * i, cy - 150 + 8 * i);
+        }
+        recordings.add(zoom.add("released", cx + 100, cy + 90));
+
+        Recording hover = new Recording("hover");
+        for (int i = 0; i < 100; i++) {
+            hover.add("moved", 100 + 6 * i, cy + (int) (120 * Math.sin(i / 8.0)));
+        }
+        recordings.add(hover);
+
+        Recording rotate = new Recording("rotate").mode(Plot3DCanvas.ROTATION).add("pressed", cx, cy);
+        for (int i = 1; i <= 60; i++) {
+            rotate.add("dragged", cx + 4 * i, cy + 2 * i);
+        }
+        recordings.add(rotate.add("released", cx + 240, cy + 120));
+        return recordings;
+    }
+
+    final Repaints repaints = new Repaints();
+    final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    // frames painted and drawn in draft quality, counted by the render listener
+    int frames, draftFrames;
+    final RenderStats.Listener counter = new RenderStats.Listener() {
+
+        public void frameRendered(PlotCanvas canvas, RenderStats stats) {
+            frames++;
+            if (stats.draft) {
+                draftFrames++;
+            }
+        }
+    };
+
+    Result replay(final Scene scene, final Recording recording) throws InterruptedException, InvocationTargetException {
+        final Result result = new Result();
+        result.scene = scene.name;
+        result.recording = recording.name;
+        final List<Double> latencies = new ArrayList<Double>();
+        for (int round = 0; round < WARMUP + ROUNDS; round++) {
+            final boolean measured = round >= WARMUP;
+            final PlotCanvas[] canvas = new PlotCanvas[1];
+            SwingUtilities.invokeAndWait(new Runnable() {
+
+                public void run() {
+                    canvas[0] = scene.build().plotCanvas;
+                    canvas[0].setSize(WIDTH, HEIGHT);
+                    // coordinates are noted while hovering noted plots only
+                    for (Plot p : canvas[0].getPlots()) {
+                        p.noted = recording.hovers();
+                    }
+                    repaints.canvas = canvas[0];
+                }
+            });
+            // the resize events posted by setSize are handled before the replay
+            SwingUtilities.invokeAndWait(new Runnable() {
+
+                public void run() {
+                    repaints.take();
+                    paint(canvas[0], null);
+                    frames = 0;
+                    draftFrames = 0;
+                    canvas[0].addRenderListener(counter);
+                    long when = System.currentTimeMillis();
+                    for (Step s : recording.steps) {
+                        long t = System.nanoTime();
+                        if (!dispatch(canvas[0], s, when += 16)) {
+                            continue;
+                        }
+                        Rectangle dirty = repaints.take();
+                        if (dirty != null) {
+                            paint(canvas[0], dirty);
+                        }
+                        if (measured) {
+                            latencies.add((System.nanoTime() - t) / 1e6);
+                            result.events++;
+                        }
+                    }
+                    if (measured) {
+                        result.frames += frames;
+                        result.draftFrames += draftFrames;
+                    }
+                }
+            });
+
+            // the refine timer fires on the event dispatch thread, once idle
+            Thread.sleep(Math.max(0, canvas[0].getRefineDelay()) + 100);
+            SwingUtilities.invokeAndWait(new Runnable() {
+
+                public void run() {
+                    long t = System.nanoTime();
+                    Rectangle dirty = repaints.take();
+                    if (dirty != null) {
+                        paint(canvas[0], dirty);
+                        if (measured) {
+                            result.refine = Math.max(result.refine, (System.nanoTime() - t) / 1e6);
+                            result.frames++;
+                        }
+                    }
+                    canvas[0].removeRenderListener(counter);
+                }
+            });
+        }
+        result.latencies = new double[latencies.size()];
+        for (int i = 0; i < result.latencies.length; i++) {
+            result.latencies[i] = latencies.get(i);
+        }
+        Arrays.sort(result.latencies);
+        return result;
+    }
+
+    void paint(PlotCanvas canvas, Rectangle clip) {
+        Graphics2D g = image.createGraphics();
+        if (clip != null) {
+            g.setClip(clip.intersection(new Rectangle(0, 0, WIDTH, HEIGHT)));
+        }
+        canvas.paint(g);
+        g.dispose();
+    }
+
+    /**
+     * Sends step to the listeners of canvas, as the event queue would.
+     *
+     * @return false if the step is not an event
+     */
+    static boolean dispatch(PlotCanvas canvas, Step s, long when) {
+        if (s.type.equals("mode")) {
+            canvas.ActionMode = s.value;
+            return false;
+        }
+        if (s.type.equals("wheel")) {
+            MouseWheelEvent e = new MouseWheelEvent(canvas, MouseEvent.MOUSE_WHEEL, when, 0, s.x, s.y, 0, false, MouseWheelEvent.WHEEL_UNIT_SCROLL, 3, s.value);
+            for (MouseWheelListener l : canvas.getMouseWheelListeners()) {
+                l.mouseWheelMoved(e);
+            }
+        } else if (s.type.equals("moved")) {
+            MouseEvent e = new MouseEvent(canvas, MouseEvent.MOUSE_MOVED, when, 0, s.x, s.y, 0, false);
+            for (MouseMotionListener l : canvas.getMouseMotionListeners()) {
+                l.mouseMoved(e);
+            }
+        } else if (s.type.equals("dragged")) {
+            MouseEvent e = new MouseEvent(canvas, MouseEvent.MOUSE_DRAGGED, when, InputEvent.BUTTON1_DOWN_MASK, s.x, s.y, 0, false, MouseEvent.BUTTON1);
+            for (MouseMotionListener l : canvas.getMouseMotionListeners()) {
+                l.mouseDragged(e);
+            }
+        } else if (s.type.equals("pressed")) {
+            MouseEvent e = new MouseEvent(canvas, MouseEvent.MOUSE_PRESSED, when, InputEvent.BUTTON1_DOWN_MASK, s.x, s.y, 1, false, MouseEvent.BUTTON1);
+            for (MouseListener l : canvas.getMouseListeners()) {
+                l.mousePressed(e);
+            }
+        } else if (s.type.equals("released")) {
+            MouseEvent e = new MouseEvent(canvas, MouseEvent.MOUSE_RELEASED, when, 0, s.x, s.y, 1, false, MouseEvent.BUTTON1);
+            for (MouseListener l : canvas.getMouseListeners()) {
+                l.mouseReleased(e);
+            }
+        } else {
+            throw new IllegalArgumentException("unknown step " + s.type);
+        }
+        return true;
+    }
+
+    // nearest rank percentile of sorted values
+    static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    static void write(List<Result> results, File file) throws IOException {
+        Writer w = new FileWriter(file);
+        try {
+            w.write("{\n  \"java\": \"" + System.getProperty("java.version") + "\",\n");
+            w.write("  \"time\": " + System.currentTimeMillis() + ",\n");
+            w.write("  \"results\": [");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                w.write(i == 0 ? "\n" : ",\n");
+                w.write(String.format(Locale.ROOT, "    {\"scene\": \"%s\", \"recording\": \"%s\", \"events\": %d, \"frames\": %d, \"draftFrames\": %d, "
+                        + "\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"max\": %.3f, \"refine\": %.3f}",
+                        r.scene, r.recording, r.events, r.frames, r.draftFrames,
+                        percentile(r.latencies, 50), percentile(r.latencies, 90), percentile(r.latencies, 99), percentile(r.latencies, 100), r.refine));
+            }
+            w.write("\n  ]\n}\n");
+        } finally {
+            w.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        File output = new File(args.length > 0 ? args[0] : "replay-result.json");
+        List<Recording> recordings = recordings();
+        for (int i = 1; i < args.length; i++) {
+            recordings.add(Recording.read(new File(args[i])));
+        }
+
+        InteractionReplay replay = new InteractionReplay();
+        RepaintManager.setCurrentManager(replay.repaints);
+        List<Result> results = new ArrayList<Result>();
+        System.out.println(String.format(Locale.ROOT, "%-10s %-10s %7s %7s %7s %9s %9s %9s %9s %9s", "scene", "recording", "events", "frames", "draft", "p50 ms", "p90 ms", "p99 ms", "max ms", "refine ms"));
+        for (Scene scene : scenes()) {
+            for (Recording recording : recordings) {
+                if (recording.rotates() && !scene.is3D) {
+                    continue;
+                }
+                Result r = replay.replay(scene, recording);
+                results.add(r);
+                System.out.println(String.format(Locale.ROOT, "%-10s %-10s %7d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f", r.scene, r.recording, r.events, r.frames, r.draftFrames,
+                        percentile(r.latencies, 50), percentile(r.latencies, 90), percentile(r.latencies, 99), percentile(r.latencies, 100), r.refine));
+            }
+        }
+        write(results, output);
+        System.out.println("results written to " + output);
+        System.exit(0);
+    }
+}
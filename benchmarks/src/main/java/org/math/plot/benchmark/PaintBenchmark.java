@@ -0,0 +1,69 @@
+package org.math.plot.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.concurrent.TimeUnit;
+
+import org.math.plot.canvas.PlotCanvas;
+import org.math.plot.plotObjects.Base;
+import org.math.plot.plots.LinePlot;
+import org.math.plot.plots.Plot;
+import org.math.plot.plots.ScatterPlot;
+import org.math.plot.render.PlotData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full offscreen paint of a canvas holding one plot of n points : grid,
+ * plot and overlay, the retained layers being disabled so that every paint
+ * draws the plot. Run with the GC profiler (default of {@link Benchmarks}) to
+ * get the allocations per frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+@State(Scope.Thread)
+public class PaintBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int n;
+    @Param({"2", "3"})
+    public int dimension;
+    @Param({"scatter", "line"})
+    public String plot;
+    private PlotCanvas canvas;
+    private Graphics2D g;
+
+    @Setup
+    public void setup() {
+        canvas = Canvases.canvas(dimension, Base.LINEAR);
+        canvas.setRetainLayers(false);
+        PlotData data = PlotData.columns(Canvases.columns(n, dimension, 1));
+        Plot p = plot.equals("line") ? new LinePlot(plot, Color.BLUE, data) : new ScatterPlot(plot, Color.BLUE, data);
+        canvas.addPlot(p);
+        g = Canvases.graphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public PlotCanvas paint() {
+        canvas.paint(g);
+        return canvas;
+    }
+}
@@ -0,0 +1,79 @@
+package org.math.plot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.math.plot.plotObjects.Base;
+import org.math.plot.render.Projection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Plot to screen projection of one point, point by point and in bulk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ProjectionBenchmark {
+
+    private final static int POINTS = 1024;
+    @Param({"2", "3"})
+    public int dimension;
+    @Param({Base.LINEAR, Base.LOGARITHM})
+    public String scale;
+    private Projection projection;
+    private double[][] rows;
+    private double[][] columns;
+    private final int[] sC = new int[2];
+    private final int[] sX = new int[POINTS];
+    private final int[] sY = new int[POINTS];
+
+    @Setup
+    public void setup() {
+        projection = Canvases.drawer(Canvases.canvas(dimension, scale)).projection;
+        rows = Canvases.rows(POINTS, dimension, 1);
+        columns = new double[dimension][POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            for (int j = 0; j < dimension; j++) {
+                columns[j][i] = rows[i][j];
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int screenProjection() {
+        int s = 0;
+        for (int i = 0; i < POINTS; i++) {
+            projection.screenProjection(rows[i], sC);
+            s += sC[0] + sC[1];
+        }
+        return s;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int[] screenProjectionRows() {
+        projection.screenProjection(rows, 0, POINTS, sX, sY);
+        return sX;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int[] screenProjectionColumns() {
+        projection.screenProjectionColumns(columns, 0, POINTS, sX, sY);
+        return sX;
+    }
+}
@@ -3,6 +3,7 @@ package org.math.plot;
 import java.awt.*;
 
 import org.math.plot.canvas.*;
+import org.math.plot.render.PlotData;
 
 /**
  * BSD License
@@ -81,6 +82,15 @@ public class Plot2DPanel extends PlotPanel {
     public int addScatterPlot(String name, Color color, double[] X, double[] Y) {
         return ((Plot2DCanvas) plotCanvas).addScatterPlot(name, color, X,Y);
     }
+
+    /**
+     * Adds a scatter plot of points stored by rows or by columns, without
+     * copying them : getPlot(i).dataChanged() must be called after changing
+     * their arrays in place.
+     */
+    public int addScatterPlot(String name, Color color, PlotData data) {
+        return ((Plot2DCanvas) plotCanvas).addScatterPlot(name, color, data);
+    }
     
     public int addScatterPlot(String name, double[][] XY) {
         return addScatterPlot(name, getNewColor(), XY);
@@ -128,6 +138,15 @@ public class Plot2DPanel extends PlotPanel {
     public int addLinePlot(String name, Color color, double[] X, double[] Y) {
         return ((Plot2DCanvas) plotCanvas).addLinePlot(name, color, X,Y);
     }
+
+    /**
+     * Adds a line plot of points stored by rows or by columns, without
+     * copying them : getPlot(i).dataChanged() must be called after changing
+     * their arrays in place.
+     */
+    public int addLinePlot(String name, Color color, PlotData data) {
+        return ((Plot2DCanvas) plotCanvas).addLinePlot(name, color, data);
+    }
     
     public int addLinePlot(String name, double[][] XY) {
         return addLinePlot(name, getNewColor(), XY);
@@ -9,7 +9,11 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
@@ -22,8 +26,14 @@ import org.math.plot.components.LegendPanel;
 import org.math.plot.components.PlotToolBar;
 import org.math.plot.plotObjects.Axis;
 import org.math.plot.plotObjects.Plotable;
+import org.math.plot.plots.BarPlot;
+import org.math.plot.plots.LinePlot;
 import org.math.plot.plots.Plot;
+import org.math.plot.plots.ScatterPlot;
+import org.math.plot.render.PlotData;
+import org.math.plot.utils.ASCIIReader;
 import org.math.plot.utils.Array;
+import org.math.plot.utils.ColumnFile;
 
 /**
  * BSD License
@@ -468,7 +478,16 @@ public abstract class PlotPanel extends JPanel {
     }
 
     public static void main(String[] args) {
-        String man = "Usage: jplot.<sh|bat> <-2D|-3D> [-l <INVISIBLE|NORTH|SOUTH|EAST|WEST>] [options] <ASCII file (n rows, m columns)> [[options] other ASCII file]\n" + "[-l <INVISIBLE|NORTH|SOUTH|EAST|WEST>] giving the legend position\n" + "[options] are:\n" + "  -t <SCATTER|LINE|BAR|HISTOGRAM2D(<integer h>)|HISTOGRAM3D(<integer h>,<integer k>)|GRID3D|CLOUD2D(<integer h>,<integer k>)|CLOUD3D(<integer h>,<integer k>,<integer l>)>    type of the plot\n" + "      SCATTER|LINE|BAR: each line of the ASCII file contains coordinates of one point.\n" + "      HISTOGRAM2D(<integer h>): ASCII file contains the 1D sample (i.e. m=1) to split in h slices.\n" + "      HISTOGRAM3D(<integer h>,<integer k>): ASCII file contains the 2D sample (i.e. m=2) to split in h*k slices (h slices on X axis and k slices on Y axis).\n" + "      GRID3D: ASCII file is a matrix, first row gives n X grid values, first column gives m Y grid values, other values are Z values.\n" + "      CLOUD2D(<integer h>,<integer k>): ASCII file contains the 2D sample (i.e. m=2) to split in h*k slices (h slices on X axis and k slices on Y axis), density of cloud corresponds to frequency of X-Y slice in given 2D sample.\n" + "      CLOUD3D(<integer h>,<integer k>,<integer l>): ASCII file contains the 3D sample (i.e. m=3) to split in h*k*l slices (h slices on X axis, k slices on Y axis, l slices on Y axis), density of cloud corresponds to frequency of X-Y-Z slice in given 3D sample.\n" + "  -n name    name of the plot\n" + "  -v <ASCII file (n,3|2)>    vector data to add to the plot\n" + "  -q<X|Y|Z>(<float Q>) <ASCII file (n,1)>    Q-quantile to add to the plot on <X|Y|Z> axis. Each line of the given ASCII file contains the value of quantile for probvability Q.\n" + "  -qP<X|Y|Z> <ASCII file (n,p)>    p-quantiles density to add to the plot on <X|Y|Z> axis. Each line of the given ASCII file contains p values.\n" + "  -qN<X|Y|Z> <ASCII file (n,1)>    Gaussian density to add to the plot on <X|Y|Z> axis. Each line of the given ASCII file contains a standard deviation.";
+        String man = "Usage: jplot.<sh|bat> <-2D|-3D> [-l <INVISIBLE|NORTH|SOUTH|EAST|WEST>] [options] <ASCII or binary file (n rows, m columns)> [[options] other ASCII or binary file]\n" + "       jplot.<sh|bat> -convert <ASCII file> <binary file>    converts an ASCII file to a binary column file, memory mapped when plotted\n" + "[-l <INVISIBLE|NORTH|SOUTH|EAST|WEST>] giving the legend position\n" + "[options] are:\n" + "  -t <SCATTER|LINE|BAR|HISTOGRAM2D(<integer h>)|HISTOGRAM3D(<integer h>,<integer k>)|GRID3D|CLOUD2D(<integer h>,<integer k>)|CLOUD3D(<integer h>,<integer k>,<integer l>)>    type of the plot\n" + "      SCATTER|LINE|BAR: each line of the ASCII file contains coordinates of one point.\n" + "      HISTOGRAM2D(<integer h>): ASCII file contains the 1D sample (i.e. m=1) to split in h slices.\n" + "      HISTOGRAM3D(<integer h>,<integer k>): ASCII file contains the 2D sample (i.e. m=2) to split in h*k slices (h slices on X axis and k slices on Y axis).\n" + "      GRID3D: ASCII file is a matrix, first row gives n X grid values, first column gives m Y grid values, other values are Z values.\n" + "      CLOUD2D(<integer h>,<integer k>): ASCII file contains the 2D sample (i.e. m=2) to split in h*k slices (h slices on X axis and k slices on Y axis), density of cloud corresponds to frequency of X-Y slice in given 2D sample.\n" + "      CLOUD3D(<integer h>,<integer k>,<integer l>): ASCII file contains the 3D sample (i.e. m=3) to split in h*k*l slices (h slices on X axis, k slices on Y axis, l slices on Y axis), density of cloud corresponds to frequency of X-Y-Z slice in given 3D sample.\n" + "  -n name    name of the plot\n" + "  -v <ASCII file (n,3|2)>    vector data to add to the plot\n" + "  -q<X|Y|Z>(<float Q>) <ASCII file (n,1)>    Q-quantile to add to the plot on <X|Y|Z> axis. Each line of the given ASCII file contains the value of quantile for probvability Q.\n" + "  -qP<X|Y|Z> <ASCII file (n,p)>    p-quantiles density to add to the plot on <X|Y|Z> axis. Each line of the given ASCII file contains p values.\n" + "  -qN<X|Y|Z> <ASCII file (n,1)>    Gaussian density to add to the plot on <X|Y|Z> axis. Each line of the given ASCII file contains a standard deviation.";
+
+        if (args.length == 3 && args[0].equals("-convert")) {
+            try {
+                ColumnFile.convert(new File(args[1]), new File(args[2]));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
 
         if (args.length == 0) {
             double[][] data = new double[20][];
@@ -514,6 +533,21 @@ public abstract class PlotPanel extends JPanel {
             double[] qNY = null;
             double[] qNZ = null;
 
+            // ASCII input files are read at once, concurrently
+            List<File> inputs = new ArrayList<File>();
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].startsWith("-")) {
+                    i++;
+                } else if (new File(args[i]).exists() && !ColumnFile.isColumnFile(new File(args[i]))) {
+                    inputs.add(new File(args[i]));
+                }
+            }
+            double[][][] columns = ASCIIReader.readColumns(inputs.toArray(new File[inputs.size()]));
+            Map<File, double[][]> loaded = new HashMap<File, double[][]>();
+            for (int i = 0; i < columns.length; i++) {
+                loaded.put(inputs.get(i), columns[i]);
+            }
+
             for (int i = 1; i < args.length; i++) {
                 //System.out.println("<" + args[i] + ">");
                 if (args[i].equals("-l")) {
@@ -566,40 +600,52 @@ public abstract class PlotPanel extends JPanel {
                             name = input_file.getName();
                         }
 
-                        if (p instanceof Plot2DPanel) {
+                        // columns are plotted without copy, either parsed or mapped from a binary file
+                        PlotData data = readData(input_file, loaded);
+                        // other plots and layers read rows : mapped columns are explicitly copied on the heap
+                        boolean layers = v != null || qX != null || qY != null || qZ != null || qPX != null || qPY != null || qPZ != null || qNX != null || qNY != null || qNZ != null;
+                        if (!layers && (type.equals("SCATTER") || type.equals("LINE") || type.equals("BAR")) && data.dimension() >= p.plotCanvas.base.dimension) {
+                            if (type.equals("SCATTER")) {
+                                n = p.plotCanvas.addPlot(new ScatterPlot(name, p.getNewColor(), data));
+                            } else if (type.equals("LINE")) {
+                                n = p.plotCanvas.addPlot(new LinePlot(name, p.getNewColor(), data));
+                            } else {
+                                n = p.plotCanvas.addPlot(new BarPlot(name, p.getNewColor(), data));
+                            }
+                        } else if (p instanceof Plot2DPanel) {
                             Plot2DPanel p2d = (Plot2DPanel) p;
                             if (type.equals("SCATTER")) {
-                                n = p2d.addScatterPlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p2d.addScatterPlot(name, rows(data));
                             } else if (type.equals("LINE")) {
-                                n = p2d.addLinePlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p2d.addLinePlot(name, rows(data));
                             } else if (type.equals("BAR")) {
-                                n = p2d.addBarPlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p2d.addBarPlot(name, rows(data));
                             } else if (type.startsWith("HISTOGRAM2D(")) {
-                                n = p2d.addHistogramPlot(name, ASCIIFile.readDouble1DArray(input_file), Integer.parseInt(type.substring(12, type.length() - 1)));
+                                n = p2d.addHistogramPlot(name, column(data, 0), Integer.parseInt(type.substring(12, type.length() - 1)));
                             } else if (type.startsWith("CLOUD2D(")) {
-                                n = p2d.addCloudPlot(name, ASCIIFile.readDoubleArray(input_file), Integer.parseInt(type.substring(8, type.indexOf(","))),
+                                n = p2d.addCloudPlot(name, rows(data), Integer.parseInt(type.substring(8, type.indexOf(","))),
                                         Integer.parseInt(type.substring(type.indexOf(",") + 1, type.length() - 1)));
                             } else {
-                                p2d.addPlot(type, name, ASCIIFile.readDoubleArray(input_file));
+                                p2d.addPlot(type, name, rows(data));
                             }
                         } else {
                             Plot3DPanel p3d = (Plot3DPanel) p;
                             if (type.equals("SCATTER")) {
-                                n = p3d.addScatterPlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p3d.addScatterPlot(name, rows(data));
                             } else if (type.equals("LINE")) {
-                                n = p3d.addLinePlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p3d.addLinePlot(name, rows(data));
                             } else if (type.equals("BAR")) {
-                                n = p3d.addBarPlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p3d.addBarPlot(name, rows(data));
                             } else if (type.startsWith("HISTOGRAM3D(")) {
-                                n = p3d.addHistogramPlot(name, ASCIIFile.readDoubleArray(input_file), Integer.parseInt(type.substring(12, type.indexOf(","))),
+                                n = p3d.addHistogramPlot(name, rows(data), Integer.parseInt(type.substring(12, type.indexOf(","))),
                                         Integer.parseInt(type.substring(type.indexOf(",") + 1, type.length() - 1)));
                             } else if (type.equals("GRID3D")) {
-                                n = p3d.addGridPlot(name, ASCIIFile.readDoubleArray(input_file));
+                                n = p3d.addGridPlot(name, rows(data));
                             } else if (type.startsWith("CLOUD3D(")) {
-                                n = p3d.addCloudPlot(name, ASCIIFile.readDoubleArray(input_file), Integer.parseInt(type.substring(8, type.indexOf(","))),
+                                n = p3d.addCloudPlot(name, rows(data), Integer.parseInt(type.substring(8, type.indexOf(","))),
                                         Integer.parseInt(type.substring(type.indexOf(",") + 1, type.indexOf(",", type.indexOf(",") + 1))), Integer.parseInt(type.substring(type.indexOf(",", type.indexOf(",") + 1) + 1, type.length() - 1)));
                             } else {
-                                p3d.addPlot(type, name, ASCIIFile.readDoubleArray(input_file));
+                                p3d.addPlot(type, name, rows(data));
                             }
                         }
 
@@ -672,6 +718,31 @@ public abstract class PlotPanel extends JPanel {
         }
     }
 
+    // columns of an ASCII file, already read if in loaded, or of a binary column file
+    private static PlotData readData(File file, Map<File, double[][]> loaded) throws IOException {
+        if (ColumnFile.isColumnFile(file)) {
+            return ColumnFile.open(file).getData();
+        }
+        double[][] columns = loaded.remove(file);
+        return PlotData.columns(columns != null ? columns : ASCIIReader.readColumns(file));
+    }
+
+    private static double[][] rows(PlotData data) {
+        double[][] rows = new double[data.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = data.getRow(i);
+        }
+        return rows;
+    }
+
+    private static double[] column(PlotData data, int j) {
+        double[] column = new double[data.size()];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = data.get(i, j);
+        }
+        return column;
+    }
+
     /**
      * @return the font
      */
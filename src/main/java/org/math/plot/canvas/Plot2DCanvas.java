@@ -48,16 +48,17 @@ public class Plot2DCanvas extends PlotCanvas {
 		initBasenGrid(new double[] { 0, 0 }, new double[] { 1, 1 });
 	}
 
-	private static double[][] convertY(double[] XY) {
-		double[] x = increment(XY.length, 1, 1);
-		return mergeColumns(x, XY);
+	// points stored by columns, copying the given arrays
+	private static PlotData convertY(double[] Y) {
+		double[] x = increment(Y.length, 1, 1);
+		return PlotData.columns(x, Y.clone());
 	}
 
-	private static double[][] convertXY(double[]... XY) {
+	private static PlotData convertXY(double[]... XY) {
 		if (XY.length == 2 && XY[0].length != 2)
-			return mergeColumns(XY[0], XY[1]);
+			return PlotData.columns(XY[0].clone(), XY[1].clone());
 		else
-			return XY;
+			return PlotData.rows(XY);
 	}
 
 	public int addScatterPlot(String name, Color c, double[] Y) {
@@ -72,6 +73,14 @@ public class Plot2DCanvas extends PlotCanvas {
 		return addPlot(new ScatterPlot(name, c, convertXY(X,Y)));
 	}
 
+	/**
+	 * Adds a scatter plot of data, which is not copied : call dataChanged() on
+	 * the plot after changing its arrays.
+	 */
+	public int addScatterPlot(String name, Color c, PlotData data) {
+		return addPlot(new ScatterPlot(name, c, data));
+	}
+
 	public int addLinePlot(String name, Color c, double[] Y) {
 		return addPlot(new LinePlot(name, c, convertY(Y)));
 	}
@@ -84,6 +93,14 @@ public class Plot2DCanvas extends PlotCanvas {
 		return addPlot(new LinePlot(name, c, convertXY(X,Y)));
 	}
 
+	/**
+	 * Adds a line plot of data, which is not copied : call dataChanged() on
+	 * the plot after changing its arrays.
+	 */
+	public int addLinePlot(String name, Color c, PlotData data) {
+		return addPlot(new LinePlot(name, c, data));
+	}
+
 	public int addBarPlot(String name, Color c, double[] Y) {
 		return addPlot(new BarPlot(name, c, convertY(Y)));
 	}
@@ -145,8 +162,11 @@ public class Plot2DCanvas extends PlotCanvas {
 	}
 
 	public int addCloudPlot(String name, Color c, double[][] sampleXY, int nX, int nY) {
-		double[][] XYh = histogram_classes_2D(sampleXY, nX, nY);
-		return addPlot(new CloudPlot2D(name, c, XYh, XYh[1][0] - XYh[0][0], XYh[nX][1] - XYh[0][1]));
+		double[] boundsX = classBounds(sampleXY, 0, nX);
+		double[] boundsY = classBounds(sampleXY, 1, nY);
+		// empty cells are not drawn
+		double[][] XYh = cells(sampleXY, boundsX, boundsY);
+		return addPlot(new CloudPlot2D(name, c, XYh, boundsX[1] - boundsX[0], boundsY[1] - boundsY[0]));
 	}
 	
 	public static void main(String[] args) {
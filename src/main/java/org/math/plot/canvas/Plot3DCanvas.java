@@ -138,8 +138,12 @@ public class Plot3DCanvas extends PlotCanvas {
     }
 
     public int addCloudPlot(String name, Color c, double[][] sampleXYZ, int nX, int nY, int nZ) {
-        double[][] XYZh = histogram_classes_3D(sampleXYZ, nX, nY, nZ);
-        return addPlot(new CloudPlot3D(name, c, XYZh, XYZh[1][0] - XYZh[0][0], XYZh[nX][1] - XYZh[0][1], XYZh[nX][2] - XYZh[0][2]));
+        double[] boundsX = classBounds(sampleXYZ, 0, nX);
+        double[] boundsY = classBounds(sampleXYZ, 1, nY);
+        double[] boundsZ = classBounds(sampleXYZ, 2, nZ);
+        // empty cells are not drawn
+        double[][] XYZh = cells(sampleXYZ, boundsX, boundsY, boundsZ);
+        return addPlot(new CloudPlot3D(name, c, XYZh, boundsX[1] - boundsX[0], boundsY[1] - boundsY[0], boundsZ[1] - boundsZ[0]));
     }
 
     public void mouseDragged(MouseEvent e) {
@@ -160,6 +164,7 @@ public class Plot3DCanvas extends PlotCanvas {
             ((AWTDrawer3D) draw).rotate(t, new int[]{getWidth(), getHeight()});
             mouseClick[0] = mouseCurent[0];
             mouseClick[1] = mouseCurent[1];
+            interacting();
             repaint();
         } else {
             super.mouseDragged(e);
@@ -8,8 +8,10 @@ import javax.swing.JFrame;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
@@ -21,14 +23,20 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.imageio.ImageIO;
-import javax.swing.ImageIcon;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 import org.math.plot.components.DataFrame;
 import org.math.plot.components.LegendPanel;
@@ -38,8 +46,12 @@ import org.math.plot.plotObjects.BaseDependant;
 import org.math.plot.plotObjects.BasePlot;
 import org.math.plot.plotObjects.Plotable;
 import org.math.plot.plots.Plot;
+import org.math.plot.plots.ScatterPlot;
 import org.math.plot.render.AbstractDrawer;
+import org.math.plot.render.RenderStats;
+import org.math.plot.render.TextCache;
 import org.math.plot.utils.Array;
+import org.math.plot.utils.Parallel;
 
 import static org.math.plot.plotObjects.Base.*;
 
@@ -236,8 +248,9 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
     }
 
     public void includeInBounds(Plot plot) {
-        boolean changed = base.includeInBounds(Array.min(plot.getBounds()));
-        changed = changed | base.includeInBounds(Array.max(plot.getBounds()));
+        double[][] bounds = plot.getCachedBounds();
+        boolean changed = base.includeInBounds(bounds[0]);
+        changed = changed | base.includeInBounds(bounds[1]);
         if (!changed) {
             return;
         }
@@ -246,9 +259,16 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
     }
 
     public void setAutoBounds() {
+        autoBounds();
+        resetBase();
+        repaint();
+    }
+
+    // sets the base bounds to the bounds of the plots
+    private void autoBounds() {
         if (plots.size() > 0) {
-            Plot plot0 = this.getPlot(0);
-            base.setRoundBounds(Array.min(plot0.getBounds()), Array.max(plot0.getBounds()));
+            double[][] bounds0 = getPlot(0).getCachedBounds();
+            base.setRoundBounds(bounds0[0], bounds0[1]);
         } else { // build default min and max bounds
             double[] min = new double[base.dimension];
             double[] max = new double[base.dimension];
@@ -264,18 +284,16 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
             base.setRoundBounds(min, max);
         }
         for (int i = 1; i < plots.size(); i++) {
-            Plot ploti = this.getPlot(i);
-            base.includeInBounds(Array.min(ploti.getBounds()));
-            base.includeInBounds(Array.max(ploti.getBounds()));
+            double[][] boundsi = getPlot(i).getCachedBounds();
+            base.includeInBounds(boundsi[0]);
+            base.includeInBounds(boundsi[1]);
         }
-        resetBase();
-        repaint();
     }
 
     public void setAutoBounds(int axe) {
         if (plots.size() > 0) {
-            Plot plot0 = this.getPlot(0);
-            base.setRoundBounds(axe, Array.min(plot0.getBounds())[axe], Array.max(plot0.getBounds())[axe]);
+            double[][] bounds0 = getPlot(0).getCachedBounds();
+            base.setRoundBounds(axe, bounds0[0][axe], bounds0[1][axe]);
         } else { // build default min and max bounds
             double min = 0.0;
             double max = 0.0;
@@ -290,9 +308,9 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
         }
 
         for (int i = 1; i < plots.size(); i++) {
-            Plot ploti = this.getPlot(i);
-            base.includeInBounds(axe, Array.min(ploti.getBounds())[axe]);
-            base.includeInBounds(axe, Array.max(ploti.getBounds())[axe]);
+            double[][] boundsi = getPlot(i).getCachedBounds();
+            base.includeInBounds(axe, boundsi[0][axe]);
+            base.includeInBounds(axe, boundsi[1][axe]);
         }
         resetBase();
         repaint();
@@ -369,6 +387,64 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
         return plots.size() - 1;
     }
 
+    /**
+     * Appends points to a scatter, line or staircase plot, see
+     * {@link ScatterPlot#append(double[]...)}. Base and grid are only reset
+     * when the rounded bounds change, and only the screen area of the plot
+     * and of the appended points is rendered again in the layers cache.
+     */
+    public void appendPlotData(int I, double[]... XY) {
+        if (!(getPlot(I) instanceof ScatterPlot)) {
+            throw new IllegalArgumentException("Plot " + I + " does not support appending data");
+        }
+        ScatterPlot plot = (ScatterPlot) getPlot(I);
+        // screen area of the plot in the layers cache, before the points are appended
+        Rectangle extent = extentsKey == extentsKey() ? plotExtents.get(plot) : null;
+        plot.append(XY);
+        if (adjustBounds) {
+            double[][] coords = base.baseCoords;
+            double[][] bounds = plot.getCachedBounds();
+            if (plot.getWindow() > 0 && !hasNaN(bounds)) {
+                // bounds of the window can shrink
+                autoBounds();
+            } else {
+                // NaN bounds (no values) are ignored
+                base.includeInBounds(bounds[0]);
+                base.includeInBounds(bounds[1]);
+            }
+            if (base.baseCoords != coords) {
+                resetBase();
+                repaint();
+                return;
+            }
+        }
+        Rectangle appended = extent == null ? null : plot.getExtent(draw, XY);
+        if (!retainLayers || layersInvalid || appended == null) {
+            repaint();
+            return;
+        }
+        // evicted points are in the previous area of the plot
+        extent = extent.union(appended);
+        plotExtents.put(plot, extent);
+        extentsKey = extentsKey();
+        if (!extent.isEmpty()) {
+            Rectangle r = new Rectangle(extent);
+            r.grow(2, 2);
+            repaintLayers(r);
+        }
+    }
+
+    private static boolean hasNaN(double[][] bounds) {
+        for (int i = 0; i < bounds.length; i++) {
+            for (int j = 0; j < bounds[i].length; j++) {
+                if (Double.isNaN(bounds[i][j])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public void setPlot(int I, Plot p) {
         plots.set(I, p);
         if (linkedLegendPanel != null) {
@@ -399,7 +475,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
         if (linkedLegendPanel != null) {
             linkedLegendPanel.updateLegends();
         }
-        repaint();
+        repaintPlot(getPlot(I));
     }
 
     public void removePlot(int I) {
@@ -473,37 +549,60 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
     // ////// call for toolbar actions ///////////
     // ///////////////////////////////////////////
     public void toGraphicFile(File file) throws IOException {
+        try {
+            ImageIO.write((RenderedImage) toBufferedImage(), "PNG", file);
+        } catch (IllegalArgumentException ex) {
+        }
+    }
 
-        Image image = createImage(getWidth(), getHeight());
-        paint(image.getGraphics());
-        image = new ImageIcon(image).getImage();
-
-        BufferedImage bufferedImage = new BufferedImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_RGB);
-        Graphics g = bufferedImage.createGraphics();
-        g.drawImage(image, 0, 0, Color.WHITE, null);
-        g.dispose();
+    /**
+     * Renders the canvas at its current size in a new image. The canvas does
+     * not need to be displayed, so that this also works headless.
+     */
+    public BufferedImage toBufferedImage() {
+        BufferedImage image = new BufferedImage(FastMath.max(getWidth(), 1), FastMath.max(getHeight(), 1), BufferedImage.TYPE_INT_RGB);
+        paintImage(image);
+        return image;
+    }
 
+    /**
+     * Paints the canvas at its current size in image.
+     */
+    public void paintImage(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        boolean _interacting = interacting;
         try {
-            ImageIO.write((RenderedImage) bufferedImage, "PNG", file);
-        } catch (IllegalArgumentException ex) {
+            interacting = false;
+            paintLayers(g);
+            paintOverlay(g);
+        } finally {
+            interacting = _interacting;
+            g.dispose();
         }
     }
-    JFrame scalesFrame = new ScalesFrame(this);
+    // frames are created when first displayed, so that canvases can be built headless
+    JFrame scalesFrame;
 
     public void setScalesFrame(JFrame scalesFrame) {
         this.scalesFrame = scalesFrame;
     }
 
     public void displayScalesFrame() {
+        if (scalesFrame == null) {
+            scalesFrame = new ScalesFrame(this);
+        }
         scalesFrame.setVisible(true);
     }
-    DataFrame dataFrame = new DataFrame(this);
+    DataFrame dataFrame;
 
     public void setDataFrame(DataFrame dataFrame) {
         this.dataFrame = dataFrame;
     }
 
     public void displayDataFrame(int i) {
+        if (dataFrame == null) {
+            dataFrame = new DataFrame(this);
+        }
         dataFrame.selectIndex(i);
     }
 
@@ -641,28 +740,162 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
 
         Graphics2D gcomp2D = (Graphics2D) gcomp;
 
+        RenderStats stats = renderListeners.isEmpty() ? null : new RenderStats();
+        if (stats != null) {
+            stats.beginFrame(draw);
+            stats.draft = interacting;
+            stats.tiles = renderTiles;
+            draw.stats = stats;
+        }
+        try {
+            if (retainLayers) {
+                paintRetainedLayers(gcomp2D);
+            } else {
+                paintLayers(gcomp2D);
+            }
+
+            // the area of the overlay is kept, to be cleared by the next repaintOverlay()
+            draw.damage = new Rectangle(0, 0, -1, -1);
+            try {
+                if (stats != null) {
+                    stats.begin(draw);
+                }
+                paintOverlay(gcomp2D);
+                if (stats != null) {
+                    stats.end(RenderStats.OVERLAY, null, null, draw);
+                }
+                overlayBounds = overlayBounds(draw.damage);
+            } finally {
+                draw.damage = null;
+            }
+        } finally {
+            draw.stats = null;
+        }
+
+        if (stats != null) {
+            stats.endFrame(draw);
+            for (RenderStats.Listener l : renderListeners) {
+                l.frameRendered(this, stats);
+            }
+        }
+    }
+
+    /**
+     * Paints everything depending on data and projection : grid, plots,
+     * layers, plotables and noted plots.
+     */
+    protected void paintLayers(Graphics2D gcomp2D) {
+        draw.draft = interacting;
+        if (renderTiles > 1) {
+            paintLayersTiles(gcomp2D);
+        } else {
+            paintLayers(gcomp2D, draw);
+        }
+    }
+
+    protected void paintLayers(Graphics2D gcomp2D, AbstractDrawer draw) {
+        paintLayers(gcomp2D, draw, draw == this.draw ? plotExtents : null);
+    }
+
+    // screen areas of the plots are recorded in extents if not null
+    private void paintLayers(Graphics2D gcomp2D, AbstractDrawer draw, HashMap<Plot, Rectangle> extents) {
         // anti-aliasing methods
-        gcomp2D.addRenderingHints(AALIAS);
-        gcomp2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        if (draw.draft) {
+            gcomp2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            gcomp2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+        } else {
+            gcomp2D.addRenderingHints(AALIAS);
+            gcomp2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        }
 
         gcomp2D.setColor(getBackground());
         gcomp2D.fillRect(0, 0, getSize().width, getSize().height);
 
         draw.initGraphics(gcomp2D);
 
+        // screen areas of the plots are recorded while drawing them, and used to skip the plots out of the clip
+        Rectangle clip = gcomp2D.getClipBounds();
+        boolean record = extents != null;
+        if (extents == plotExtents) {
+            clearExtents(clip);
+        }
+        boolean validExtents = extentsKey == extentsKey();
+
+        // elements are measured by the drawer of the canvas, or by the drawer of each tile
+        RenderStats stats = draw.stats;
+
         // draw plot
+        if (stats != null) {
+            stats.begin(draw);
+        }
         grid.plot(draw);
+        if (stats != null) {
+            stats.end(RenderStats.GRID, null, grid, draw);
+        }
 
         for (int i = 0; i < plots.size(); i++) {
-            getPlot(i).plot(draw);
-            if (linkedLegendPanel != null) {
-                linkedLegendPanel.nonote(i);
+            Plot p = getPlot(i);
+            Rectangle extent = validExtents ? plotExtents.get(p) : null;
+            if (clip != null && extent != null && !extent.intersects(clip)) {
+                continue;
+            }
+            if (record) {
+                draw.damage = new Rectangle(0, 0, -1, -1);
+            }
+            try {
+                if (stats != null) {
+                    stats.begin(draw);
+                }
+                p.plot(draw);
+                if (stats != null) {
+                    stats.end(RenderStats.PLOT, p.name, p, draw);
+                }
+            } finally {
+                if (record) {
+                    extents.put(p, draw.damage);
+                    draw.damage = null;
+                }
             }
         }
 
         for (int i = 0; i < objects.size(); i++) {
-            getPlotable(i).plot(draw);
+            Plotable o = getPlotable(i);
+            if (stats != null) {
+                stats.begin(draw);
+            }
+            o.plot(draw);
+            if (stats != null) {
+                stats.end(RenderStats.PLOTABLE, o.getClass().getSimpleName(), o, draw);
+            }
+        }
+
+        // draw noted plots
+        if (allowNote) {
+            for (int i = 0; i < plots.size(); i++) {
+                Plot p = getPlot(i);
+                Rectangle extent = validExtents ? plotExtents.get(p) : null;
+                if (p.noted && (clip == null || extent == null || extent.intersects(clip))) {
+                    if (stats != null) {
+                        stats.begin(draw);
+                    }
+                    p.note(draw);
+                    if (stats != null) {
+                        stats.end(RenderStats.NOTE, p.name, p, draw);
+                    }
+                }
+            }
         }
+    }
+
+    /**
+     * Paints the cheap elements drawn over the layers : zoom rectangle, legend
+     * notes and noted coordinates.
+     */
+    protected void paintOverlay(Graphics2D gcomp2D) {
+        gcomp2D.addRenderingHints(AALIAS);
+        gcomp2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        draw.initGraphics(gcomp2D);
 
         if (drawRect != null) {
             gcomp2D.setColor(Color.black);
@@ -670,6 +903,16 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
             gcomp2D.drawRect(drawRect[0], drawRect[1], drawRect[2], drawRect[3]);
         }
 
+        if (linkedLegendPanel != null) {
+            for (int i = 0; i < plots.size(); i++) {
+                if (allowNote && getPlot(i).noted) {
+                    linkedLegendPanel.note(i);
+                } else {
+                    linkedLegendPanel.nonote(i);
+                }
+            }
+        }
+
         // draw note
         if (allowNote) {
             /*if (allowNoteCoord && coordNoted != null) {
@@ -678,19 +921,394 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
             draw.drawText(Array.cat(reverseMapedData(coordNoted)), coordNoted);
             }*/
             for (int i = 0; i < plots.size(); i++) {
-                if (getPlot(i).noted) {
-                    if (linkedLegendPanel != null) {
-                        linkedLegendPanel.note(i);
-                    }
-                    getPlot(i).note(draw);
-                    //return;
-                }
                 if (allowNoteCoord && getPlot(i).coordNoted != null) {
                     getPlot(i).noteCoord(draw, getPlot(i).coordNoted);
                 }
             }
         }
     }
+
+    // ///////////////////////////////////////////
+    // ////// Tiles rendering ////////////////////
+    // ///////////////////////////////////////////
+    // if > 1, layers are rendered concurrently in this number of horizontal tiles
+    int renderTiles = 1;
+    // texts laid out by the drawer of each tile, kept between frames
+    private TextCache[] tileTexts;
+
+    /**
+     * Sets the number of horizontal tiles the layers are split in, each tile
+     * being rendered by its own thread with its own copy of the drawer. Plots
+     * and plotables added to this canvas must then support concurrent calls
+     * to plot(), which is the case of the plots of this library.
+     * 
+     * @param tiles
+     *            number of tiles, 1 to render on the calling thread only
+     */
+    public void setRenderTiles(int tiles) {
+        renderTiles = FastMath.max(1, tiles);
+        repaint();
+    }
+
+    public int getRenderTiles() {
+        return renderTiles;
+    }
+
+    private void paintLayersTiles(Graphics2D gcomp2D) {
+        final int width = getWidth();
+        final int height = getHeight();
+        // render at device resolution
+        final double sx = FastMath.abs(gcomp2D.getTransform().getScaleX());
+        final double sy = FastMath.abs(gcomp2D.getTransform().getScaleY());
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // projection coefficients are lazily updated : do it before copying the drawer
+        draw.getProjectionVersion();
+        final RenderStats stats = draw.stats;
+        // plots areas are recorded by each tile, then merged
+        clearExtents(gcomp2D.getClipBounds());
+        final List<HashMap<Plot, Rectangle>> tilesExtents = new CopyOnWriteArrayList<HashMap<Plot, Rectangle>>();
+
+        // tiles are mapped by index, so that each tile drawer reuses the texts laid out at the previous frames
+        final int count = FastMath.min(renderTiles, height);
+        if (tileTexts == null || tileTexts.length != count) {
+            tileTexts = new TextCache[count];
+            for (int i = 0; i < count; i++) {
+                tileTexts[i] = new TextCache();
+            }
+        }
+        // elements are measured by each tile, then merged in the order of the tiles
+        final RenderStats[] tilesStats = new RenderStats[count];
+
+        List<BufferedImage> tiles = Parallel.map(count, count, new Parallel.RangeTask<BufferedImage>() {
+
+            public BufferedImage compute(int first, int last) {
+                int from = (int) ((long) height * first / count);
+                int to = (int) ((long) height * last / count);
+                BufferedImage tile = new BufferedImage((int) FastMath.ceil(width * sx), (int) FastMath.ceil((to - from) * sy), BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = tile.createGraphics();
+                g.scale(sx, sy);
+                g.translate(0, -from);
+                g.setClip(0, from, width, to - from);
+                AbstractDrawer d = draw.copy();
+                if (d instanceof AWTDrawer) {
+                    ((AWTDrawer) d).setTextCache(tileTexts[first]);
+                }
+                if (stats != null) {
+                    d.stats = new RenderStats();
+                    d.stats.beginFrame(d);
+                }
+                HashMap<Plot, Rectangle> extents = new HashMap<Plot, Rectangle>();
+                paintLayers(g, d, extents);
+                g.dispose();
+                tilesExtents.add(extents);
+                if (stats != null) {
+                    d.stats.endFrame(d);
+                    tilesStats[first] = d.stats;
+                }
+                return tile;
+            }
+        });
+
+        for (int i = 0; i < tiles.size(); i++) {
+            int from = (int) ((long) height * i / tiles.size());
+            int to = (int) ((long) height * (i + 1) / tiles.size());
+            gcomp2D.drawImage(tiles.get(i), 0, from, width, to - from, null);
+        }
+        if (stats != null) {
+            for (RenderStats t : tilesStats) {
+                stats.merge(t);
+            }
+        }
+        for (HashMap<Plot, Rectangle> extents : tilesExtents) {
+            for (Map.Entry<Plot, Rectangle> e : extents.entrySet()) {
+                Rectangle extent = plotExtents.get(e.getKey());
+                plotExtents.put(e.getKey(), extent == null ? e.getValue() : extent.union(e.getValue()));
+            }
+        }
+    }
+
+    // ///////////////////////////////////////////
+    // ////// Render stats ///////////////////////
+    // ///////////////////////////////////////////
+    private final List<RenderStats.Listener> renderListeners = new CopyOnWriteArrayList<RenderStats.Listener>();
+    private RenderMonitor monitor;
+    private ObjectName monitorName;
+
+    /**
+     * Adds a listener receiving the timings and counters of each paint of this
+     * canvas, on the painting thread. Nothing is measured while there is no
+     * listener.
+     */
+    public void addRenderListener(RenderStats.Listener l) {
+        renderListeners.add(l);
+    }
+
+    public void removeRenderListener(RenderStats.Listener l) {
+        renderListeners.remove(l);
+    }
+
+    /**
+     * Registers a {@link RenderMonitorMBean} summing up the paints of this
+     * canvas in the platform MBean server, replacing the one registered
+     * before, if any.
+     * 
+     * @param name
+     *            name of the canvas, for instance the dashboard it is in
+     * @return org.math.plot:type=PlotCanvas,name=<quoted name>
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        unregisterMBean();
+        ObjectName on = new ObjectName("org.math.plot:type=PlotCanvas,name=" + ObjectName.quote(name));
+        RenderMonitor m = new RenderMonitor();
+        ManagementFactory.getPlatformMBeanServer().registerMBean(m, on);
+        monitor = m;
+        monitorName = on;
+        addRenderListener(m);
+        return on;
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if (monitor == null) {
+            return;
+        }
+        removeRenderListener(monitor);
+        monitor = null;
+        ObjectName on = monitorName;
+        monitorName = null;
+        if (ManagementFactory.getPlatformMBeanServer().isRegistered(on)) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(on);
+        }
+    }
+
+    // ///////////////////////////////////////////
+    // ////// Interaction quality ////////////////
+    // ///////////////////////////////////////////
+    // idle time after the last drag, wheel zoom or rotation before drawing at full quality again, in ms
+    int refineDelay = 250;
+    // true while the user moves the plots, which are then drawn in draft mode
+    boolean interacting;
+    private Timer refineTimer;
+
+    /**
+     * Sets the time the user input must be idle, after a drag, wheel zoom
+     * or rotation, before the plots are drawn again at full quality. In
+     * between, they are drawn in draft mode : without anti-aliasing, and
+     * simplified when large.
+     * 
+     * @param delay
+     *            in milliseconds, negative to always draw at full quality
+     */
+    public void setRefineDelay(int delay) {
+        refineDelay = delay;
+    }
+
+    public int getRefineDelay() {
+        return refineDelay;
+    }
+
+    /**
+     * Called on each step of a user interaction moving the plots : the
+     * following paints are drafts, until input is idle for the refine delay.
+     */
+    public void interacting() {
+        if (refineDelay < 0) {
+            return;
+        }
+        interacting = true;
+        if (refineTimer == null) {
+            refineTimer = new Timer(refineDelay, new ActionListener() {
+
+                public void actionPerformed(ActionEvent e) {
+                    interacting = false;
+                    repaint();
+                }
+            });
+            refineTimer.setRepeats(false);
+        }
+        refineTimer.setInitialDelay(refineDelay);
+        refineTimer.restart();
+    }
+
+    public boolean isInteracting() {
+        return interacting;
+    }
+
+    // ///////////////////////////////////////////
+    // ////// Layers cache ///////////////////////
+    // ///////////////////////////////////////////
+    // if true, layers are rendered once in an offscreen image, reused while only the overlay changes
+    boolean retainLayers = true;
+    private BufferedImage layersImage;
+    private int layersKey;
+    // set by each full repaint request
+    private boolean layersInvalid = true;
+    // area of the layers image to render again, if only some plots changed
+    private Rectangle layersDamage;
+    // screen areas drawn by the plots at the last rendering, valid while extentsKey() (projection, size, data) does not change
+    private HashMap<Plot, Rectangle> plotExtents = new HashMap<Plot, Rectangle>();
+    private int extentsKey;
+    // screen area drawn by the last paintOverlay(), null if unknown
+    private Rectangle overlayBounds;
+
+    public void setRetainLayers(boolean retain) {
+        retainLayers = retain;
+        layersImage = null;
+    }
+
+    public boolean getRetainLayers() {
+        return retainLayers;
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+        layersInvalid = true;
+        super.repaint(tm, x, y, width, height);
+    }
+
+    /**
+     * Repaints the canvas when only the overlay (zoom rectangle, noted
+     * coordinates) changed, so the layers cache can be reused. Only the areas
+     * of the previous and the new overlay are repainted.
+     */
+    public void repaintOverlay() {
+        Rectangle r = null;
+        if (overlayBounds != null && getWidth() > 0 && getHeight() > 0) {
+            // the new overlay is measured, not painted
+            Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+            g.setClip(0, 0, getWidth(), getHeight());
+            draw.damage = new Rectangle(0, 0, -1, -1);
+            try {
+                paintOverlay(g);
+                r = overlayBounds(draw.damage);
+            } finally {
+                draw.damage = null;
+                g.dispose();
+            }
+            r = r == null ? null : r.union(overlayBounds);
+        }
+        if (r == null) {
+            super.repaint(0, 0, 0, getWidth(), getHeight());
+        } else if (!r.isEmpty()) {
+            super.repaint(0, r.x, r.y, r.width, r.height);
+        }
+    }
+
+    private Rectangle overlayBounds(Rectangle damage) {
+        if (drawRect != null) {
+            damage = damage.union(new Rectangle(drawRect[0] - 1, drawRect[1] - 1, drawRect[2] + 3, drawRect[3] + 3));
+        }
+        if (damage.isEmpty()) {
+            return damage;
+        }
+        damage.grow(2, 2);
+        return damage;
+    }
+
+    /**
+     * Repaints the canvas when only the appearance (color, noted state) of
+     * plot changed : only the screen area the plot was drawn in is rendered
+     * again in the layers cache.
+     */
+    public void repaintPlot(Plot plot) {
+        Rectangle extent = extentsKey == extentsKey() ? plotExtents.get(plot) : null;
+        if (!retainLayers || layersInvalid || extent == null) {
+            repaint();
+        } else if (!extent.isEmpty()) {
+            Rectangle r = new Rectangle(extent);
+            r.grow(2, 2);
+            repaintLayers(r);
+        }
+    }
+
+    // renders again the area r of the layers cache
+    private void repaintLayers(Rectangle r) {
+        layersDamage = layersDamage == null ? r : layersDamage.union(r);
+        super.repaint(0, r.x, r.y, r.width, r.height);
+    }
+
+    private int extentsKey() {
+        int key = draw.getProjectionVersion();
+        key = 31 * key + getWidth();
+        key = 31 * key + getHeight();
+        for (int i = 0; i < plots.size(); i++) {
+            key = 31 * key + getPlot(i).getDataVersion();
+        }
+        return key;
+    }
+
+    // forgets the recorded plots areas if outdated, or if they are all painted again
+    private void clearExtents(Rectangle clip) {
+        if (extentsKey != extentsKey() || clip == null || clip.contains(0, 0, getWidth(), getHeight())) {
+            plotExtents.clear();
+            extentsKey = extentsKey();
+        }
+    }
+
+    // summarizes everything the layers image depends on
+    protected int layersKey() {
+        int key = draw.getProjectionVersion();
+        key = 31 * key + getWidth();
+        key = 31 * key + getHeight();
+        key = 31 * key + (allowNote ? 1 : 0);
+        for (int i = 0; i < plots.size(); i++) {
+            Plot p = getPlot(i);
+            key = 31 * key + System.identityHashCode(p);
+            key = 31 * key + p.getDataVersion();
+            key = 31 * key + (p.getColor() == null ? 0 : p.getColor().hashCode());
+            key = 31 * key + (p.getVisible() ? 1 : 0);
+            key = 31 * key + (p.noted ? 1 : 0);
+            key = 31 * key + p.layers.size();
+        }
+        key = 31 * key + objects.size();
+        return key;
+    }
+
+    private void paintRetainedLayers(Graphics2D gcomp2D) {
+        // render at device resolution, so that the cache is not blurred on scaled (HiDPI) screens
+        double sx = FastMath.abs(gcomp2D.getTransform().getScaleX());
+        double sy = FastMath.abs(gcomp2D.getTransform().getScaleY());
+        int w = (int) FastMath.ceil(getWidth() * sx);
+        int h = (int) FastMath.ceil(getHeight() * sy);
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+
+        int key = layersKey();
+        boolean resized = layersImage == null || layersImage.getWidth() != w || layersImage.getHeight() != h;
+        if (resized || layersInvalid || (key != layersKey && layersDamage == null)) {
+            if (resized) {
+                layersImage = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            }
+            Graphics2D g = layersImage.createGraphics();
+            g.scale(sx, sy);
+            g.setClip(0, 0, getWidth(), getHeight());
+            paintLayers(g);
+            g.dispose();
+        } else if (layersDamage != null) {
+            // the damaged area is small : rendered on the calling thread, even with tiles
+            Graphics2D g = layersImage.createGraphics();
+            g.scale(sx, sy);
+            Rectangle damage = layersDamage.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+            g.setClip(damage);
+            draw.draft = interacting;
+            paintLayers(g, draw);
+            g.dispose();
+            if (draw.stats != null) {
+                draw.stats.damage = damage;
+            }
+        } else if (draw.stats != null) {
+            draw.stats.retained = true;
+        }
+        layersKey = key;
+        layersInvalid = false;
+        layersDamage = null;
+
+        gcomp2D.drawImage(layersImage, 0, 0, getWidth(), getHeight(), null);
+    }
+
     // ///////////////////////////////////////////
     // ////// Listeners //////////////////////////
     // ///////////////////////////////////////////
@@ -705,7 +1323,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
         for (int i = 0; i < plots.size(); i++) {
             getPlot(i).coordNoted = null;
         }
-        repaint();
+        repaintOverlay();
     }
 
     public void mousePressed(MouseEvent e) {
@@ -743,6 +1361,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
                 draw.translate(mouseCurent[0] - mouseClick[0], mouseCurent[1] - mouseClick[1]);
                 mouseClick[0] = mouseCurent[0];
                 mouseClick[1] = mouseCurent[1];
+                interacting();
                 repaint();
                 break;
             case ZOOM:
@@ -757,7 +1376,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
                 drawRect[1] = y;
                 drawRect[2] = w;
                 drawRect[3] = h;
-                repaint();  //repaint(x - 1, y - 1, w + 2, h + 2);
+                repaintOverlay();  //repaint(x - 1, y - 1, w + 2, h + 2);
                 break;
         }
         //repaint();
@@ -787,7 +1406,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
                     repaint();
                 } else {
                     drawRect = null;
-                    repaint();
+                    repaintOverlay();
                 }
                 break;
         }
@@ -832,11 +1451,15 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
             for (int i = 0; i < plots.size(); i++) {
                 double[] _coordNoted = getPlot(i).isSelected(mouseClick, draw);
                 if (e.getModifiers() == MouseEvent.BUTTON1_MASK) {
+                    boolean noted = getPlot(i).noted;
                     if (_coordNoted != null) {
                         getPlot(i).noted = !getPlot(i).noted;
                     } else {
                         getPlot(i).noted = false;
                     }
+                    if (getPlot(i).noted != noted) {
+                        repaintPlot(getPlot(i));
+                    }
                 } else if (e.getModifiers() == MouseEvent.BUTTON3_MASK) {
                     if (_coordNoted != null) {
                         if (getPlot(i).coordNoted != null) {
@@ -855,7 +1478,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
                     }
                 }
             }
-            repaint();
+            repaintOverlay();
         } else {
             dragging = false;
         }
@@ -876,7 +1499,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
         			double[] _coordNoted = getPlot(i).isSelected(mouseCurent, draw);           
         			if (_coordNoted != null) {
         				getPlot(i).coordNoted = _coordNoted;
-        	        	repaint();
+        	        	repaintOverlay();
         			}
         		}
         	}
@@ -938,6 +1561,7 @@ public abstract class PlotCanvas extends JPanel implements MouseListener, MouseM
                 ((AWTDrawer) draw).projection.initBaseCoordsProjection(true);
             }
         }
+        interacting();
         repaint();
         //       break;
         //}
@@ -0,0 +1,108 @@
+package org.math.plot.canvas;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+
+import javax.imageio.ImageIO;
+
+import org.math.plot.render.AWTDrawer;
+import org.math.plot.render.TextCache;
+
+/**
+ * Renders plots straight into images, without any window, so that it can be
+ * used headless (server side report generation, ...).
+ *
+ * Each image is rendered by a new canvas in its default state, which the
+ * model then fills, so that nothing set for an image (view rotation, grid,
+ * fonts, notes, ...) is left over in the next ones, and a renderer can be
+ * called concurrently. Only the texts laid out by the drawers, which are the
+ * costly part of a new context, are pooled and reused between images.
+ */
+public class PlotRenderer {
+
+    /**
+     * Content of an image : adds plots, plotables, labels, bounds, ... to the
+     * given canvas, as done on a displayed canvas.
+     */
+    public interface Model {
+
+        public void build(PlotCanvas canvas);
+    }
+
+    /** maximum number of idle text caches kept in the pool */
+    public int maxIdle = Runtime.getRuntime().availableProcessors();
+    private final int dimension;
+    private final LinkedList<TextCache> idle = new LinkedList<TextCache>();
+
+    /**
+     * @param dimension
+     *            2 or 3
+     */
+    public PlotRenderer(int dimension) {
+        if (dimension != 2 && dimension != 3) {
+            throw new IllegalArgumentException("Dimension must be 2 or 3 : " + dimension);
+        }
+        this.dimension = dimension;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return a new RGB image of model
+     */
+    public BufferedImage render(Model model, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        render(model, image);
+        return image;
+    }
+
+    /**
+     * Renders model over the whole image, which can be reused between calls.
+     */
+    public void render(Model model, BufferedImage image) {
+        PlotCanvas canvas = acquire();
+        try {
+            canvas.setSize(image.getWidth(), image.getHeight());
+            // the component listener is removed : the projection is fitted to the size here
+            canvas.draw.resetBaseProjection();
+            model.build(canvas);
+            canvas.paintImage(image);
+        } finally {
+            release(canvas);
+        }
+    }
+
+    public void toGraphicFile(Model model, int width, int height, File file) throws IOException {
+        ImageIO.write((RenderedImage) render(model, width, height), "PNG", file);
+    }
+
+    private PlotCanvas acquire() {
+        PlotCanvas canvas = dimension == 2 ? new Plot2DCanvas() : new Plot3DCanvas();
+        // no events are dispatched to an offscreen canvas
+        canvas.removeComponentListener(canvas);
+        canvas.removeMouseListener(canvas);
+        canvas.removeMouseMotionListener(canvas);
+        canvas.removeMouseWheelListener(canvas);
+        // the image is rendered once, no need to keep the layers
+        canvas.setRetainLayers(false);
+        synchronized (idle) {
+            if (!idle.isEmpty()) {
+                ((AWTDrawer) canvas.draw).setTextCache(idle.removeFirst());
+            }
+        }
+        return canvas;
+    }
+
+    private void release(PlotCanvas canvas) {
+        synchronized (idle) {
+            if (idle.size() < maxIdle) {
+                idle.addFirst(((AWTDrawer) canvas.draw).getTextCache());
+            }
+        }
+    }
+}
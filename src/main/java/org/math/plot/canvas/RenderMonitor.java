@@ -0,0 +1,111 @@
+package org.math.plot.canvas;
+
+import org.math.plot.render.RenderStats;
+
+/**
+ * Sums up the {@link RenderStats} of a canvas for JMX.
+ */
+public class RenderMonitor implements RenderMonitorMBean, RenderStats.Listener {
+
+    private final static double MILLIS = 1e6;
+    private long frames, retainedFrames, draftFrames;
+    private long totalNanos, lastNanos, maxNanos;
+    private String lastSlowest, maxSlowest;
+    private long lastSlowestNanos, maxSlowestNanos;
+    private long lastProjected, lastPrimitives, lastAllocated;
+
+    public synchronized void frameRendered(PlotCanvas canvas, RenderStats stats) {
+        RenderStats.Element slowest = stats.slowest();
+        frames++;
+        if (stats.retained) {
+            retainedFrames++;
+        }
+        if (stats.draft) {
+            draftFrames++;
+        }
+        totalNanos += stats.nanos;
+        lastNanos = stats.nanos;
+        lastSlowest = slowest == null ? null : name(slowest);
+        lastSlowestNanos = slowest == null ? 0 : slowest.nanos;
+        if (stats.nanos >= maxNanos) {
+            maxNanos = stats.nanos;
+            maxSlowest = lastSlowest;
+            maxSlowestNanos = lastSlowestNanos;
+        }
+        lastProjected = stats.projected;
+        lastPrimitives = stats.primitives;
+        lastAllocated = stats.allocated;
+    }
+
+    private static String name(RenderStats.Element e) {
+        return e.name == null ? e.kind : e.kind + " " + e.name;
+    }
+
+    public synchronized long getFrameCount() {
+        return frames;
+    }
+
+    public synchronized double getLastFrameMillis() {
+        return lastNanos / MILLIS;
+    }
+
+    public synchronized double getMeanFrameMillis() {
+        return frames == 0 ? 0 : totalNanos / MILLIS / frames;
+    }
+
+    public synchronized double getMaxFrameMillis() {
+        return maxNanos / MILLIS;
+    }
+
+    public synchronized String getLastSlowestElement() {
+        return lastSlowest;
+    }
+
+    public synchronized double getLastSlowestElementMillis() {
+        return lastSlowestNanos / MILLIS;
+    }
+
+    public synchronized String getMaxSlowestElement() {
+        return maxSlowest;
+    }
+
+    public synchronized double getMaxSlowestElementMillis() {
+        return maxSlowestNanos / MILLIS;
+    }
+
+    public synchronized long getLastProjectedPoints() {
+        return lastProjected;
+    }
+
+    public synchronized long getLastPrimitives() {
+        return lastPrimitives;
+    }
+
+    public synchronized long getLastAllocatedBytes() {
+        return lastAllocated;
+    }
+
+    public synchronized long getRetainedFrameCount() {
+        return retainedFrames;
+    }
+
+    public synchronized long getDraftFrameCount() {
+        return draftFrames;
+    }
+
+    public synchronized void reset() {
+        frames = 0;
+        retainedFrames = 0;
+        draftFrames = 0;
+        totalNanos = 0;
+        lastNanos = 0;
+        maxNanos = 0;
+        lastSlowest = null;
+        maxSlowest = null;
+        lastSlowestNanos = 0;
+        maxSlowestNanos = 0;
+        lastProjected = 0;
+        lastPrimitives = 0;
+        lastAllocated = 0;
+    }
+}
@@ -0,0 +1,46 @@
+package org.math.plot.canvas;
+
+/**
+ * Summary of the paints of a {@link PlotCanvas}, registered in JMX by
+ * {@link PlotCanvas#registerMBean(String)}. Times are in milliseconds, counts
+ * are those of the last frame, elements are named "kind name" as in
+ * {@link org.math.plot.render.RenderStats}, their times summed over the tiles
+ * when the layers are rendered in tiles.
+ */
+public interface RenderMonitorMBean {
+
+    public long getFrameCount();
+
+    public double getLastFrameMillis();
+
+    public double getMeanFrameMillis();
+
+    public double getMaxFrameMillis();
+
+    // element drawn the longest in the last frame
+    public String getLastSlowestElement();
+
+    public double getLastSlowestElementMillis();
+
+    // element drawn the longest in the slowest frame
+    public String getMaxSlowestElement();
+
+    public double getMaxSlowestElementMillis();
+
+    public long getLastProjectedPoints();
+
+    public long getLastPrimitives();
+
+    public long getLastAllocatedBytes();
+
+    // frames since the last reset that only copied the retained layers
+    public long getRetainedFrameCount();
+
+    // frames since the last reset that were drawn in draft quality
+    public long getDraftFrameCount();
+
+    /**
+     * Forgets the frames painted so far.
+     */
+    public void reset();
+}
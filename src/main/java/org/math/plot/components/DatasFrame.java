@@ -66,7 +66,7 @@ public class DatasFrame extends JFrame {
 			visible.setSelected(plot.getVisible());
 			color = new JButton();
 			color.setBackground(plot.getColor());
-			XY = new MatrixTablePanel( plotCanvas.reverseMapedData( plot.getData()));
+			XY = new MatrixTablePanel( plotCanvas.reverseMapedData( plot.getPanelData()));
 
 			visible.addChangeListener(new ChangeListener() {
 				public void stateChanged(ChangeEvent e) {
@@ -230,7 +230,7 @@ public class LegendPanel extends JPanel implements ComponentListener {
             if (c != null) {
                 plot.setColor(c);
                 update();
-                plotCanvas.repaint();
+                plotCanvas.repaintPlot(plot);
             }
         }
 
@@ -255,7 +255,7 @@ public class LegendPanel extends JPanel implements ComponentListener {
 
         public void note_nonote() {
             plot.noted = !plot.noted;
-            plotCanvas.repaint();
+            plotCanvas.repaintPlot(plot);
         }
     }
 }
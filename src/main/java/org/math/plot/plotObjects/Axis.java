@@ -2,7 +2,6 @@ package org.math.plot.plotObjects;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.font.FontRenderContext;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -219,8 +218,7 @@ public class Axis implements Plotable, BaseDependant, Editable {
 		}
 		if (gridVisible) {	
 			draw.setFont(lightLabelFont);
-                        FontRenderContext frc = draw.getGraphics2D().getFontRenderContext();
-                        double w = lightLabelFont.getStringBounds(lightLabels[0].label, frc).getWidth();
+                        double w = draw.getTextWidth(lightLabels[0].label);
                         double h = lightLabelFont.getSize2D();
                         
                         int[] _origin = draw.project(base.getCoords()[0]);
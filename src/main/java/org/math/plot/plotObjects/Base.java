@@ -131,6 +131,10 @@ public class Base {
 		if (Xmi > Xma) {
 			throw new IllegalArgumentException("Error while bounding dimension " + (i + 1) + " : min " + Xmi + " must be < to max " + Xma);
 		}
+		if (baseCoords != null && roundXmin[i] == Xmi && roundXmax[i] == Xma) {
+			// keep coords unchanged, so that dependants see no change
+			return;
+		}
 		roundXmin[i] = Xmi;
 		roundXmax[i] = Xma;
 		resetCoords();
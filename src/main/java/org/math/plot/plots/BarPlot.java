@@ -24,6 +24,16 @@ public class BarPlot extends ScatterPlot {
 		super(n, c, _XY);
 	}
 
+	public BarPlot(String n, Color c, PlotData _data) {
+		super(n, c, _data);
+	}
+
+	// bars also depend on the base
+	@Override
+	public Rectangle getExtent(AbstractDrawer draw, double[]... points) {
+		return null;
+	}
+
 	public void plot(AbstractDrawer draw, Color c) {
 		if (!visible)
 			return;
@@ -33,10 +43,11 @@ public class BarPlot extends ScatterPlot {
 
 		draw.setColor(c);
 		draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
-		for (int i = 0; i < XY.length; i++) {
-			double[] axeprojection = Array.copy(XY[i]);
+		for (int i = 0; i < data.size(); i++) {
+			double[] point = data.getRow(i);
+			double[] axeprojection = Array.copy(point);
 			axeprojection[axeprojection.length - 1] = draw.canvas.base.baseCoords[0][axeprojection.length - 1];
-			draw.drawLine(XY[i], axeprojection);
+			draw.drawLine(point, axeprojection);
 		}
 	}
 
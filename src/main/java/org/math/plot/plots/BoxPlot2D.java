@@ -61,9 +61,10 @@ public class BoxPlot2D extends Plot {
     }
 
     @Override
-    public void setData(double[][] d) {
+    public synchronized void setData(double[][] d) {
         datapanel = null;
         XY = d;
+        dataChanged();
     }
 
     @Override
@@ -76,28 +77,21 @@ public class BoxPlot2D extends Plot {
         return new double[][]{{Array.min(Xmin), Array.min(Ymin)}, {Array.max(Xmax), Array.max(Ymax)}};
     }
 
-    public void setDataWidth(double[][] w) {
+    public synchronized void setDataWidth(double[][] w) {
         widths = w;
+        dataChanged();
     }
 
     public double[][] getDataWidth() {
         return widths;
     }
 
-    public void setData(double[][] d, double[][] w) {
-        setData(d);
+    public synchronized void setData(double[][] d, double[][] w) {
         widths = w;
+        setData(d);
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
-
-            if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                    && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                return XY[i];
-            }
-        }
-        return null;
+        return selectPoint(XY, screenCoordTest, draw);
     }
 }
\ No newline at end of file
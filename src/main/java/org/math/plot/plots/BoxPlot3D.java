@@ -7,18 +7,13 @@ import org.math.plot.FrameView;
 import org.math.plot.Plot3DPanel;
 import org.math.plot.PlotPanel;
 import org.math.plot.render.*;
-import org.math.plot.utils.Array;
 
 public class BoxPlot3D extends Plot {
 
-    double[] Xmin;
-    double[] Xmax;
-    double[] Ymin;
-    double[] Ymax;
-    double[] Zmin;
-    double[] Zmax;
     double[][] widths;
     double[][] XY;
+    // 8 vertices per box, box i being element i
+    private Mesh mesh;
 
     public BoxPlot3D(double[][] _XY, double[][] w, Color c, String n) {
         super(n, c);
@@ -35,20 +30,30 @@ public class BoxPlot3D extends Plot {
         // base.includeInBounds(min);
         // base.includeInBounds(max);
 
-        Xmin = new double[XY.length];
-        Xmax = new double[XY.length];
-        Ymin = new double[XY.length];
-        Ymax = new double[XY.length];
-        Zmin = new double[XY.length];
-        Zmax = new double[XY.length];
-        for (int i = 0; i < XY.length; i++) {
-            Xmin[i] = XY[i][0] - widths[i][0] / 2;
-            Xmax[i] = XY[i][0] + widths[i][0] / 2;
-            Ymin[i] = XY[i][1] - widths[i][1] / 2;
-            Ymax[i] = XY[i][1] + widths[i][1] / 2;
-            Zmin[i] = XY[i][2] - widths[i][2] / 2;
-            Zmax[i] = XY[i][2] + widths[i][2] / 2;
+        build();
+    }
+
+    // corners of the box : x, y, z signs
+    private final static int[][] CORNERS = {{-1, -1, -1}, {1, -1, -1}, {1, 1, -1}, {-1, 1, -1}, {-1, -1, 1}, {1, -1, 1}, {1, 1, 1}, {-1, 1, 1}};
+    private final static int[] BOX_EDGES = {0, 1, 1, 2, 2, 3, 3, 0, 4, 5, 5, 6, 6, 7, 7, 4, 0, 4, 1, 5, 3, 7, 2, 6};
+
+    private void build() {
+        int n = XY.length;
+        double[][] vertices = new double[3][8 * n];
+        int[] edges = new int[24 * n];
+        int[] elementEdges = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < 8; k++) {
+                for (int j = 0; j < 3; j++) {
+                    vertices[j][8 * i + k] = XY[i][j] + CORNERS[k][j] * widths[i][j] / 2;
+                }
+            }
+            for (int k = 0; k < 24; k++) {
+                edges[24 * i + k] = 8 * i + BOX_EDGES[k];
+            }
+            elementEdges[i + 1] = 12 * (i + 1);
         }
+        mesh = new Mesh(vertices, new int[0], new int[n + 1], edges, elementEdges, PlotData.rows(XY));
     }
 
     public void plot(AbstractDrawer draw, Color c) {
@@ -58,30 +63,18 @@ public class BoxPlot3D extends Plot {
 
         draw.setColor(c);
         draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
+        draw.drawMesh(mesh, false, 1, true);
         for (int i = 0; i < XY.length; i++) {
-            draw.drawLine(new double[]{Xmin[i], Ymin[i], Zmin[i]}, new double[]{Xmax[i], Ymin[i], Zmin[i]});
-            draw.drawLine(new double[]{Xmax[i], Ymin[i], Zmin[i]}, new double[]{Xmax[i], Ymax[i], Zmin[i]});
-            draw.drawLine(new double[]{Xmax[i], Ymax[i], Zmin[i]}, new double[]{Xmin[i], Ymax[i], Zmin[i]});
-            draw.drawLine(new double[]{Xmin[i], Ymax[i], Zmin[i]}, new double[]{Xmin[i], Ymin[i], Zmin[i]});
-
-            draw.drawLine(new double[]{Xmin[i], Ymin[i], Zmax[i]}, new double[]{Xmax[i], Ymin[i], Zmax[i]});
-            draw.drawLine(new double[]{Xmax[i], Ymin[i], Zmax[i]}, new double[]{Xmax[i], Ymax[i], Zmax[i]});
-            draw.drawLine(new double[]{Xmax[i], Ymax[i], Zmax[i]}, new double[]{Xmin[i], Ymax[i], Zmax[i]});
-            draw.drawLine(new double[]{Xmin[i], Ymax[i], Zmax[i]}, new double[]{Xmin[i], Ymin[i], Zmax[i]});
-
-            draw.drawLine(new double[]{Xmin[i], Ymin[i], Zmin[i]}, new double[]{Xmin[i], Ymin[i], Zmax[i]});
-            draw.drawLine(new double[]{Xmax[i], Ymin[i], Zmin[i]}, new double[]{Xmax[i], Ymin[i], Zmax[i]});
-            draw.drawLine(new double[]{Xmin[i], Ymax[i], Zmin[i]}, new double[]{Xmin[i], Ymax[i], Zmax[i]});
-            draw.drawLine(new double[]{Xmax[i], Ymax[i], Zmin[i]}, new double[]{Xmax[i], Ymax[i], Zmax[i]});
-
             draw.drawDot(XY[i]);
         }
     }
 
     @Override
-    public void setData(double[][] d) {
+    public synchronized void setData(double[][] d) {
         datapanel = null;
         XY = d;
+        build();
+        dataChanged();
     }
 
     @Override
@@ -91,11 +84,13 @@ public class BoxPlot3D extends Plot {
 
     @Override
     public double[][] getBounds() {
-        return new double[][]{{Array.min(Xmin), Array.min(Ymin), Array.min(Zmin)}, {Array.max(Xmax), Array.max(Ymax), Array.max(Zmax)}};
+        return mesh.bounds();
     }
 
-    public void setDataWidth(double[][] w) {
+    public synchronized void setDataWidth(double[][] w) {
         widths = w;
+        build();
+        dataChanged();
     }
 
     public double[][] getDataWidth() {
@@ -103,20 +98,12 @@ public class BoxPlot3D extends Plot {
     }
 
     public void setData(double[][] d, double[][] w) {
-        setData(d);
         widths = w;
+        setData(d);
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
-
-            if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                    && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                return XY[i];
-            }
-        }
-        return null;
+        return selectPoint(XY, screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
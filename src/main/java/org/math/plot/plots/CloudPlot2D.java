@@ -69,9 +69,6 @@ public class CloudPlot2D extends Plot {
             return;
         }
 
-        draw.canvas.includeInBounds(SW[0]);
-        draw.canvas.includeInBounds(NE[XY.length - 1]);
-
         draw.setColor(c);
         draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
         for (int i = 0; i < XY.length; i++) {
@@ -82,9 +79,10 @@ public class CloudPlot2D extends Plot {
     }
 
     @Override
-    public void setData(double[][] d) {
+    public synchronized void setData(double[][] d) {
         datapanel = null;
         splitXYf(d);
+        dataChanged();
     }
 
     @Override
@@ -103,15 +101,7 @@ public class CloudPlot2D extends Plot {
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
-
-            if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                    && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                return XY[i];
-            }
-        }
-        return null;
+        return selectPoint(XY, screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
@@ -11,6 +11,7 @@ import org.math.plot.FrameView;
 import org.math.plot.Plot3DPanel;
 import org.math.plot.PlotPanel;
 import org.math.plot.render.AbstractDrawer;
+import org.math.plot.render.DepthSorter;
 import org.math.plot.utils.Array;
 
 public class CloudPlot3D extends Plot {
@@ -26,6 +27,9 @@ public class CloudPlot3D extends Plot {
     double[] width_constant = {-1, -1, -1};
     double[][] XY;
     float[] f;
+    // centers of the faces, face k of cell i being 6 * i + k
+    double[][] faces;
+    private final DepthSorter sorter = new DepthSorter();
     boolean fill_shape = true;
 
     public CloudPlot3D(String n, Color c, double[][] _XYcard, double wX, double wY, double wZ) {
@@ -74,6 +78,16 @@ public class CloudPlot3D extends Plot {
                 botSW[i] = new double[]{XY[i][0] - width_constant[0] / 2, XY[i][1] - width_constant[1] / 2, XY[i][2] - width_constant[2] / 2};
                 botSE[i] = new double[]{XY[i][0] + width_constant[0] / 2, XY[i][1] - width_constant[1] / 2, XY[i][2] - width_constant[2] / 2};
             }
+            faces = new double[6 * XY.length][];
+            for (int i = 0; i < XY.length; i++) {
+                double x = XY[i][0], y = XY[i][1], z = XY[i][2];
+                faces[6 * i] = new double[]{x, y, z + width_constant[2] / 2};
+                faces[6 * i + 1] = new double[]{x, y, z - width_constant[2] / 2};
+                faces[6 * i + 2] = new double[]{x, y + width_constant[1] / 2, z};
+                faces[6 * i + 3] = new double[]{x, y - width_constant[1] / 2, z};
+                faces[6 * i + 4] = new double[]{x - width_constant[0] / 2, y, z};
+                faces[6 * i + 5] = new double[]{x + width_constant[0] / 2, y, z};
+            }
         }
     }
 
@@ -82,29 +96,41 @@ public class CloudPlot3D extends Plot {
             return;
         }
 
-        draw.canvas.includeInBounds(botSW[0]);
-        draw.canvas.includeInBounds(topNE[XY.length - 1]);
-
         draw.setColor(c);
         draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
-        for (int i = 0; i < XY.length; i++) {
+        for (int k : sorter.sort(draw, faces)) {
+            int i = k / 6;
             if (f[i] > 0) {
-                draw.fillPolygon(f[i], topNW[i], topNE[i], topSE[i], topSW[i]);
-                draw.fillPolygon(f[i], botNW[i], botNE[i], botSE[i], botSW[i]);
-
-                draw.fillPolygon(f[i], botNW[i], botNE[i], topNE[i], topNW[i]);
-                draw.fillPolygon(f[i], botSW[i], botSE[i], topSE[i], topSW[i]);
-
-                draw.fillPolygon(f[i], botNW[i], botSW[i], topSW[i], topNW[i]);
-                draw.fillPolygon(f[i], botNE[i], botSE[i], topSE[i], topNE[i]);
+                switch (k % 6) {
+                    case 0:
+                        draw.fillPolygon(f[i], topNW[i], topNE[i], topSE[i], topSW[i]);
+                        break;
+                    case 1:
+                        draw.fillPolygon(f[i], botNW[i], botNE[i], botSE[i], botSW[i]);
+                        break;
+                    case 2:
+                        draw.fillPolygon(f[i], botNW[i], botNE[i], topNE[i], topNW[i]);
+                        break;
+                    case 3:
+                        draw.fillPolygon(f[i], botSW[i], botSE[i], topSE[i], topSW[i]);
+                        break;
+                    case 4:
+                        draw.fillPolygon(f[i], botNW[i], botSW[i], topSW[i], topNW[i]);
+                        break;
+                    case 5:
+                        draw.fillPolygon(f[i], botNE[i], botSE[i], topSE[i], topNE[i]);
+                        break;
+                }
             }
         }
     }
 
     @Override
-    public void setData(double[][] d) {
+    public synchronized void setData(double[][] d) {
         datapanel = null;
         splitXYf(d);
+        build();
+        dataChanged();
     }
 
     @Override
@@ -123,15 +149,7 @@ public class CloudPlot3D extends Plot {
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
-
-            if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                    && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                return XY[i];
-            }
-        }
-        return null;
+        return selectPoint(XY, screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
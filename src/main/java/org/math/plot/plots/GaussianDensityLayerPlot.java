@@ -8,6 +8,7 @@ import org.math.plot.FrameView;
 import org.math.plot.Plot2DPanel;
 import org.math.plot.render.AbstractDrawer;
 import org.math.plot.utils.Array;
+import org.math.plot.utils.FastMath;
 
 /**
  * @author Yann RICHET
@@ -32,10 +33,9 @@ public class GaussianDensityLayerPlot extends LayerPlot {
 		constant_sigma = sigma;
 
 		gausspdf_sigma = new float[1][4];
-		for (int i = 0; i < gausspdf_sigma.length; i++)
-			for (int j = 0; j < 4; j++)
-				gausspdf_sigma[i][j] = (float) (/*1.0 / Math.sqrt(2 * Math.PI * constant_sigma * constant_sigma) */Math.exp(-(j * j)
-						/ (2.0 * constant_sigma * constant_sigma)));
+		double[] pdf = FastMath.gaussian(new double[] { 0, 1, 2, 3 }, 0, constant_sigma);
+		for (int j = 0; j < 4; j++)
+			gausspdf_sigma[0][j] = (float) pdf[j];
 
 	}
 
@@ -57,9 +57,15 @@ public class GaussianDensityLayerPlot extends LayerPlot {
 
 		if (sigma != null) {
 			gausspdf_sigma = new float[sigma.length][4];
+			// exponents of the pdf at 0 to 3 sigmas of each point, then their exp all at once
+			double[] pdf = new double[4 * sigma.length];
+			for (int i = 0; i < sigma.length; i++)
+				for (int j = 0; j < 4; j++)
+					pdf[4 * i + j] = -(j * j) / (2.0 * sigma[i] * sigma[i]);
+			FastMath.exp(pdf, 0, pdf.length, pdf, 0);
 			for (int i = 0; i < gausspdf_sigma.length; i++) {
 				for (int j = 0; j < 4; j++)
-					gausspdf_sigma[i][j] = (float) (/*1.0 / Math.sqrt(2 * Math.PI * sigma[i] * sigma[i]) */Math.exp(-(j * j) / (2.0 * sigma[i] * sigma[i])));
+					gausspdf_sigma[i][j] = (float) pdf[4 * i + j];
 			}
 		}
 
@@ -7,7 +7,7 @@ import java.awt.*;
 
 import org.math.plot.*;
 import org.math.plot.render.*;
-import org.math.plot.utils.Array;
+import org.math.plot.utils.FastMath;
 
 public class GridPlot3D extends Plot {
 
@@ -15,6 +15,10 @@ public class GridPlot3D extends Plot {
     double[] Y;
     double[][] Z;
     private double[][] XYZ_list;
+    // vertex i + j * X.length, and cell [X[i], X[i + 1]] x [Y[j], Y[j + 1]] as element i + j * (X.length - 1)
+    private Mesh mesh;
+    // coarser grid drawn in draft mode, null until needed
+    private Mesh draftMesh;
     public boolean draw_lines = true;
     public boolean fill_shape = true;
 
@@ -33,6 +37,20 @@ public class GridPlot3D extends Plot {
 
         draw.setColor(c);
 
+        if (mesh.elements() > 0 && (draw_lines || fill_shape)) {
+            if (draw.draft) {
+                draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
+                draw.drawMesh(draftMesh(), false, 0.2f, true);
+                return;
+            }
+            if (!draw_lines) {
+                plotDots(draw);
+            }
+            draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
+            draw.drawMesh(mesh, fill_shape, 0.2f, draw_lines);
+            return;
+        }
+
         if (draw_lines) {
             draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
             for (int i = 0; i < X.length; i++) {
@@ -47,51 +65,118 @@ public class GridPlot3D extends Plot {
                 }
             }
         } else {
-            draw.setDotType(AbstractDrawer.ROUND_DOT);
-            draw.setDotRadius(AbstractDrawer.DEFAULT_DOT_RADIUS);
-            for (int i = 0; i < X.length; i++) {
-                for (int j = 0; j < Y.length; j++) {
-                    draw.drawDot(new double[]{X[i], Y[j], Z[j][i]});
-                }
+            plotDots(draw);
+        }
+    }
+
+    private void plotDots(AbstractDrawer draw) {
+        draw.setDotType(AbstractDrawer.ROUND_DOT);
+        draw.setDotRadius(AbstractDrawer.DEFAULT_DOT_RADIUS);
+        draw.drawDots(PlotData.columns(mesh.vertices));
+    }
+
+    // the rows of the vertices are only built when asked for by getData()
+    private void buildXYZ_list() {
+        XYZ_list = null;
+        buildMesh();
+    }
+
+    // each cell owns its south and west edges, and its north and east edges on the border
+    private void buildMesh() {
+        mesh = buildMesh(indexes(X.length, 1), indexes(Y.length, 1));
+        draftMesh = null;
+    }
+
+    // wireframe of at most about DRAFT_PRIMITIVES cells, keeping one row and column of the grid out of step
+    private synchronized Mesh draftMesh() {
+        if (draftMesh == null) {
+            int step = (int) FastMath.ceil(FastMath.sqrt(mesh.elements() / (double) AbstractDrawer.DRAFT_PRIMITIVES));
+            draftMesh = step <= 1 ? mesh : buildMesh(indexes(X.length, step), indexes(Y.length, step));
+        }
+        return draftMesh;
+    }
+
+    // 0, step, 2 * step... and the last index
+    private static int[] indexes(int n, int step) {
+        int[] indexes = new int[n == 0 ? 0 : (n - 2 + step) / step + 1];
+        for (int k = 0; k < indexes.length; k++) {
+            indexes[k] = FastMath.min(k * step, n - 1);
+        }
+        return indexes;
+    }
+
+    // grid of the X[xi[i]], Y[yi[j]] vertices
+    private Mesh buildMesh(int[] xi, int[] yi) {
+        int nx = xi.length;
+        int ny = yi.length;
+        double[][] vertices = new double[3][nx * ny];
+        for (int j = 0; j < ny; j++) {
+            for (int i = 0; i < nx; i++) {
+                vertices[0][i + j * nx] = X[xi[i]];
+                vertices[1][i + j * nx] = Y[yi[j]];
+                vertices[2][i + j * nx] = Z[yi[j]][xi[i]];
             }
         }
 
-        if (fill_shape) {
-            for (int j = 0; j < Y.length - 1; j++) {
-                for (int i = 0; i < X.length - 1; i++) {
-                    draw.fillPolygon(0.2f, new double[]{X[i], Y[j], Z[j][i]}, new double[]{X[i + 1], Y[j], Z[j][i + 1]}, new double[]{X[i + 1], Y[j + 1],
-                                Z[j + 1][i + 1]}, new double[]{X[i], Y[j + 1], Z[j + 1][i]});
+        int n = FastMath.max(nx - 1, 0);
+        int m = FastMath.max(ny - 1, 0);
+        int[] faces = new int[4 * n * m];
+        int[] elementFaces = new int[n * m + 1];
+        int[] edges = new int[n * m > 0 ? 2 * (n * (m + 1) + m * (n + 1)) : 0];
+        int[] elementEdges = new int[n * m + 1];
+        double[][] centers = new double[3][n * m];
+        int l = 0;
+        for (int j = 0; j < m; j++) {
+            for (int i = 0; i < n; i++) {
+                int c = i + j * n;
+                int sw = i + j * nx, se = sw + 1, nw = sw + nx, ne = nw + 1;
+                faces[4 * c] = sw;
+                faces[4 * c + 1] = se;
+                faces[4 * c + 2] = ne;
+                faces[4 * c + 3] = nw;
+                elementFaces[c + 1] = c + 1;
+                l = edge(edges, l, sw, se);
+                l = edge(edges, l, sw, nw);
+                if (i == n - 1) {
+                    l = edge(edges, l, se, ne);
+                }
+                if (j == m - 1) {
+                    l = edge(edges, l, nw, ne);
                 }
+                elementEdges[c + 1] = l;
+                centers[0][c] = (vertices[0][sw] + vertices[0][ne]) / 2;
+                centers[1][c] = (vertices[1][sw] + vertices[1][ne]) / 2;
+                centers[2][c] = (vertices[2][sw] + vertices[2][se] + vertices[2][ne] + vertices[2][nw]) / 4;
             }
         }
+        return new Mesh(vertices, faces, elementFaces, edges, elementEdges, PlotData.columns(centers));
     }
 
-    private void buildXYZ_list() {
-        XYZ_list = new double[X.length * Y.length][3];
-        for (int i = 0; i < X.length; i++) {
-            for (int j = 0; j < Y.length; j++) {
-                XYZ_list[i + (j) * X.length][0] = X[i];
-                XYZ_list[i + (j) * X.length][1] = Y[j];
-                XYZ_list[i + (j) * X.length][2] = Z[j][i];
-            }
-        }
+    private static int edge(int[] edges, int l, int a, int b) {
+        edges[2 * l] = a;
+        edges[2 * l + 1] = b;
+        return l + 1;
     }
 
     @Override
-    public void setData(double[][] _Z) {
+    public synchronized void setData(double[][] _Z) {
         datapanel=null;
         Z = _Z;
         buildXYZ_list();
+        dataChanged();
     }
 
     @Override
     public double[][] getData() {
+        if (XYZ_list == null) {
+            XYZ_list = PlotData.columns(mesh.vertices).toRows();
+        }
         return XYZ_list;
     }
 
     @Override
     public double[][] getBounds() {
-        return new double[][]{{Array.min(X), Array.min(Y), Array.min(Array.min(Z))}, {Array.max(X), Array.max(Y), Array.max(Array.min(Z))}};
+        return mesh.bounds();
     }
 
     public void setDataZ(double[][] _Z) {
@@ -102,47 +187,39 @@ public class GridPlot3D extends Plot {
         return Z;
     }
 
-    public void setDataX(double[] _X) {
+    public synchronized void setDataX(double[] _X) {
         datapanel=null;
         X = _X;
         buildXYZ_list();
+        dataChanged();
     }
 
     public double[] getDataX() {
         return X;
     }
 
-    public void setDataY(double[] _Y) {
+    public synchronized void setDataY(double[] _Y) {
         datapanel=null;
         Y = _Y;
         buildXYZ_list();
+        dataChanged();
     }
 
     public double[] getDataY() {
         return Y;
     }
 
-    public void setDataXYZ(double[] _X, double[] _Y, double[][] _Z) {
+    public synchronized void setDataXYZ(double[] _X, double[] _Y, double[][] _Z) {
         datapanel=null;
         X = _X;
         Y = _Y;
         Z = _Z;
         buildXYZ_list();
+        dataChanged();
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < X.length; i++) {
-            for (int j = 0; j < Y.length; j++) {
-                double[] XY = {X[i], Y[j], Z[j][i]};
-                int[] screenCoord = draw.project(XY);
-
-                if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                        && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                    return XY;
-                }
-            }
-        }
-        return null;
+        return selectPoint(PlotData.columns(mesh.vertices), screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
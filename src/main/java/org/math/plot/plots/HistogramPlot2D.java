@@ -4,20 +4,18 @@ import java.awt.*;
 
 import org.math.plot.*;
 import org.math.plot.render.*;
-import org.math.plot.utils.Array;
 
 public class HistogramPlot2D extends Plot {
 
-    double[][] topLeft;
-    double[][] topRight;
-    double[][] bottomLeft;
-    double[][] bottomRight;
     double[] widths;
     double width_constant = -1;
     double offsetCenter_perWidth;
     double factorWidth;
     boolean autowidth;
     boolean fill_shape = true;
+    // bar centers and heights
+    PlotData data;
+    // data as rows, null until needed if data is stored by columns
     double[][] XY;
 
     public HistogramPlot2D(String n, Color c, double[][] _XY, double w) {
@@ -30,53 +28,47 @@ public class HistogramPlot2D extends Plot {
 
     // TODO Histogram group plots
     public HistogramPlot2D(String n, Color c, double[][] _XY, double w, double _offsetCenter_perWidth, double _factorWidth) {
+        this(n, c, PlotData.rows(_XY), w, _offsetCenter_perWidth, _factorWidth);
+    }
+
+    public HistogramPlot2D(String n, Color c, double[][] _XY, double[] w, double _offsetCenter_perWidth, double _factorWidth) {
+        this(n, c, PlotData.rows(_XY), w, _offsetCenter_perWidth, _factorWidth);
+    }
+
+    public HistogramPlot2D(String n, Color c, PlotData _data, double w, double _offsetCenter_perWidth, double _factorWidth) {
         super(n, c);
-        XY = _XY;
+        data = _data;
         width_constant = w;
 
         autowidth = false;
         offsetCenter_perWidth = _offsetCenter_perWidth;
         factorWidth = _factorWidth;
-
-        build();
     }
 
-    public HistogramPlot2D(String n, Color c, double[][] _XY, double[] w, double _offsetCenter_perWidth, double _factorWidth) {
+    public HistogramPlot2D(String n, Color c, PlotData _data, double[] w, double _offsetCenter_perWidth, double _factorWidth) {
         super(n, c);
-        XY = _XY;
+        data = _data;
         widths = w;
 
         autowidth = false;
         offsetCenter_perWidth = _offsetCenter_perWidth;
         factorWidth = _factorWidth;
+    }
 
-        build();
+    private double width(int i) {
+        return width_constant > 0 ? width_constant : widths[i];
     }
 
-    private void build() {
-        if (width_constant > 0) {
-            topLeft = new double[XY.length][];
-            topRight = new double[XY.length][];
-            bottomLeft = new double[XY.length][];
-            bottomRight = new double[XY.length][];
-            for (int i = 0; i < XY.length; i++) {
-                topLeft[i] = new double[]{XY[i][0] - factorWidth * width_constant / 2 + (offsetCenter_perWidth - 0.5) * width_constant, XY[i][1]};
-                topRight[i] = new double[]{XY[i][0] + factorWidth * width_constant / 2 + (offsetCenter_perWidth - 0.5) * width_constant, XY[i][1]};
-                bottomLeft[i] = new double[]{XY[i][0] - factorWidth * width_constant / 2 + (offsetCenter_perWidth - 0.5) * width_constant, 0};
-                bottomRight[i] = new double[]{XY[i][0] + factorWidth * width_constant / 2 + (offsetCenter_perWidth - 0.5) * width_constant, 0};
-            }
-        } else {
-            topLeft = new double[XY.length][];
-            topRight = new double[XY.length][];
-            bottomLeft = new double[XY.length][];
-            bottomRight = new double[XY.length][];
-            for (int i = 0; i < XY.length; i++) {
-                topLeft[i] = new double[]{XY[i][0] - factorWidth * widths[i] / 2 + (offsetCenter_perWidth - 0.5) * widths[i], XY[i][1]};
-                topRight[i] = new double[]{XY[i][0] + factorWidth * widths[i] / 2 + (offsetCenter_perWidth - 0.5) * widths[i], XY[i][1]};
-                bottomLeft[i] = new double[]{XY[i][0] - factorWidth * widths[i] / 2 + (offsetCenter_perWidth - 0.5) * widths[i], 0};
-                bottomRight[i] = new double[]{XY[i][0] + factorWidth * widths[i] / 2 + (offsetCenter_perWidth - 0.5) * widths[i], 0};
-            }
-        }
+    // abscissa of the left side of bar i
+    private double left(int i) {
+        double w = width(i);
+        return data.get(i, 0) - factorWidth * w / 2 + (offsetCenter_perWidth - 0.5) * w;
+    }
+
+    // abscissa of the right side of bar i
+    private double right(int i) {
+        double w = width(i);
+        return data.get(i, 0) + factorWidth * w / 2 + (offsetCenter_perWidth - 0.5) * w;
     }
 
     /*
@@ -118,48 +110,80 @@ public class HistogramPlot2D extends Plot {
 
         draw.setColor(c);
         draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
-        for (int i = 0; i < XY.length; i++) {
-            draw.drawLine(bottomLeft[i], topLeft[i]);
-            draw.drawLine(topLeft[i], topRight[i]);
-            draw.drawLine(topRight[i], bottomRight[i]);
-            draw.drawLine(bottomRight[i], bottomLeft[i]);
+        double[] bottomLeft = new double[2];
+        double[] topLeft = new double[2];
+        double[] topRight = new double[2];
+        double[] bottomRight = new double[2];
+        for (int i = 0; i < data.size(); i++) {
+            bottomLeft[0] = topLeft[0] = left(i);
+            bottomRight[0] = topRight[0] = right(i);
+            topLeft[1] = topRight[1] = data.get(i, 1);
+            draw.drawLine(bottomLeft, topLeft);
+            draw.drawLine(topLeft, topRight);
+            draw.drawLine(topRight, bottomRight);
+            draw.drawLine(bottomRight, bottomLeft);
 
             if (fill_shape) {
-                draw.fillPolygon(0.2f, bottomLeft[i], topLeft[i], topRight[i], bottomRight[i]);
+                draw.fillPolygon(0.2f, bottomLeft, topLeft, topRight, bottomRight);
             }
         }
     }
 
     @Override
     public void setData(double[][] d) {
+        setData(PlotData.rows(d));
+    }
+
+    public synchronized void setData(PlotData d) {
         datapanel = null;
-        XY = d;
+        data = d;
+        XY = null;
+        dataChanged();
     }
 
     @Override
     public double[][] getData() {
+        if (XY == null) {
+            XY = data.toRows();
+        }
         return XY;
     }
 
     @Override
     public double[][] getBounds() {
-        return new double[][]{Array.min(bottomLeft), Array.max(topRight)};
+        double[] min = {Double.POSITIVE_INFINITY, 0};
+        double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < data.size(); i++) {
+            double left = left(i);
+            double right = right(i);
+            double top = data.get(i, 1);
+            if (left < min[0]) {
+                min[0] = left;
+            }
+            if (right > max[0]) {
+                max[0] = right;
+            }
+            if (top > max[1]) {
+                max[1] = top;
+            }
+        }
+        return new double[][]{min, max};
     }
 
-    public void setDataWidth(double[] w) {
+    public synchronized void setDataWidth(double[] w) {
         widths = w;
         width_constant = -1;
-        build();
+        dataChanged();
     }
 
-    public void setDataWidth(double w) {
+    public synchronized void setDataWidth(double w) {
         width_constant = w;
-        build();
+        dataChanged();
     }
 
     public double[] getDataWidth() {
         if (width_constant > 0) {
-            widths = new double[XY.length];
+            widths = new double[data.size()];
             for (int i = 0; i < widths.length; i++) {
                 widths[i] = width_constant;
             }
@@ -178,15 +202,7 @@ public class HistogramPlot2D extends Plot {
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
-
-            if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                    && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                return XY[i];
-            }
-        }
-        return null;
+        return selectPoint(data, screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
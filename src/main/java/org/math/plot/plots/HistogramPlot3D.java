@@ -4,21 +4,14 @@ import java.awt.*;
 
 import org.math.plot.*;
 import org.math.plot.render.*;
-import org.math.plot.utils.Array;
 
 public class HistogramPlot3D extends Plot {
 
-    double[][] topNW;
-    double[][] topNE;
-    double[][] topSW;
-    double[][] topSE;
-    double[][] bottomNW;
-    double[][] bottomNE;
-    double[][] bottomSW;
-    double[][] bottomSE;
     double[][] widths;
     double[] width_constant = {-1, -1};
     double[][] XY;
+    // 8 vertices per bar, bar i being element i
+    private Mesh mesh;
     boolean fill_shape = true;
 
     public HistogramPlot3D(String n, Color c, double[][] _XY, double[][] w) {
@@ -45,46 +38,46 @@ public class HistogramPlot3D extends Plot {
         build();
     }
 
+    // corners of the bar, in the order of BAR_FACE and BAR_EDGES : SW, SE, NE, NW at the bottom, then at the top
+    private final static double[][] CORNERS = {{-1, -1}, {1, -1}, {1, 1}, {-1, 1}};
+    private final static int[] BAR_FACE = {4, 5, 6, 7};
+    private final static int[] BAR_EDGES = {4, 5, 5, 6, 6, 7, 7, 4, 0, 1, 1, 2, 2, 3, 3, 0, 0, 4, 1, 5, 2, 6, 3, 7};
+
     private void build() {
-        if (width_constant[0] > 0) {
-            topNW = new double[XY.length][];
-            topNE = new double[XY.length][];
-            topSW = new double[XY.length][];
-            topSE = new double[XY.length][];
-            bottomNW = new double[XY.length][];
-            bottomNE = new double[XY.length][];
-            bottomSW = new double[XY.length][];
-            bottomSE = new double[XY.length][];
-            for (int i = 0; i < XY.length; i++) {
-                topNW[i] = new double[]{XY[i][0] - width_constant[0] / 2, XY[i][1] + width_constant[1] / 2, XY[i][2]};
-                topNE[i] = new double[]{XY[i][0] + width_constant[0] / 2, XY[i][1] + width_constant[1] / 2, XY[i][2]};
-                topSW[i] = new double[]{XY[i][0] - width_constant[0] / 2, XY[i][1] - width_constant[1] / 2, XY[i][2]};
-                topSE[i] = new double[]{XY[i][0] + width_constant[0] / 2, XY[i][1] - width_constant[1] / 2, XY[i][2]};
-                bottomNW[i] = new double[]{XY[i][0] - width_constant[0] / 2, XY[i][1] + width_constant[1] / 2, 0};
-                bottomNE[i] = new double[]{XY[i][0] + width_constant[0] / 2, XY[i][1] + width_constant[1] / 2, 0};
-                bottomSW[i] = new double[]{XY[i][0] - width_constant[0] / 2, XY[i][1] - width_constant[1] / 2, 0};
-                bottomSE[i] = new double[]{XY[i][0] + width_constant[0] / 2, XY[i][1] - width_constant[1] / 2, 0};
+        int n = XY.length;
+        double[][] vertices = new double[3][8 * n];
+        int[] faces = new int[4 * n];
+        int[] elementFaces = new int[n + 1];
+        int[] edges = new int[24 * n];
+        int[] elementEdges = new int[n + 1];
+        double[][] centers = new double[3][n];
+        int f = 0, l = 0;
+        for (int i = 0; i < n; i++) {
+            double wX = width_constant[0] > 0 ? width_constant[0] : widths[i][0];
+            double wY = width_constant[0] > 0 ? width_constant[1] : widths[i][1];
+            for (int k = 0; k < 8; k++) {
+                vertices[0][8 * i + k] = XY[i][0] + CORNERS[k % 4][0] * wX / 2;
+                vertices[1][8 * i + k] = XY[i][1] + CORNERS[k % 4][1] * wY / 2;
+                vertices[2][8 * i + k] = k < 4 ? 0 : XY[i][2];
             }
-        } else {
-            topNW = new double[XY.length][];
-            topNE = new double[XY.length][];
-            topSW = new double[XY.length][];
-            topSE = new double[XY.length][];
-            bottomNW = new double[XY.length][];
-            bottomNE = new double[XY.length][];
-            bottomSW = new double[XY.length][];
-            bottomSE = new double[XY.length][];
-            for (int i = 0; i < XY.length; i++) {
-                topNW[i] = new double[]{XY[i][0] - widths[i][0] / 2, XY[i][1] + widths[i][1] / 2, XY[i][2]};
-                topNE[i] = new double[]{XY[i][0] + widths[i][0] / 2, XY[i][1] + widths[i][1] / 2, XY[i][2]};
-                topSW[i] = new double[]{XY[i][0] - widths[i][0] / 2, XY[i][1] - widths[i][1] / 2, XY[i][2]};
-                topSE[i] = new double[]{XY[i][0] + widths[i][0] / 2, XY[i][1] - widths[i][1] / 2, XY[i][2]};
-                bottomNW[i] = new double[]{XY[i][0] - widths[i][0] / 2, XY[i][1] + widths[i][1] / 2, 0};
-                bottomNE[i] = new double[]{XY[i][0] + widths[i][0] / 2, XY[i][1] + widths[i][1] / 2, 0};
-                bottomSW[i] = new double[]{XY[i][0] - widths[i][0] / 2, XY[i][1] - widths[i][1] / 2, 0};
-                bottomSE[i] = new double[]{XY[i][0] + widths[i][0] / 2, XY[i][1] - widths[i][1] / 2, 0};
+            // flat bars are not drawn
+            if (XY[i][2] != 0) {
+                for (int k = 0; k < 4; k++) {
+                    faces[4 * f + k] = 8 * i + BAR_FACE[k];
+                }
+                f++;
+                for (int k = 0; k < 24; k++) {
+                    edges[2 * l + k] = 8 * i + BAR_EDGES[k];
+                }
+                l += 12;
             }
+            elementFaces[i + 1] = f;
+            elementEdges[i + 1] = l;
+            centers[0][i] = XY[i][0];
+            centers[1][i] = XY[i][1];
+            centers[2][i] = XY[i][2] / 2;
         }
+        mesh = new Mesh(vertices, faces, elementFaces, edges, elementEdges, PlotData.columns(centers));
     }
 
     public void plot(AbstractDrawer draw, Color c) {
@@ -92,44 +85,17 @@ public class HistogramPlot3D extends Plot {
             return;
         }
 
-        draw.canvas.includeInBounds(bottomSW[0]);
-        draw.canvas.includeInBounds(topNE[XY.length - 1]);
-
         draw.setColor(c);
         draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
-        for (int i = 0; i < XY.length; i++) {
-            if (topNW[i][2] != bottomNW[i][2]) {
-                draw.drawLine(topNW[i], topNE[i]);
-                draw.drawLine(topNE[i], topSE[i]);
-                draw.drawLine(topSE[i], topSW[i]);
-                draw.drawLine(topSW[i], topNW[i]);
-
-                draw.drawLine(bottomNW[i], bottomNE[i]);
-                draw.drawLine(bottomNE[i], bottomSE[i]);
-                draw.drawLine(bottomSE[i], bottomSW[i]);
-                draw.drawLine(bottomSW[i], bottomNW[i]);
-
-                draw.drawLine(bottomNW[i], topNW[i]);
-                draw.drawLine(bottomNE[i], topNE[i]);
-                draw.drawLine(bottomSE[i], topSE[i]);
-                draw.drawLine(bottomSW[i], topSW[i]);
-
-                if (fill_shape) {
-                    draw.fillPolygon(0.2f, topNW[i], topNE[i], topSE[i], topSW[i]);
-                    //draw.fillPolygon(bottomNW[i], bottomNE[i], bottomSE[i], bottomSW[i]);
-				/*draw.fillPolygon(topNW[i], topNE[i], bottomNE[i], bottomNW[i]);
-                    draw.fillPolygon(topSW[i], topSE[i], bottomSE[i], bottomSW[i]);
-                    draw.fillPolygon(topNE[i], topSE[i], bottomSE[i], bottomNE[i]);
-                    draw.fillPolygon(topNW[i], topSW[i], bottomSW[i], bottomNW[i]);*/
-                }
-            }
-        }
+        draw.drawMesh(mesh, fill_shape && !draw.draft, 0.2f, true);
     }
 
     @Override
-    public void setData(double[][] d) {
+    public synchronized void setData(double[][] d) {
         datapanel = null;
         XY = d;
+        build();
+        dataChanged();
     }
 
     @Override
@@ -139,16 +105,19 @@ public class HistogramPlot3D extends Plot {
 
     @Override
     public double[][] getBounds() {
-        return new double[][]{Array.min(bottomSW), Array.max(topNE)};
+        return mesh.bounds();
     }
 
-    public void setDataWidth(double[][] w) {
+    public synchronized void setDataWidth(double[][] w) {
         widths = w;
+        build();
+        dataChanged();
     }
 
-    public void setDataWidth(double... w) {
+    public synchronized void setDataWidth(double... w) {
         width_constant = w;
         build();
+        dataChanged();
     }
 
     public double[][] getDataWidth() {
@@ -163,8 +132,8 @@ public class HistogramPlot3D extends Plot {
     }
 
     public void setData(double[][] d, double[][] w) {
-        setData(d);
         widths = w;
+        setData(d);
     }
 
     public void setData(double[][] d, double... w) {
@@ -173,15 +142,7 @@ public class HistogramPlot3D extends Plot {
     }
 
     public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
-
-            if ((screenCoord[0] + note_precision > screenCoordTest[0]) && (screenCoord[0] - note_precision < screenCoordTest[0])
-                    && (screenCoord[1] + note_precision > screenCoordTest[1]) && (screenCoord[1] - note_precision < screenCoordTest[1])) {
-                return XY[i];
-            }
-        }
-        return null;
+        return selectPoint(XY, screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
@@ -25,6 +25,11 @@ public abstract class LayerPlot extends Plot {
         return plot.getBounds();
     }
 
+    @Override
+    public double[][] getCachedBounds() {
+        return plot.getCachedBounds();
+    }
+
     @Override
     public DataPanel getDataPanel(PlotCanvas plotCanvas) {
         return null;
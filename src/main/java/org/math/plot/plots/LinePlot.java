@@ -11,6 +11,9 @@ public class LinePlot extends ScatterPlot {
 
 	public boolean draw_dot = false;
 
+	// if not null, only the points visible at the current screen resolution are drawn
+	public LineDecimator decimator = null;
+
 	public LinePlot(String n, Color c, boolean[][] _pattern, double[][] _XY) {
 		super(n, c, _pattern, _XY);
 	}
@@ -23,6 +26,10 @@ public class LinePlot extends ScatterPlot {
 		super(n, c, _XY);
 	}
 
+	public LinePlot(String n, Color c, PlotData _data) {
+		super(n, c, _data);
+	}
+
 	public void plot(AbstractDrawer draw, Color c) {
 		if (!visible)
 			return;
@@ -32,18 +39,20 @@ public class LinePlot extends ScatterPlot {
 
 		draw.setColor(c);
 		draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
-		for (int i = 0; i < XY.length - 1; i++)
-                    if (!anyNaN(XY[i]) && !anyNaN(XY[i+1]))
-			draw.drawLine(XY[i], XY[i + 1]);
+		if (draw.draft && data.size() > AbstractDrawer.DRAFT_PRIMITIVES)
+			draw.drawPolyline(data.subsample(AbstractDrawer.DRAFT_PRIMITIVES));
+		else
+			draw.drawPolyline(decimator == null ? data : decimator.decimate(draw, data));
+	}
+
+	/**
+	 * Enables pixel-aware decimation of the drawn line, for large series
+	 * sorted along the x axis.
+	 */
+	public void setDecimation(boolean d) {
+		decimator = d ? new LineDecimator() : null;
 	}
 
-        boolean anyNaN(double[] xy) {
-            for (int i = 0; i < xy.length; i++) {
-                if(Double.isNaN(xy[i])) return true;
-            }
-            return false;
-        }
-        
 	public static void main(String[] args) {
 		Plot2DPanel p2 = new Plot2DPanel();
 
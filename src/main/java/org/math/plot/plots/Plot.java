@@ -20,6 +20,9 @@ import org.math.plot.plotObjects.Editable;
 import org.math.plot.plotObjects.Noteable;
 import org.math.plot.plotObjects.Plotable;
 import org.math.plot.render.AbstractDrawer;
+import org.math.plot.render.PlotData;
+import org.math.plot.render.RenderStats;
+import org.math.plot.render.ScreenIndex;
 import org.math.plot.utils.Array;
 
 public abstract class Plot implements Plotable, Noteable, Editable {
@@ -32,6 +35,10 @@ public abstract class Plot implements Plotable, Noteable, Editable {
     public double[] coordNoted;
     //public boolean forcenoted = false;
     public int note_precision = 5;
+    // data version, bounds being cached for one version
+    private int dataVersion;
+    private int boundsVersion;
+    private double[][] bounds;
 
     public Plot(String n, Color c) {
         name = n;
@@ -96,13 +103,50 @@ public abstract class Plot implements Plotable, Noteable, Editable {
 
     public abstract double[][] getData();
 
+    /** number of points shown by the data panels of plots mapped from a file */
+    public static int MAPPED_PANEL_ROWS = 10000;
+
+    /**
+     * @return the points shown by the data panels, getData() by default
+     */
+    public double[][] getPanelData() {
+        return getData();
+    }
+
     public double[] getBounds(int axis) {
-        return Array.getColumnCopy(getBounds(), axis);
+        return Array.getColumnCopy(getCachedBounds(), axis);
     }
 
     /**This method should be abstract, but for backward compatibility, here is a basic impl.*/
     public double[][] getBounds() {
-        return Array.mergeRows(Array.min(getData()), Array.max(getData()));
+        return PlotData.rows(getData()).bounds();
+    }
+
+    /**
+     * Marks the data as changed, so that bounds are computed again. Called by
+     * the data setters, to be called after changing data arrays in place.
+     */
+    public synchronized void dataChanged() {
+        dataVersion++;
+    }
+
+    /**
+     * @return a counter incremented each time the data change
+     */
+    public synchronized int getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * @return the bounds computed by getBounds(), only once per data version,
+     *         which must not be modified
+     */
+    public synchronized double[][] getCachedBounds() {
+        if (bounds == null || boundsVersion != dataVersion) {
+            bounds = getBounds();
+            boundsVersion = dataVersion;
+        }
+        return bounds;
     }
 
     public void setVisible(boolean v) {
@@ -134,6 +178,25 @@ public abstract class Plot implements Plotable, Noteable, Editable {
 
     public abstract double[] isSelected(int[] screenCoordTest, AbstractDrawer draw);
 
+    // screen index of the points picked by isSelected
+    private ScreenIndex selectionIndex;
+
+    /**
+     * @return the point of points projected the nearest to screenCoordTest,
+     *         within note_precision, or null
+     */
+    protected double[] selectPoint(double[][] points, int[] screenCoordTest, AbstractDrawer draw) {
+        return selectPoint(PlotData.rows(points), screenCoordTest, draw);
+    }
+
+    protected double[] selectPoint(PlotData points, int[] screenCoordTest, AbstractDrawer draw) {
+        if (selectionIndex == null) {
+            selectionIndex = new ScreenIndex();
+        }
+        int i = selectionIndex.nearest(draw, points, getDataVersion(), screenCoordTest[0], screenCoordTest[1], note_precision);
+        return i < 0 ? null : points.getRow(i);
+    }
+
     public void note(AbstractDrawer draw) {
         plot(draw, PlotCanvas.NOTE_COLOR);
         plotLayerPlots(draw, PlotCanvas.NOTE_COLOR);
@@ -160,7 +223,14 @@ public abstract class Plot implements Plotable, Noteable, Editable {
 
     public void plotLayerPlots(AbstractDrawer draw, Color c) {
         for (int i = 0; i < layers.size(); i++) {
-            layers.get(i).plot(draw, c);
+            LayerPlot l = layers.get(i);
+            if (draw.stats == null) {
+                l.plot(draw, c);
+            } else {
+                draw.stats.begin(draw);
+                l.plot(draw, c);
+                draw.stats.end(RenderStats.LAYER, l.name, l, draw);
+            }
         }
 
     }
@@ -201,7 +271,7 @@ public abstract class Plot implements Plotable, Noteable, Editable {
             visible.setSelected(plot.getVisible());
             color = new JButton();
             color.setBackground(plot.getColor());
-            XY = new MatrixTablePanel(plotCanvas.reverseMapedData(plot.getData()));
+            XY = new MatrixTablePanel(plotCanvas.reverseMapedData(plot.getPanelData()));
 
             visible.addChangeListener(new ChangeListener() {
 
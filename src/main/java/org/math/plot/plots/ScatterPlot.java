@@ -9,6 +9,7 @@ import org.math.plot.canvas.PlotCanvas;
 import org.math.plot.render.*;
 import org.math.plot.utils.Array;
 import org.math.plot.utils.FastMath;
+import org.math.plot.utils.RingBuffer;
 
 public class ScatterPlot extends Plot {
 
@@ -16,26 +17,49 @@ public class ScatterPlot extends Plot {
     private int radius;
     private boolean[][] pattern;
     private boolean use_pattern;
+    // points drawn
+    PlotData data;
+    // points as rows, null until needed if data is stored by columns
     double[][] XY;
     private String[] tags;
+    /** above this number of points, the plot is rendered as a density image instead of dots */
+    public static int DEFAULT_AGGREGATION_THRESHOLD = 1000000;
+    public int aggregation_threshold = DEFAULT_AGGREGATION_THRESHOLD;
+    public PointAggregator aggregator = new PointAggregator();
+    // points appended by append(), null until data is appended
+    private RingBuffer buffer;
+    private boolean bufferChanged;
+    private int window = 0;
 
     public ScatterPlot(String n, Color c, boolean[][] _pattern, double[][] _XY) {
+        this(n, c, _pattern, PlotData.rows(_XY));
+    }
+
+    public ScatterPlot(String n, Color c, int _type, int _radius, double[][] _XY) {
+        this(n, c, _type, _radius, PlotData.rows(_XY));
+    }
+
+    public ScatterPlot(String n, Color c, double[][] _XY) {
+        this(n, c, AbstractDrawer.ROUND_DOT, AbstractDrawer.DEFAULT_DOT_RADIUS, _XY);
+    }
+
+    public ScatterPlot(String n, Color c, boolean[][] _pattern, PlotData _data) {
         super(n, c);
-        XY = _XY;
+        setStorage(_data);
         use_pattern = true;
         pattern = _pattern;
     }
 
-    public ScatterPlot(String n, Color c, int _type, int _radius, double[][] _XY) {
+    public ScatterPlot(String n, Color c, int _type, int _radius, PlotData _data) {
         super(n, c);
-        XY = _XY;
+        setStorage(_data);
         use_pattern = false;
         type = _type;
         radius = _radius;
     }
 
-    public ScatterPlot(String n, Color c, double[][] _XY) {
-        this(n, c, AbstractDrawer.ROUND_DOT, AbstractDrawer.DEFAULT_DOT_RADIUS, _XY);
+    public ScatterPlot(String n, Color c, PlotData _data) {
+        this(n, c, AbstractDrawer.ROUND_DOT, AbstractDrawer.DEFAULT_DOT_RADIUS, _data);
     }
 
     public void plot(AbstractDrawer draw, Color c) {
@@ -43,6 +67,12 @@ public class ScatterPlot extends Plot {
             return;
         }
 
+        PlotData drawn = draw.draft ? data.subsample(AbstractDrawer.DRAFT_PRIMITIVES) : data;
+        if (data.size() > aggregation_threshold) {
+            aggregator.plot(draw, c, drawn, getDataVersion());
+            return;
+        }
+
         draw.setColor(c);
         if (use_pattern) {
             draw.setDotType(AbstractDrawer.PATTERN_DOT);
@@ -56,9 +86,21 @@ public class ScatterPlot extends Plot {
             }
         }
 
-        for (int i = 0; i < XY.length; i++) {
-            draw.drawDot(XY[i]);
-        }
+        draw.drawDots(drawn);
+    }
+
+    /**
+     * @param threshold
+     *            number of points above which the plot is rendered as a
+     *            density image
+     * @param mode
+     *            aggregation mode : PointAggregator.COUNT, MEAN, MIN or MAX
+     * @param valueColumn
+     *            data column aggregated by the MEAN, MIN and MAX modes
+     */
+    public void setAggregation(int threshold, int mode, int valueColumn) {
+        aggregation_threshold = threshold;
+        aggregator = new PointAggregator(mode, valueColumn);
     }
 
     public void setDotPattern(int t) {
@@ -73,29 +115,174 @@ public class ScatterPlot extends Plot {
 
     @Override
     public void setData(double[][] d) {
+        setData(PlotData.rows(d));
+    }
+
+    /**
+     * Sets the points, stored by rows or by columns. Their arrays are not
+     * copied : call dataChanged() after changing them in place.
+     */
+    public synchronized void setData(PlotData d) {
         datapanel = null;
-        XY = d;
+        dataChanged();
+        setStorage(d);
+        buffer = null;
+        bufferChanged = false;
     }
 
+    private void setStorage(PlotData d) {
+        data = d;
+        XY = null;
+    }
+
+    /**
+     * @return the points as rows, built at the first call if the points are
+     *         stored by columns
+     * @throws UnsupportedOperationException
+     *             if the points are mapped from a column file, which are
+     *             only read in place
+     */
     @Override
-    public double[][] getData() {
+    public synchronized double[][] getData() {
+        updateData();
+        if (XY == null) {
+            XY = data.toRows();
+        }
         return XY;
     }
 
+    public PlotData getPlotData() {
+        updateData();
+        return data;
+    }
+
+    /**
+     * @return the points as rows, or the first MAPPED_PANEL_ROWS points if
+     *         they are mapped from a column file
+     */
     @Override
-    public double[][] getBounds() {
-        return Array.mergeRows(Array.min(XY), Array.max(XY));
+    public synchronized double[][] getPanelData() {
+        PlotData d = getPlotData();
+        if (!d.isMapped()) {
+            return getData();
+        }
+        double[][] rows = new double[FastMath.min(d.size(), MAPPED_PANEL_ROWS)][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = d.getRow(i);
+        }
+        return rows;
     }
 
-    public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
-        for (int i = 0; i < XY.length; i++) {
-            int[] screenCoord = draw.project(XY[i]);
+    @Override
+    public synchronized double[][] getBounds() {
+        if (buffer != null) {
+            return buffer.getBounds();
+        }
+        return data.bounds();
+    }
+
+    // ///////////////////////////////////////////
+    // ////// streaming //////////////////////////
+    // ///////////////////////////////////////////
+
+    /**
+     * Appends points to the data, in O(1) amortized time per point (bounds
+     * included). Appended points are taken into account at the next paint.
+     */
+    public synchronized void append(double[]... points) {
+        dataChanged();
+        if (buffer == null) {
+            buffer = window > 0 ? new RingBuffer(window) : new RingBuffer();
+            fill(buffer);
+        }
+        buffer.append(points);
+        bufferChanged = true;
+    }
 
-            if (FastMath.abs(screenCoord[0] - screenCoordTest[0]) < note_precision && FastMath.abs(screenCoord[1] - screenCoordTest[1]) < note_precision) {
-                return XY[i];
+    /**
+     * Sets the number of points kept when appending data, the oldest points
+     * being removed over it.
+     *
+     * @param w
+     *            maximum number of points, 0 to keep all points
+     */
+    public synchronized void setWindow(int w) {
+        dataChanged();
+        updateData();
+        window = FastMath.max(w, 0);
+        buffer = null;
+        if (window > 0 && data.size() > window) {
+            buffer = new RingBuffer(window);
+            fill(buffer);
+            bufferChanged = true;
+        }
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    // rows of the current data, the last ones of a sliding window
+    private void fill(RingBuffer b) {
+        for (int i = FastMath.max(data.size() - (window > 0 ? window : data.size()), 0); i < data.size(); i++) {
+            b.append(data.getRow(i));
+        }
+    }
+
+    // makes data up to date with the appended points, read in place from the buffer
+    protected synchronized void updateData() {
+        if (bufferChanged) {
+            datapanel = null;
+            data = buffer.view();
+            XY = null;
+            bufferChanged = false;
+        }
+    }
+
+    /**
+     * @return the screen area where points are drawn by this plot, null if
+     *         it also depends on other points (density image)
+     */
+    public Rectangle getExtent(AbstractDrawer draw, double[]... points) {
+        Rectangle extent = new Rectangle(0, 0, -1, -1);
+        if (!visible) {
+            return extent;
+        }
+        if (data.size() > aggregation_threshold) {
+            return null;
+        }
+        for (int i = 0; i < points.length; i++) {
+            boolean nan = false;
+            for (int j = 0; j < points[i].length; j++) {
+                nan |= Double.isNaN(points[i][j]);
             }
+            if (!nan) {
+                int[] sC = draw.project(points[i]);
+                extent.add(sC[0], sC[1]);
+            }
+        }
+        if (extent.width >= 0) {
+            int size = use_pattern ? FastMath.max(pattern.length, pattern.length == 0 ? 0 : pattern[0].length) : 2 * radius;
+            extent.grow(size + 2, size + 2);
         }
-        return null;
+        return extent;
+    }
+
+    @Override
+    public void plot(AbstractDrawer draw) {
+        updateData();
+        super.plot(draw);
+    }
+
+    @Override
+    public void note(AbstractDrawer draw) {
+        updateData();
+        super.note(draw);
+    }
+
+    public double[] isSelected(int[] screenCoordTest, AbstractDrawer draw) {
+        updateData();
+        return selectPoint(data, screenCoordTest, draw);
     }
 
     public static void main(String[] args) {
@@ -149,9 +336,9 @@ public class ScatterPlot extends Plot {
             super.noteCoord(draw, coordNoted);
         } else {
             draw.setColor(PlotCanvas.NOTE_COLOR);
-            for (int i = 0; i < XY.length; i++) {
+            for (int i = 0; i < data.size(); i++) {
                 if (tags.length > i) {
-                    if (Array.equals(XY[i], coordNoted)) {
+                    if (Array.equals(data.getRow(i), coordNoted)) {
                         draw.drawShadowedText(tags[i], .5f, coordNoted);
                     }
                 }
@@ -11,6 +11,9 @@ public class StaircasePlot extends ScatterPlot {
 
 	public boolean link = true;
 
+	// if not null, only the points visible at the current screen resolution are drawn
+	public LineDecimator decimator = null;
+
 	public StaircasePlot(String n, Color c, boolean[][] _pattern, double[][] _XY) {
 		super(n, c, _pattern, _XY);
 	}
@@ -23,6 +26,10 @@ public class StaircasePlot extends ScatterPlot {
 		super(n, c, _XY);
 	}
 
+	public StaircasePlot(String n, Color c, PlotData _data) {
+		super(n, c, _data);
+	}
+
 	public void plot(AbstractDrawer draw, Color c) {
 		if (!visible)
 			return;
@@ -31,25 +38,63 @@ public class StaircasePlot extends ScatterPlot {
 		
 		draw.setColor(c);
 		draw.setLineType(AbstractDrawer.CONTINOUS_LINE);
-		for (int i = 0; i < XY.length - 1; i++) {
-			double[] begin = XY[i].clone();
-			double[] end = XY[i + 1].clone();
-			end[end.length - 1] = XY[i][end.length - 1];
-			draw.drawLine(begin, end);
-		}
-		
-		//System.out.println(Array.toString(XY));
+		draw.drawPolyline(decimator == null ? getSteps() : decimator.decimate(draw, getSteps()));
+	}
 
-		if (link) {
-			for (int i = 0; i < XY.length - 2; i++) {
-				double[] begin = XY[i+1].clone();
-				double[] end = XY[i + 1].clone();
-				begin[begin.length - 1] = XY[i][begin.length - 1];
-				draw.drawLine(begin, end);
+	/**
+	 * Enables pixel-aware decimation of the drawn steps, for large series
+	 * sorted along the x axis.
+	 */
+	public void setDecimation(boolean d) {
+		decimator = d ? new LineDecimator() : null;
+	}
+
+	// staircase vertices, rebuilt only when data, their version or link change
+	private PlotData steps;
+	private PlotData stepsData;
+	private int stepsVersion;
+	private boolean stepsLink;
+
+	/**
+	 * @return the vertices of the staircase polyline, by columns : each point
+	 *         is followed by the corner reaching the next abscissa, and the
+	 *         horizontal steps are separated by NaN vertices when not linked.
+	 */
+	synchronized PlotData getSteps() {
+		int version = getDataVersion();
+		if (steps != null && stepsData == data && stepsVersion == version && stepsLink == link)
+			return steps;
+
+		int n = data.size() - 1;
+		int d = data.dimension();
+		int last = d - 1;
+		double[][] columns = new double[d][n < 1 ? 0 : (link ? 2 * n : 3 * n - 1)];
+		int k = 0;
+		for (int i = 0; i < n; i++) {
+			if (!link && i > 0) {
+				for (int j = 0; j < d; j++)
+					columns[j][k] = Double.NaN;
+				k++;
 			}
+			for (int j = 0; j < d; j++)
+				columns[j][k] = data.get(i, j);
+			k++;
+			for (int j = 0; j < last; j++)
+				columns[j][k] = data.get(i + 1, j);
+			columns[last][k] = data.get(i, last);
+			k++;
 		}
-		//System.out.println(Array.toString(XY));
-		
+		steps = PlotData.columns(columns);
+		stepsData = data;
+		stepsVersion = version;
+		stepsLink = link;
+		return steps;
+	}
+
+	@Override
+	public synchronized void setData(PlotData d) {
+		super.setData(d);
+		steps = null;
 	}
 	
 	public static void main(String[] args) {
@@ -17,11 +17,61 @@ import static java.lang.Math.*;
 public abstract class AWTDrawer extends AbstractDrawer {
 
     public Projection projection;
+    // reusable screen coordinates buffers, to avoid allocations while projecting
+    private int[] sCBuffer = new int[2];
+    private int[] xBuffer = new int[64];
+    private int[] yBuffer = new int[64];
+    // screen coordinates of the vertices of the last mesh drawn
+    private int[] meshX, meshY;
+    // number of points projected at once by bulk drawing methods
+    private final static int PROJECTION_CHUNK = 4096;
+    // labels laid out by this drawer
+    private TextCache texts = new TextCache();
 
     public AWTDrawer(PlotCanvas _canvas) {
         super(_canvas);
     }
 
+    /**
+     * @return the texts laid out by this drawer
+     */
+    public TextCache getTextCache() {
+        return texts;
+    }
+
+    /**
+     * Sets the texts laid out by this drawer, to reuse them from another
+     * drawer which is not drawing anymore.
+     */
+    public void setTextCache(TextCache t) {
+        texts = t;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#copy()
+     */
+    public AbstractDrawer copy() {
+        AWTDrawer d = (AWTDrawer) super.copy();
+        d.projection = projection.copy(d);
+        d.sCBuffer = new int[2];
+        d.xBuffer = new int[64];
+        d.yBuffer = new int[64];
+        d.meshX = null;
+        d.meshY = null;
+        d.texts = new TextCache();
+        return d;
+    }
+
+    private void ensureBuffers(int n) {
+        if (xBuffer.length < n) {
+            int l = FastMath.max(n, 2 * xBuffer.length);
+            xBuffer = new int[l];
+            yBuffer = new int[l];
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -87,6 +137,24 @@ public abstract class AWTDrawer extends AbstractDrawer {
         return projection.screenProjection(pC);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#project(double[][], int, int, int[], int[])
+     */
+    public void project(double[][] pC, int from, int to, int[] sX, int[] sY) {
+        projection.screenProjection(pC, from, to, sX, sY);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#projectColumns(double[][], int, int, int[], int[])
+     */
+    public void projectColumns(double[][] columns, int from, int to, int[] sX, int[] sY) {
+        projection.screenProjectionColumns(columns, from, to, sX, sY);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -96,6 +164,24 @@ public abstract class AWTDrawer extends AbstractDrawer {
         return projection.screenProjectionBase(rC);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#getProjectionVersion()
+     */
+    public int getProjectionVersion() {
+        return projection.getVersion();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#depth(double[])
+     */
+    public double depth(double... pC) {
+        return projection.depth(pC);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -124,18 +210,15 @@ public abstract class AWTDrawer extends AbstractDrawer {
         int[] sC = projection.screenProjection(pC);
 
         // Corner offset adjustment : Text Offset is used Here
-        FontRenderContext frc = comp2D.getFontRenderContext();
-        Font font1 = comp2D.getFont();
+        TextCache.Text text = texts.get(label, comp2D.getFont(), comp2D.getFontRenderContext(), text_angle);
         int x = sC[0];
         int y = sC[1];
-        double w = font1.getStringBounds(label, frc).getWidth();
-        double h = font1.getSize2D();
+        double w = text.width;
+        double h = text.height;
         x -= (int) (w * text_Eastoffset);
         y += (int) (h * text_Northoffset);
 
-        int wc = (int) (w * FastMath.cos(text_angle) + h * FastMath.sin(text_angle));
-        int hc = (int) (h * FastMath.cos(text_angle) + w * FastMath.sin(text_angle));
-        if (!comp2D.hitClip(x, y, wc, hc)) {
+        if (!damageText(text.lines.length, x, y, w, h)) {
             return;
         }
 
@@ -144,9 +227,9 @@ public abstract class AWTDrawer extends AbstractDrawer {
         }
 
         int tmpY = y;
-        String[] lines = label.split("\n");
-        for (int i = 0; i < lines.length; i++) {
-            comp2D.drawString(lines[i], x, tmpY);
+        for (int i = 0; i < text.lines.length; i++) {
+            primitives++;
+            text.drawLine(comp2D, i, x, tmpY);
             tmpY += h;
         }
 
@@ -159,18 +242,15 @@ public abstract class AWTDrawer extends AbstractDrawer {
         int[] sC = projection.screenProjection(pC);
 
         // Corner offset adjustment : Text Offset is used Here
-        FontRenderContext frc = comp2D.getFontRenderContext();
-        Font font1 = comp2D.getFont();
+        TextCache.Text text = texts.get(label, comp2D.getFont(), comp2D.getFontRenderContext(), text_angle);
         int x = sC[0];
         int y = sC[1];
-        double w = font1.getStringBounds(label, frc).getWidth();
-        double h = font1.getSize2D();
+        double w = text.width;
+        double h = text.height;
         x -= (int) (w * text_Eastoffset);
         y += (int) (h * text_Northoffset);
 
-        int wc = (int) (w * FastMath.cos(text_angle) + h * FastMath.sin(text_angle));
-        int hc = (int) (h * FastMath.cos(text_angle) + w * FastMath.sin(text_angle));
-        if (!comp2D.hitClip(x, y, wc, hc)) {
+        if (!damageText(text.lines.length, x, y, w, h)) {
             return;
         }
 
@@ -181,16 +261,17 @@ public abstract class AWTDrawer extends AbstractDrawer {
         Composite cs = comp2D.getComposite();
         Color c = comp2D.getColor();
 
-        String[] lines = label.split("\n");
-        for (int i = 0; i < lines.length; i++) {
+        for (int i = 0; i < text.lines.length; i++) {
 
             comp2D.setColor(Color.white);
             comp2D.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+            primitives++;
             comp2D.fillRect(x, y - (int) h, (int) w, (int) h);
             comp2D.setComposite(cs);
             comp2D.setColor(c);
 
-            comp2D.drawString(lines[i], x, y);
+            primitives++;
+            text.drawLine(comp2D, i, x, y);
             y += h;
         }
 
@@ -209,18 +290,15 @@ public abstract class AWTDrawer extends AbstractDrawer {
         int[] sC = projection.screenProjectionBase(rC);
 
         // Corner offset adjustment : Text Offset is used Here
-        FontRenderContext frc = comp2D.getFontRenderContext();
-        Font font1 = comp2D.getFont();
+        TextCache.Text text = texts.get(label, comp2D.getFont(), comp2D.getFontRenderContext(), text_angle);
         int x = sC[0];
         int y = sC[1];
-        double w = font1.getStringBounds(label, frc).getWidth();
-        double h = font1.getSize2D();
+        double w = text.width;
+        double h = text.height;
         x -= (int) (w * text_Eastoffset);
         y += (int) (h * text_Northoffset);
 
-        int wc = (int) (w * FastMath.cos(text_angle) + h * FastMath.sin(text_angle));
-        int hc = (int) (h * FastMath.cos(text_angle) + w * FastMath.sin(text_angle));
-        if (!comp2D.hitClip(x, y, wc, hc)) {
+        if (!damageText(text.lines.length, x, y, w, h)) {
             return;
         }
 
@@ -228,9 +306,9 @@ public abstract class AWTDrawer extends AbstractDrawer {
             comp2D.rotate(text_angle, x + w / 2, y - h / 2);
         }
 
-        String[] lines = label.split("\n");
-        for (int i = 0; i < lines.length; i++) {
-            comp2D.drawString(lines[i], x, y);
+        for (int i = 0; i < text.lines.length; i++) {
+            primitives++;
+            text.drawLine(comp2D, i, x, y);
             y += h;
         }
         //comp2D.drawString(label, x, y);
@@ -240,6 +318,15 @@ public abstract class AWTDrawer extends AbstractDrawer {
         }
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#getTextWidth(java.lang.String)
+     */
+    public double getTextWidth(String label) {
+        return texts.get(label, comp2D.getFont(), comp2D.getFontRenderContext(), text_angle).width;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -247,11 +334,13 @@ public abstract class AWTDrawer extends AbstractDrawer {
      *      double[])
      */
     public void drawLineBase(double[]... rC) {
-        int[][] sC = new int[rC.length][];
-        for (int i = 0; i < sC.length; i++) {
-            sC[i] = projection.screenProjectionBase(rC[i]);
+        ensureBuffers(rC.length);
+        for (int i = 0; i < rC.length; i++) {
+            int[] sCi = projection.screenProjectionBase(rC[i]);
+            xBuffer[i] = sCi[0];
+            yBuffer[i] = sCi[1];
         }
-        drawLine(sC);
+        strokePolyline(xBuffer, yBuffer, rC.length);
     }
 
     /*
@@ -260,56 +349,141 @@ public abstract class AWTDrawer extends AbstractDrawer {
      * @see org.math.plot.render.AbstractDrawer#drawLine(double[], double[])
      */
     public void drawLine(double[]... pC) {
-        int[][] sC = new int[pC.length][];
-        for (int i = 0; i < sC.length; i++) {
-            sC[i] = projection.screenProjection(pC[i]);
-        }
-        drawLine(sC);
+        ensureBuffers(pC.length);
+        projection.screenProjection(pC, 0, pC.length, xBuffer, yBuffer);
+        strokePolyline(xBuffer, yBuffer, pC.length);
     }
 
-    private void drawLine(int[]... c) {
-        int minx = c[0][0], miny = c[0][1], maxx = c[0][0] + 1, maxy = c[0][1] + 1;
-        int[] x = new int[c.length];
-        for (int i = 0; i < c.length; i++) {
-            x[i] = c[i][0];
-            minx = FastMath.min(minx, x[i]);
-            maxx = FastMath.max(maxx, x[i]);
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#drawPolyline(org.math.plot.render.PlotData)
+     */
+    public void drawPolyline(PlotData data) {
+        int dimension = data.dimension();
+        int start = 0;
+        for (int i = 0; i <= data.size(); i++) {
+            if (i == data.size() || data.isNaN(i, dimension)) {
+                int n = i - start;
+                if (n > 1) {
+                    ensureBuffers(n);
+                    data.project(this, start, i, xBuffer, yBuffer);
+                    strokePolyline(xBuffer, yBuffer, n);
+                }
+                start = i + 1;
+            }
         }
-        int[] y = new int[c.length];
-        for (int i = 0; i < c.length; i++) {
-            y[i] = c[i][1];
-            miny = FastMath.min(miny, y[i]);
-            maxy = FastMath.max(maxy, y[i]);
+    }
+
+    private void strokePolyline(int[] x, int[] y, int n) {
+        if (hitClip(x, y, n, line_width)) {
+            comp2D.setStroke(getStroke());
+            primitives++;
+            comp2D.drawPolyline(x, y, n);
         }
+    }
+
+    // last stroke built, reused while line type and width do not change
+    private Stroke stroke;
+    private int stroke_type, stroke_width;
 
-        if (comp2D.hitClip(minx, miny, maxx - minx, maxy - miny)) {
-            Stroke s = null;
+    private Stroke getStroke() {
+        if (stroke == null || stroke_type != line_type || stroke_width != line_width) {
             switch (line_type) {
                 case CONTINOUS_LINE:
-                    s = new BasicStroke(line_width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND);
+                    stroke = new BasicStroke(line_width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND);
                     break;
                 case DOTTED_LINE:
-                    s = new BasicStroke(line_width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND, 1f, new float[]{2f}, 0f);
+                    stroke = new BasicStroke(line_width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND, 1f, new float[]{2f}, 0f);
                     break;
+                default:
+                    stroke = null;
+            }
+            stroke_type = line_type;
+            stroke_width = line_width;
+        }
+        return stroke;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#drawDots(org.math.plot.render.PlotData)
+     */
+    public void drawDots(PlotData data) {
+        int n = data.size();
+        ensureBuffers(FastMath.min(n, PROJECTION_CHUNK));
+        // dots out of the clip are skipped
+        Rectangle clip = comp2D.getClipBounds();
+        int r = dotRadius();
+        int x0 = clip == null ? Integer.MIN_VALUE : clip.x - r - 1;
+        int x1 = clip == null ? Integer.MAX_VALUE : clip.x + clip.width + r + 1;
+        int y0 = clip == null ? Integer.MIN_VALUE : clip.y - r - 1;
+        int y1 = clip == null ? Integer.MAX_VALUE : clip.y + clip.height + r + 1;
+        for (int from = 0; from < n; from += PROJECTION_CHUNK) {
+            int to = FastMath.min(from + PROJECTION_CHUNK, n);
+            data.project(this, from, to, xBuffer, yBuffer);
+            for (int i = 0; i < to - from; i++) {
+                damageDot(xBuffer[i], yBuffer[i]);
+                if (xBuffer[i] < x0 || xBuffer[i] > x1 || yBuffer[i] < y0 || yBuffer[i] > y1) {
+                    continue;
+                }
+                switch (dot_type) {
+                    case ROUND_DOT:
+                        fillRoundDot(xBuffer[i], yBuffer[i]);
+                        break;
+                    case CROSS_DOT:
+                        strokeCrossDot(xBuffer[i], yBuffer[i]);
+                        break;
+                    case PATTERN_DOT:
+                        fillPatternDot(xBuffer[i], yBuffer[i]);
+                        break;
+                }
             }
-            comp2D.setStroke(s);
-            comp2D.drawPolyline(x, y, c.length);
         }
     }
 
     public void drawRoundDot(double... pC) {
-        int[] sC = projection.screenProjection(pC);
-        comp2D.fillOval(sC[0] - dot_radius, sC[1] - dot_radius, 2 * dot_radius, 2 * dot_radius);
+        projection.screenProjection(pC, sCBuffer);
+        damageDot(sCBuffer[0], sCBuffer[1]);
+        fillRoundDot(sCBuffer[0], sCBuffer[1]);
     }
 
     public void drawCrossDot(double... pC) {
-        int[] sC = projection.screenProjection(pC);
-        comp2D.drawLine(sC[0] - dot_radius, sC[1] - dot_radius, sC[0] + dot_radius, sC[1] + dot_radius);
-        comp2D.drawLine(sC[0] + dot_radius, sC[1] - dot_radius, sC[0] - dot_radius, sC[1] + dot_radius);
+        projection.screenProjection(pC, sCBuffer);
+        damageDot(sCBuffer[0], sCBuffer[1]);
+        strokeCrossDot(sCBuffer[0], sCBuffer[1]);
     }
 
     public void drawPatternDot(double... pC) {
-        int[] sC = projection.screenProjection(pC);
+        projection.screenProjection(pC, sCBuffer);
+        damageDot(sCBuffer[0], sCBuffer[1]);
+        fillPatternDot(sCBuffer[0], sCBuffer[1]);
+    }
+
+    private int dotRadius() {
+        return dot_type == PATTERN_DOT ? FastMath.max(dot_pattern.length, dot_pattern[0].length) : dot_radius;
+    }
+
+    private void damageDot(int x, int y) {
+        if (damage != null) {
+            int r = dotRadius();
+            damage(x - r - 1, y - r - 1, 2 * r + 2, 2 * r + 2);
+        }
+    }
+
+    private void fillRoundDot(int x, int y) {
+        primitives++;
+        comp2D.fillOval(x - dot_radius, y - dot_radius, 2 * dot_radius, 2 * dot_radius);
+    }
+
+    private void strokeCrossDot(int x, int y) {
+        primitives += 2;
+        comp2D.drawLine(x - dot_radius, y - dot_radius, x + dot_radius, y + dot_radius);
+        comp2D.drawLine(x + dot_radius, y - dot_radius, x - dot_radius, y + dot_radius);
+    }
+
+    private void fillPatternDot(int x, int y) {
         int yoffset = (int) FastMath.ceil(dot_pattern.length / 2.0);
         int xoffset = (int) FastMath.ceil(dot_pattern[0].length / 2.0);
         for (int i = 0; i < dot_pattern.length; i++) {
@@ -317,7 +491,8 @@ public abstract class AWTDrawer extends AbstractDrawer {
                 if (dot_pattern[i][j]) // comp2D.setColor(new Color(getColor())
                 {
                     //System.err.println("comp2D.fillRect");
-                    comp2D.fillRect(sC[0] - xoffset + j, sC[1] - yoffset + i, 1, 1);
+                    primitives++;
+                    comp2D.fillRect(x - xoffset + j, y - yoffset + i, 1, 1);
                 }
             }
         }
@@ -329,27 +504,11 @@ public abstract class AWTDrawer extends AbstractDrawer {
      * @see org.math.plot.render.AbstractDrawer#drawPloygon(double[][])
      */
     public void drawPolygon(double[]... pC) {
-        int[][] c = new int[pC.length][2];
-        for (int i = 0; i < pC.length; i++) {
-            c[i] = projection.screenProjection(pC[i]);
-        }
-
-        int minx = c[0][0], miny = c[0][1], maxx = c[0][0] + 1, maxy = c[0][1] + 1;
-        int[] x = new int[c.length];
-        for (int i = 0; i < c.length; i++) {
-            x[i] = c[i][0];
-            minx = FastMath.min(minx, x[i]);
-            maxx = FastMath.max(maxx, x[i]);
-        }
-        int[] y = new int[c.length];
-        for (int i = 0; i < c.length; i++) {
-            y[i] = c[i][1];
-            miny = FastMath.min(miny, y[i]);
-            maxy = FastMath.max(maxy, y[i]);
-        }
-
-        if (comp2D.hitClip(minx, miny, maxx - minx, maxy - miny)) {
-            comp2D.drawPolygon(x, y, c.length);
+        ensureBuffers(pC.length);
+        projection.screenProjection(pC, 0, pC.length, xBuffer, yBuffer);
+        if (hitClip(xBuffer, yBuffer, pC.length)) {
+            primitives++;
+            comp2D.drawPolygon(xBuffer, yBuffer, pC.length);
         }
     }
 
@@ -359,42 +518,135 @@ public abstract class AWTDrawer extends AbstractDrawer {
      * @see org.math.plot.render.AbstractDrawer#fillPloygon(double[][])
      */
     public void fillPolygon(float alpha, double[]... pC) {
-        int[][] c = new int[pC.length][2];
-        for (int i = 0; i < pC.length; i++) {
-            c[i] = projection.screenProjection(pC[i]);
+        ensureBuffers(pC.length);
+        projection.screenProjection(pC, 0, pC.length, xBuffer, yBuffer);
+        if (hitClip(xBuffer, yBuffer, pC.length)) {
+            Composite cs = comp2D.getComposite();
+            comp2D.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+            primitives++;
+            comp2D.fillPolygon(xBuffer, yBuffer, pC.length);
+            comp2D.setComposite(cs);
         }
+    }
 
-        int minx = c[0][0], miny = c[0][1], maxx = c[0][0] + 1, maxy = c[0][1] + 1;
-        int[] x = new int[c.length];
-        for (int i = 0; i < c.length; i++) {
-            x[i] = c[i][0];
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.math.plot.render.AbstractDrawer#drawMesh(org.math.plot.render.Mesh, boolean, float, boolean)
+     */
+    public void drawMesh(Mesh mesh, boolean fill, float alpha, boolean stroke) {
+        int n = mesh.size();
+        if (meshX == null || meshX.length < n) {
+            meshX = new int[n];
+            meshY = new int[n];
+        }
+        projection.screenProjectionColumns(mesh.vertices, 0, n, meshX, meshY);
+        int[] order = mesh.order(this);
+
+        ensureBuffers(4);
+        Composite cs = comp2D.getComposite();
+        Composite fillComposite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha);
+        comp2D.setStroke(getStroke());
+        int[] faces = mesh.faces;
+        int[] edges = mesh.edges;
+        for (int e : order) {
+            int f0 = mesh.elementFaces[e], f1 = mesh.elementFaces[e + 1];
+            if (fill && f1 > f0) {
+                comp2D.setComposite(fillComposite);
+                for (int f = f0; f < f1; f++) {
+                    for (int k = 0; k < 4; k++) {
+                        xBuffer[k] = meshX[faces[4 * f + k]];
+                        yBuffer[k] = meshY[faces[4 * f + k]];
+                    }
+                    if (hitClip(xBuffer, yBuffer, 4)) {
+                        primitives++;
+                        comp2D.fillPolygon(xBuffer, yBuffer, 4);
+                    }
+                }
+                comp2D.setComposite(cs);
+            }
+            if (stroke) {
+                for (int l = mesh.elementEdges[e]; l < mesh.elementEdges[e + 1]; l++) {
+                    xBuffer[0] = meshX[edges[2 * l]];
+                    yBuffer[0] = meshY[edges[2 * l]];
+                    xBuffer[1] = meshX[edges[2 * l + 1]];
+                    yBuffer[1] = meshY[edges[2 * l + 1]];
+                    if (hitClip(xBuffer, yBuffer, 2, line_width)) {
+                        primitives++;
+                        comp2D.drawLine(xBuffer[0], yBuffer[0], xBuffer[1], yBuffer[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean hitClip(int[] x, int[] y, int n) {
+        return hitClip(x, y, n, 1);
+    }
+
+    // also records the bounds in damage, grown by margin
+    private boolean hitClip(int[] x, int[] y, int n, int margin) {
+        int minx = x[0], miny = y[0], maxx = x[0] + 1, maxy = y[0] + 1;
+        for (int i = 0; i < n; i++) {
             minx = FastMath.min(minx, x[i]);
             maxx = FastMath.max(maxx, x[i]);
-        }
-        int[] y = new int[c.length];
-        for (int i = 0; i < c.length; i++) {
-            y[i] = c[i][1];
             miny = FastMath.min(miny, y[i]);
             maxy = FastMath.max(maxy, y[i]);
         }
-        if (comp2D.hitClip(minx, miny, maxx - minx, maxy - miny)) {
-            Composite cs = comp2D.getComposite();
-            comp2D.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-            comp2D.fillPolygon(x, y, c.length);
-            comp2D.setComposite(cs);
+        if (damage != null) {
+            damage(minx - margin, miny - margin, maxx - minx + 2 * margin, maxy - miny + 2 * margin);
+        }
+        return comp2D.hitClip(minx, miny, maxx - minx, maxy - miny);
+    }
+
+    private void damage(int x, int y, int w, int h) {
+        damage.setBounds(damage.union(new Rectangle(x, y, w, h)));
+    }
+
+    // lines of label are drawn from baseline y, downwards : records their area as damaged, and returns whether it hits the clip
+    private boolean damageText(int lines, int x, int y, double w, double h) {
+        int width = (int) FastMath.ceil(w) + 2;
+        int height = (int) FastMath.ceil(h * (lines + 1)) + 2;
+        int left = x - 1;
+        int top = y - (int) FastMath.ceil(h) - 1;
+        if (text_angle != 0) {
+            // any rotation around the center of the text
+            int size = (int) FastMath.ceil(FastMath.sqrt((double) width * width + (double) height * height));
+            left = x + width / 2 - size / 2;
+            top = y - (int) h + height / 2 - size / 2;
+            width = height = size;
         }
+        if (damage != null) {
+            damage(left, top, width, height);
+        }
+        return comp2D.hitClip(left, top, width, height);
     }
 
     public void drawImage(Image img, float alpha, double[] _xyzSW, double[] _xyzSE, double[] _xyzNW) {
         Composite cs = comp2D.getComposite();
         comp2D.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
         AffineTransform t = getAffineTransform(img.getWidth(canvas), img.getHeight(canvas), _xyzSW, _xyzSE, _xyzNW);
+        if (t != null && damage != null) {
+            damage.setBounds(damage.union(t.createTransformedShape(new Rectangle(img.getWidth(canvas), img.getHeight(canvas))).getBounds()));
+        }
         if (t != null) {
+            primitives++;
             comp2D.drawImage(img, t, canvas);
         }
         comp2D.setComposite(cs);
     }
 
+    public void drawScreenImage(Image img, float alpha, int x, int y) {
+        Composite cs = comp2D.getComposite();
+        comp2D.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        if (damage != null) {
+            damage(x, y, img.getWidth(canvas), img.getHeight(canvas));
+        }
+        primitives++;
+        comp2D.drawImage(img, x, y, canvas);
+        comp2D.setComposite(cs);
+    }
+
     /*public void drawShape(Shape shape, float alpha, double[] _xyzSW, double[] _xyzSE, double[] _xyzNW) {
      AffineTransform t = getAffineTransform(shape.getBounds().width,shape.getBounds().height, _xyzSW,  _xyzSE,  _xyzNW);
      Shape t_shape = t.createTransformedShape(shape);
@@ -8,7 +8,7 @@ import java.awt.*;
 import org.math.plot.canvas.*;
 import org.math.plot.utils.*;
 
-public abstract class AbstractDrawer {
+public abstract class AbstractDrawer implements Cloneable {
 
     // TODO comment this source for other implementations : java3d, jogl or vtk
     public PlotCanvas canvas;
@@ -36,12 +36,38 @@ public abstract class AbstractDrawer {
     protected boolean[][] dot_pattern = DOT_TRIANGLE_PATTERN;
     protected int line_type = CONTINOUS_LINE;
     protected int line_width = DEFAULT_LINE_WIDTH;
+    /** if not null, screen bounds of the drawn primitives are added to it, whatever the clip */
+    public Rectangle damage;
+    /** if true, plots are drawn fast rather than nicely, while the user moves them */
+    public boolean draft;
+    /** number of points or cells above which plots are simplified in draft mode */
+    public static int DRAFT_PRIMITIVES = 20000;
+    /** points projected and Java2D drawing calls made by this drawer, counted for {@link RenderStats} */
+    public long projected, primitives;
+    /** if not null, the elements drawn are measured in it */
+    public RenderStats stats;
 
     //protected boolean[][] line_pattern = DOT_TRIANGLE_PATTERN;
     public AbstractDrawer(PlotCanvas _canvas) {
         canvas = _canvas;
     }
 
+    /**
+     * Returns a drawer on the same canvas, starting from the current state of
+     * this one (colour, font, offsets, dot and line types...), but owning its
+     * state, so that both drawers can be used from different threads.
+     */
+    public AbstractDrawer copy() {
+        try {
+            AbstractDrawer copy = (AbstractDrawer) clone();
+            copy.damage = null;
+            copy.stats = null;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Method used to initialize drawer to DEFAULT values
      */
@@ -164,6 +190,26 @@ public abstract class AbstractDrawer {
      */
     public abstract int[] project(double... pC);
 
+    /**
+     * Bulk version of {@link #project(double...)} : projects the points
+     * pC[from] to pC[to-1] into the caller-supplied screen buffers, without
+     * allocating.
+     * 
+     * @param pC
+     *            plot coordinates to project in screen
+     * @param sX
+     *            screen x coordinates, filled from index 0
+     * @param sY
+     *            screen y coordinates, filled from index 0
+     */
+    public abstract void project(double[][] pC, int from, int to, int[] sX, int[] sY);
+
+    /**
+     * Columnar version of {@link #project(double[][], int, int, int[], int[])} :
+     * columns[i] holds the plot coordinates along axis i.
+     */
+    public abstract void projectColumns(double[][] columns, int from, int to, int[] sX, int[] sY);
+
     /**
      * Returns the screen coordinates coresponding to plot coordinates Used to
      * test if mouse is pointing on a plot.
@@ -174,6 +220,25 @@ public abstract class AbstractDrawer {
      */
     public abstract int[] projectBase(double... rC);
 
+    /**
+     * Returns a counter which changes each time the plot coordinates to screen
+     * coordinates projection changes. Used to know if a previous rendering is
+     * still valid.
+     * 
+     * @return projection version
+     */
+    public abstract int getProjectionVersion();
+
+    /**
+     * Returns the depth of plot coordinates along the viewing direction,
+     * increasing towards the viewer. Used to draw the far primitives first.
+     * 
+     * @param pC
+     *            plot coordinates
+     * @return depth, 0 for a projection without depth
+     */
+    public abstract double depth(double... pC);
+
     /**
      * Plot ActionMode : translation of the plot
      * 
@@ -209,10 +274,32 @@ public abstract class AbstractDrawer {
 
     public abstract void drawTextBase(String label, double... rC);
 
+    /**
+     * @return the width of label in the current font
+     */
+    public abstract double getTextWidth(String label);
+
     public abstract void drawLineBase(double[]... rC);
 
     public abstract void drawLine(double[]... pC);
 
+    /**
+     * Draws the polyline linking the successive points of pC. A point having
+     * a NaN coordinate is not drawn and breaks the polyline, so each
+     * contiguous run of valid points is drawn as one line.
+     * 
+     * @param pC
+     *            plot coordinates of the polyline vertices
+     */
+    public void drawPolyline(double[]... pC) {
+        drawPolyline(PlotData.rows(pC));
+    }
+
+    /**
+     * Same as {@link #drawPolyline(double[][])}, for any point storage.
+     */
+    public abstract void drawPolyline(PlotData data);
+
     public void drawDot(double... pC) {
         switch (dot_type) {
             case ROUND_DOT:
@@ -227,6 +314,19 @@ public abstract class AbstractDrawer {
         }
     }
 
+    /**
+     * Draws a dot (of the current dot type) for each point of pC.
+     */
+    public void drawDots(double[]... pC) {
+        drawDots(PlotData.rows(pC));
+    }
+
+    public void drawDots(PlotData data) {
+        for (int i = 0; i < data.size(); i++) {
+            drawDot(data.getRow(i));
+        }
+    }
+
     public abstract void drawRoundDot(double... pC);
 
     public abstract void drawCrossDot(double... pC);
@@ -235,10 +335,32 @@ public abstract class AbstractDrawer {
 
     public abstract void drawPolygon(double[]... pC);
 
+    /**
+     * Draws the elements of mesh from the farthest to the nearest, each
+     * vertex being projected once.
+     * 
+     * @param fill
+     *            if true, faces are filled with the current color and alpha
+     * @param stroke
+     *            if true, edges are drawn with the current line type
+     */
+    public abstract void drawMesh(Mesh mesh, boolean fill, float alpha, boolean stroke);
+
     public abstract void fillPolygon(float alpha, double[]... pC);
 
     public abstract void drawImage(Image img, float alpha, double[] _xyzSW, double[] _xyzSE, double[] _xyzNW);
 
+    /**
+     * Draws an image already rendered in screen coordinates (one image pixel
+     * per screen pixel).
+     * 
+     * @param x
+     *            screen abscissa of the image upper left corner
+     * @param y
+     *            screen ordinate of the image upper left corner
+     */
+    public abstract void drawScreenImage(Image img, float alpha, int x, int y);
+
     // needs to be discussed... Maybe a geometric addon should be more interesting...
     //public abstract void drawShape(Shape shape, float alpha,double[] _xyzSW, double[] _xyzSE,double[] _xyzNW);
     public static boolean[][] stringToPattern(String empty, String... c) {
@@ -0,0 +1,135 @@
+package org.math.plot.render;
+
+/**
+ * Orders the primitives (polygons, boxes, cells) of a plot from the farthest
+ * to the nearest along the viewing direction, so that drawing them in this
+ * order lets the near ones cover the far ones. Each primitive is represented
+ * by one point, usually its center.
+ *
+ * The order is kept from one frame to the next. It is first repaired by an
+ * insertion sort, which is enough when the projection changed without
+ * rotation (zoom, translation) or very little, and otherwise sorted by a radix
+ * sort of the depths starting from the previous order. Both are stable, so
+ * primitives at the same depth keep their relative order between frames.
+ */
+public class DepthSorter {
+
+    // moves of the insertion sort per primitive, beyond which the radix sort is used
+    private final static int MAX_MOVES = 1;
+    // bits of the radix sort digits
+    private final static int RADIX = 11;
+    private PlotData centers;
+    private double[] center = new double[3];
+    private int version;
+    // primitives indexes, from the farthest to the nearest
+    private int[] order;
+    private int[] buffer;
+    private int[] count;
+    // depth of each primitive, as an int preserving the order of the float depths
+    private int[] keys;
+
+    /**
+     * @return the indexes of centers, from the farthest to the nearest. The
+     *         array is reused by the next calls and must not be modified.
+     */
+    public int[] sort(AbstractDrawer draw, double[][] centers) {
+        return sort(draw, PlotData.rows(centers));
+    }
+
+    /**
+     * @return the indexes of centers, from the farthest to the nearest. The
+     *         array is reused by the next calls and must not be modified.
+     */
+    public synchronized int[] sort(AbstractDrawer draw, PlotData centers) {
+        int _version = draw.getProjectionVersion();
+        boolean same = this.centers != null && centers.sameAs(this.centers);
+        if (order != null && same && _version == version) {
+            return order;
+        }
+        int n = centers.size();
+        if (keys == null || keys.length != n) {
+            keys = new int[n];
+        }
+        int d = n == 0 ? 0 : centers.dimension();
+        if (center.length != d) {
+            center = new double[d];
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                center[j] = centers.get(i, j);
+            }
+            keys[i] = key(draw.depth(center));
+        }
+        if (order == null || order.length != n || !same) {
+            order = new int[n];
+            buffer = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            radixSort();
+        } else if (!insertionSort(MAX_MOVES * (long) n)) {
+            radixSort();
+        }
+        this.centers = centers;
+        version = _version;
+        return order;
+    }
+
+    // unsigned int key, in the same order as the float depth
+    private static int key(double depth) {
+        int bits = Float.floatToIntBits((float) depth);
+        return bits < 0 ? ~bits : bits | 0x80000000;
+    }
+
+    private static boolean less(int a, int b) {
+        return (a ^ 0x80000000) < (b ^ 0x80000000);
+    }
+
+    // false if more than maxMoves were needed, leaving order unsorted
+    private boolean insertionSort(long maxMoves) {
+        long moves = 0;
+        for (int k = 1; k < order.length; k++) {
+            int i = order[k];
+            int l = k - 1;
+            while (l >= 0 && less(keys[i], keys[order[l]])) {
+                order[l + 1] = order[l];
+                l--;
+                if (++moves > maxMoves) {
+                    order[l + 1] = i;
+                    return false;
+                }
+            }
+            order[l + 1] = i;
+        }
+        return true;
+    }
+
+    // least significant digit first, each pass being stable
+    private void radixSort() {
+        int n = order.length;
+        if (count == null) {
+            count = new int[(1 << RADIX) + 1];
+        }
+        int mask = (1 << RADIX) - 1;
+        for (int shift = 0; shift < 32; shift += RADIX) {
+            java.util.Arrays.fill(count, 0);
+            for (int k = 0; k < n; k++) {
+                count[((keys[order[k]] >>> shift) & mask) + 1]++;
+            }
+            if (n == 0 || count[((keys[order[0]] >>> shift) & mask) + 1] == n) {
+                // same digit for all
+                continue;
+            }
+            for (int d = 0; d < mask + 1; d++) {
+                count[d + 1] += count[d];
+            }
+            for (int k = 0; k < n; k++) {
+                int i = order[k];
+                buffer[count[(keys[i] >>> shift) & mask]++] = i;
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+    }
+}
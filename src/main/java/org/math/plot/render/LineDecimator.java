@@ -0,0 +1,134 @@
+package org.math.plot.render;
+
+import java.util.Arrays;
+
+import org.math.plot.utils.FastMath;
+
+/**
+ * Pixel-aware decimation of polylines sorted along the screen x axis (M4
+ * algorithm) : for each screen column, only the first, last, lowest and
+ * highest points are kept, which draws exactly the same pixels as the full
+ * polyline. NaN points are kept, so gaps are preserved.
+ *
+ * If the projected points are not monotonic along the screen x axis (unsorted
+ * data, 3D projection), the polyline is returned unchanged.
+ *
+ * Instances hold no state between calls, so they can be used concurrently.
+ */
+public class LineDecimator {
+
+    /** decimation is skipped when there are fewer points than this ratio times the canvas width */
+    public static int MIN_POINTS_PER_COLUMN = 4;
+    // number of points projected at once
+    private final static int CHUNK = 4096;
+
+    /**
+     * @param draw
+     *            drawer whose projection defines the screen columns
+     * @param data
+     *            polyline vertices, sorted along the x axis
+     * @return the vertices to draw, or data itself if decimation is not useful
+     *         or not possible
+     */
+    public PlotData decimate(AbstractDrawer draw, PlotData data) {
+        if (data.size() <= MIN_POINTS_PER_COLUMN * FastMath.max(draw.canvas.getWidth(), 1)) {
+            return data;
+        }
+        return new Decimation(data).run(draw);
+    }
+
+    // state of one decimation
+    private static class Decimation {
+
+        private final PlotData data;
+        private final int dimension;
+        private final int[] sX = new int[CHUNK];
+        private final int[] sY = new int[CHUNK];
+        // indexes of the kept vertices
+        private int[] kept = new int[256];
+        private int nKept;
+        // current screen column state
+        private int first = -1, last, lowest, highest, lowestY, highestY;
+        private final int[] column = new int[4];
+
+        Decimation(PlotData _data) {
+            data = _data;
+            dimension = data.dimension();
+        }
+
+        PlotData run(AbstractDrawer draw) {
+            boolean hasColumn = false;
+            int currentX = 0;
+            int direction = 0;
+            int n = data.size();
+            for (int from = 0; from < n; from += CHUNK) {
+                int to = FastMath.min(from + CHUNK, n);
+                data.project(draw, from, to, sX, sY);
+                for (int i = from; i < to; i++) {
+                    if (data.isNaN(i, dimension)) {
+                        flush();
+                        if (nKept == 0 || !data.isNaN(kept[nKept - 1], dimension)) {
+                            keep(i);
+                        }
+                        continue;
+                    }
+                    int x = sX[i - from];
+                    int y = sY[i - from];
+                    if (first >= 0 && x == currentX) {
+                        last = i;
+                        if (y < lowestY) {
+                            lowestY = y;
+                            lowest = i;
+                        }
+                        if (y > highestY) {
+                            highestY = y;
+                            highest = i;
+                        }
+                        continue;
+                    }
+                    if (hasColumn && x != currentX) {
+                        int d = x > currentX ? 1 : -1;
+                        if (direction == 0) {
+                            direction = d;
+                        } else if (d != direction) {
+                            return data;
+                        }
+                    }
+                    flush();
+                    currentX = x;
+                    hasColumn = true;
+                    first = last = lowest = highest = i;
+                    lowestY = highestY = y;
+                }
+            }
+            flush();
+
+            return data.select(kept, nKept);
+        }
+
+        // keeps the points of the current column, in data order
+        private void flush() {
+            if (first < 0) {
+                return;
+            }
+            column[0] = first;
+            column[1] = lowest;
+            column[2] = highest;
+            column[3] = last;
+            Arrays.sort(column);
+            for (int k = 0; k < column.length; k++) {
+                if (k == 0 || column[k] != column[k - 1]) {
+                    keep(column[k]);
+                }
+            }
+            first = -1;
+        }
+
+        private void keep(int i) {
+            if (nKept == kept.length) {
+                kept = Arrays.copyOf(kept, 2 * kept.length);
+            }
+            kept[nKept++] = i;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.math.plot.render;
+
+/**
+ * Indexed geometry of a 3D plot : each vertex is stored once, and the faces
+ * (quadrilaterals) and edges refer to the vertices by index, so that drawing
+ * the mesh projects each vertex once per frame.
+ *
+ * Faces and edges are grouped in elements (a grid cell, a bar, a box), which
+ * are drawn from the farthest to the nearest : faces of element e are
+ * elementFaces[e] to elementFaces[e + 1] - 1, and the same for edges.
+ */
+public class Mesh {
+
+    // vertices[axis][v]
+    public final double[][] vertices;
+    // 4 vertex indexes per face
+    public final int[] faces;
+    public final int[] elementFaces;
+    // 2 vertex indexes per edge
+    public final int[] edges;
+    public final int[] elementEdges;
+    // one point per element, giving its depth
+    public final PlotData centers;
+    private final DepthSorter sorter = new DepthSorter();
+
+    public Mesh(double[][] vertices, int[] faces, int[] elementFaces, int[] edges, int[] elementEdges, PlotData centers) {
+        this.vertices = vertices;
+        this.faces = faces;
+        this.elementFaces = elementFaces;
+        this.edges = edges;
+        this.elementEdges = elementEdges;
+        this.centers = centers;
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int size() {
+        return vertices[0].length;
+    }
+
+    /**
+     * @return number of elements
+     */
+    public int elements() {
+        return centers.size();
+    }
+
+    /**
+     * @return the elements, from the farthest to the nearest
+     */
+    public int[] order(AbstractDrawer draw) {
+        return sorter.sort(draw, centers);
+    }
+
+    /**
+     * @return {min, max} of the vertices coordinates, NaN ignored
+     */
+    public double[][] bounds() {
+        return PlotData.columns(vertices).bounds();
+    }
+}
@@ -0,0 +1,278 @@
+package org.math.plot.render;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.math.plot.utils.Parallel;
+
+/**
+ * Points of a plot, read by the drawers without copy, either from rows (one
+ * array per point, as double[][] XY) or from columns (one array per axis).
+ * Columns avoid one heap object per point and can wrap the caller's arrays.
+ */
+public abstract class PlotData {
+
+    /** number of points above which bounds are computed in parallel */
+    public static int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * @return a view of the rows XY[i] (not copied)
+     */
+    public static PlotData rows(double[][] XY) {
+        return new Rows(XY);
+    }
+
+    /**
+     * @return a view of the columns (not copied), all of the same length
+     */
+    public static PlotData columns(double[]... columns) {
+        return new Columns(columns);
+    }
+
+    /**
+     * @return number of points
+     */
+    public abstract int size();
+
+    /**
+     * @return number of coordinates of each point
+     */
+    public abstract int dimension();
+
+    /**
+     * @return coordinate j of point i
+     */
+    public abstract double get(int i, int j);
+
+    /**
+     * @return coordinates of point i, which must not be modified
+     */
+    public abstract double[] getRow(int i);
+
+    /**
+     * @return the points as rows, which must not be modified
+     */
+    public abstract double[][] toRows();
+
+    /**
+     * @return true if the points are read in place from a mapped file, and
+     *         not copied by toRows()
+     */
+    public boolean isMapped() {
+        return false;
+    }
+
+    /**
+     * Projects points from to to-1 in the screen buffers, from index 0.
+     */
+    public abstract void project(AbstractDrawer draw, int from, int to, int[] sX, int[] sY);
+
+    /**
+     * @return the points of the given indexes, of the same storage as this
+     */
+    public abstract PlotData select(int[] indexes, int n);
+
+    /**
+     * @return about n points taken at regular intervals, of the same storage
+     *         as this, or this if it has no more than n points
+     */
+    public PlotData subsample(int n) {
+        int size = size();
+        if (size <= n) {
+            return this;
+        }
+        int step = (size + n - 1) / n;
+        int[] indexes = new int[(size + step - 1) / step];
+        for (int k = 0; k < indexes.length; k++) {
+            indexes[k] = k * step;
+        }
+        return select(indexes, indexes.length);
+    }
+
+    /**
+     * @return true if both views read the same arrays
+     */
+    public abstract boolean sameAs(PlotData d);
+
+    /**
+     * @return true if one of the first dimension coordinates of point i is NaN
+     */
+    public boolean isNaN(int i, int dimension) {
+        for (int j = 0; j < dimension; j++) {
+            if (Double.isNaN(get(i, j))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {min, max} of each coordinate, NaN ignored (NaN if all values
+     *         are), computed in parallel over ranges of points
+     */
+    public double[][] bounds() {
+        final int dimension = dimension();
+        List<double[][]> partials = Parallel.map(size(), Parallel.ranges(size(), PARALLEL_THRESHOLD), new Parallel.RangeTask<double[][]>() {
+
+            public double[][] compute(int from, int to) {
+                double[][] b = new double[2][dimension];
+                Arrays.fill(b[0], Double.NaN);
+                Arrays.fill(b[1], Double.NaN);
+                for (int i = from; i < to; i++) {
+                    for (int j = 0; j < dimension; j++) {
+                        include(b, j, get(i, j));
+                    }
+                }
+                return b;
+            }
+        });
+        double[][] b = partials.get(0);
+        for (int r = 1; r < partials.size(); r++) {
+            for (int j = 0; j < dimension; j++) {
+                include(b, j, partials.get(r)[0][j]);
+                include(b, j, partials.get(r)[1][j]);
+            }
+        }
+        return b;
+    }
+
+    private static void include(double[][] b, int j, double v) {
+        // comparisons are also true while b is NaN
+        if (!Double.isNaN(v)) {
+            if (!(v >= b[0][j])) {
+                b[0][j] = v;
+            }
+            if (!(v <= b[1][j])) {
+                b[1][j] = v;
+            }
+        }
+    }
+
+    private static class Rows extends PlotData {
+
+        final double[][] XY;
+
+        Rows(double[][] _XY) {
+            XY = _XY;
+        }
+
+        public int size() {
+            return XY.length;
+        }
+
+        public int dimension() {
+            return XY.length == 0 ? 0 : XY[0].length;
+        }
+
+        public double get(int i, int j) {
+            return XY[i][j];
+        }
+
+        public double[] getRow(int i) {
+            return XY[i];
+        }
+
+        public double[][] toRows() {
+            return XY;
+        }
+
+        public void project(AbstractDrawer draw, int from, int to, int[] sX, int[] sY) {
+            draw.project(XY, from, to, sX, sY);
+        }
+
+        public PlotData select(int[] indexes, int n) {
+            double[][] selected = new double[n][];
+            for (int k = 0; k < n; k++) {
+                selected[k] = XY[indexes[k]];
+            }
+            return new Rows(selected);
+        }
+
+        public boolean sameAs(PlotData d) {
+            return d instanceof Rows && ((Rows) d).XY == XY;
+        }
+
+        @Override
+        public boolean isNaN(int i, int dimension) {
+            double[] xy = XY[i];
+            for (int j = 0; j < dimension; j++) {
+                if (Double.isNaN(xy[j])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Columns extends PlotData {
+
+        final double[][] columns;
+        final int size;
+
+        Columns(double[][] _columns) {
+            columns = _columns;
+            size = columns.length == 0 ? 0 : columns[0].length;
+            for (int j = 1; j < columns.length; j++) {
+                if (columns[j].length != size) {
+                    throw new IllegalArgumentException("Column " + j + " has " + columns[j].length + " values instead of " + size);
+                }
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int dimension() {
+            return columns.length;
+        }
+
+        public double get(int i, int j) {
+            return columns[j][i];
+        }
+
+        public double[] getRow(int i) {
+            double[] row = new double[columns.length];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = columns[j][i];
+            }
+            return row;
+        }
+
+        public double[][] toRows() {
+            double[][] XY = new double[size][];
+            for (int i = 0; i < size; i++) {
+                XY[i] = getRow(i);
+            }
+            return XY;
+        }
+
+        public void project(AbstractDrawer draw, int from, int to, int[] sX, int[] sY) {
+            draw.projectColumns(columns, from, to, sX, sY);
+        }
+
+        public PlotData select(int[] indexes, int n) {
+            double[][] selected = new double[columns.length][n];
+            for (int j = 0; j < columns.length; j++) {
+                double[] c = columns[j];
+                double[] s = selected[j];
+                for (int k = 0; k < n; k++) {
+                    s[k] = c[indexes[k]];
+                }
+            }
+            return new Columns(selected);
+        }
+
+        public boolean sameAs(PlotData d) {
+            if (!(d instanceof Columns) || ((Columns) d).columns.length != columns.length) {
+                return false;
+            }
+            for (int j = 0; j < columns.length; j++) {
+                if (((Columns) d).columns[j] != columns[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
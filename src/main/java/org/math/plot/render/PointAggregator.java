@@ -0,0 +1,308 @@
+package org.math.plot.render;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.math.plot.utils.FastMath;
+import org.math.plot.utils.Parallel;
+
+/**
+ * Renders a large set of points as a density image : points are aggregated in
+ * a grid of the visible screen pixels (count, or mean, min or max of a value
+ * column per pixel), which is then colour-mapped with the plot colour.
+ * Aggregation is split over {@link Parallel} ranges, each filling its own
+ * partial grid, merged at the end.
+ *
+ * Points are aggregated over the whole canvas, so that the colour ramp does
+ * not depend on the clipped area (tiles, damaged areas), and the aggregates
+ * are kept until the canvas, its projection or the data change : other paints
+ * only colour-map them again if needed, and draw the clipped part. Partial
+ * grids are kept, softly, for the next aggregation and cleared in place.
+ */
+public class PointAggregator {
+
+    public final static int COUNT = 0;
+    public final static int MEAN = 1;
+    public final static int MIN = 2;
+    public final static int MAX = 3;
+    /** memory allowed for the partial grids of one parallel aggregation, in bytes */
+    public static long PARTIAL_GRIDS_MEMORY = 256L * 1024 * 1024;
+    // number of points projected at once
+    private final static int CHUNK = 4096;
+    private final static int MIN_POINTS_PER_RANGE = 65536;
+    private final static int MIN_CELLS_PER_RANGE = 65536;
+    public int mode = COUNT;
+    /** column of the data giving the value aggregated by MEAN, MIN and MAX modes */
+    public int valueColumn = -1;
+    /** alpha of the less dense (or lowest value) pixels */
+    public int minAlpha = 48;
+
+    public PointAggregator() {
+    }
+
+    public PointAggregator(int mode, int valueColumn) {
+        this.mode = mode;
+        this.valueColumn = valueColumn;
+    }
+
+    // partial grids of the previous aggregation, for the next one, until the garbage collector needs their memory
+    private final LinkedList<SoftReference<Grid>> idle = new LinkedList<SoftReference<Grid>>();
+    // aggregates of the whole canvas, and the state they were aggregated for
+    private Grid grid;
+    private Object gridCanvas;
+    private int gridProjection, gridData, gridWidth, gridHeight, gridMode, gridValueColumn;
+    private boolean gridDraft, gridValues;
+    // colour-mapped aggregates, and the colour they were mapped with
+    private BufferedImage image;
+    private int imageRGB, imageMinAlpha;
+
+    // per pixel aggregates, of at least the cells of the aggregated area
+    private static class Grid {
+
+        int[] count;
+        // sum, min or max of the values, depending on mode
+        double[] value;
+
+        Grid(int cells, boolean withValues) {
+            count = new int[cells];
+            if (withValues) {
+                value = new double[cells];
+            }
+        }
+
+    }
+
+    // a grid of the idle ones if large enough, or a new one, cleared for mode
+    private Grid acquire(int cells, boolean withValues) {
+        Grid g = null;
+        synchronized (idle) {
+            for (Iterator<SoftReference<Grid>> it = idle.iterator(); it.hasNext();) {
+                Grid i = it.next().get();
+                if (i == null) {
+                    it.remove();
+                } else if (i.count.length >= cells) {
+                    it.remove();
+                    g = i;
+                    break;
+                }
+            }
+        }
+        if (g == null) {
+            g = new Grid(cells, withValues);
+        } else {
+            Arrays.fill(g.count, 0, cells, 0);
+            if (withValues && (g.value == null || g.value.length < cells)) {
+                g.value = new double[g.count.length];
+            } else if (withValues && mode == MEAN) {
+                Arrays.fill(g.value, 0, cells, 0);
+            }
+        }
+        if (withValues && mode != MEAN) {
+            Arrays.fill(g.value, 0, cells, mode == MIN ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+        }
+        return g;
+    }
+
+    // keeps the grids of one aggregation, the previous ones being dropped
+    private void release(List<Grid> grids) {
+        synchronized (idle) {
+            for (Grid g : grids) {
+                idle.addFirst(new SoftReference<Grid>(g));
+            }
+            while (idle.size() > grids.size()) {
+                idle.removeLast();
+            }
+        }
+    }
+
+    private boolean useValues(PlotData data) {
+        return mode != COUNT && valueColumn >= 0 && data.dimension() > valueColumn;
+    }
+
+    /**
+     * Renders the points aggregated over the canvas, in the clipped area of
+     * the drawer's graphics.
+     * 
+     * @param version
+     *            version of the data, the aggregates being kept while it, the
+     *            canvas and its projection do not change
+     */
+    public void plot(AbstractDrawer draw, Color c, PlotData data, int version) {
+        int width = draw.canvas.getWidth();
+        int height = draw.canvas.getHeight();
+        Rectangle clip = draw.getGraphics2D().getClipBounds();
+        if (width <= 0 || height <= 0 || (clip != null && !clip.intersects(0, 0, width, height))) {
+            return;
+        }
+        draw.drawScreenImage(image(draw, c, data, version, width, height), 1f, 0, 0);
+    }
+
+    // tiles painting concurrently wait for the first one to aggregate
+    private synchronized BufferedImage image(AbstractDrawer draw, Color c, PlotData data, int version, int width, int height) {
+        boolean withValues = useValues(data);
+        int projection = draw.getProjectionVersion();
+        if (grid == null || gridCanvas != draw.canvas || gridProjection != projection || gridData != version || gridWidth != width || gridHeight != height
+                || gridDraft != draw.draft || gridMode != mode || gridValueColumn != valueColumn || gridValues != withValues) {
+            if (grid != null) {
+                release(Arrays.asList(grid));
+                grid = null;
+                image = null;
+            }
+            List<Grid> partials = aggregate(draw, data, 0, 0, width, height);
+            grid = partials.get(0);
+            release(partials.subList(1, partials.size()));
+            gridCanvas = draw.canvas;
+            gridProjection = projection;
+            gridData = version;
+            gridWidth = width;
+            gridHeight = height;
+            gridDraft = draw.draft;
+            gridMode = mode;
+            gridValueColumn = valueColumn;
+            gridValues = withValues;
+        }
+        if (image == null || imageRGB != c.getRGB() || imageMinAlpha != minAlpha) {
+            image = colorMap(grid, c, width, height, withValues);
+            imageRGB = c.getRGB();
+            imageMinAlpha = minAlpha;
+        }
+        return image;
+    }
+
+    // the first grid holds the aggregates of all the points
+    private List<Grid> aggregate(final AbstractDrawer draw, final PlotData data, final int left, final int top, final int width, final int height) {
+        final boolean withValues = useValues(data);
+        final int dimension = draw.canvas.base.dimension;
+        final int cells = width * height;
+        long gridBytes = (long) cells * (withValues ? 12 : 4);
+        int ranges = FastMath.min(Parallel.ranges(data.size(), MIN_POINTS_PER_RANGE), (int) FastMath.max(1, PARTIAL_GRIDS_MEMORY / gridBytes));
+
+        // projection coefficients are lazily updated : do it before copying the drawer for each range
+        draw.getProjectionVersion();
+        final boolean shared = ranges > 1;
+
+        List<Grid> partials = Parallel.map(data.size(), ranges, new Parallel.RangeTask<Grid>() {
+
+            public Grid compute(int from, int to) {
+                // projection buffers are not thread safe : concurrent ranges project with their own copy
+                AbstractDrawer d = shared ? draw.copy() : draw;
+                long projected = d.projected;
+                Grid g = acquire(cells, withValues);
+                int[] sX = new int[CHUNK];
+                int[] sY = new int[CHUNK];
+                for (int a = from; a < to; a += CHUNK) {
+                    int b = FastMath.min(a + CHUNK, to);
+                    data.project(d, a, b, sX, sY);
+                    for (int i = a; i < b; i++) {
+                        int x = sX[i - a] - left;
+                        int y = sY[i - a] - top;
+                        if (x < 0 || x >= width || y < 0 || y >= height || data.isNaN(i, dimension)) {
+                            continue;
+                        }
+                        int cell = y * width + x;
+                        if (withValues) {
+                            double v = data.get(i, valueColumn);
+                            if (Double.isNaN(v)) {
+                                continue;
+                            }
+                            accumulate(g, cell, v);
+                        }
+                        g.count[cell]++;
+                    }
+                }
+                if (shared) {
+                    synchronized (draw) {
+                        draw.projected += d.projected - projected;
+                    }
+                }
+                return g;
+            }
+        });
+
+        final Grid grid = partials.get(0);
+        if (partials.size() > 1) {
+            final List<Grid> others = partials.subList(1, partials.size());
+            Parallel.map(cells, Parallel.ranges(cells, MIN_CELLS_PER_RANGE), new Parallel.RangeTask<Object>() {
+
+                public Object compute(int from, int to) {
+                    for (Grid g : others) {
+                        for (int cell = from; cell < to; cell++) {
+                            if (g.count[cell] > 0) {
+                                grid.count[cell] += g.count[cell];
+                                if (withValues) {
+                                    accumulate(grid, cell, g.value[cell]);
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        return partials;
+    }
+
+    private void accumulate(Grid g, int cell, double v) {
+        switch (mode) {
+            case MEAN:
+                g.value[cell] += v;
+                break;
+            case MIN:
+                if (v < g.value[cell]) {
+                    g.value[cell] = v;
+                }
+                break;
+            case MAX:
+                if (v > g.value[cell]) {
+                    g.value[cell] = v;
+                }
+                break;
+        }
+    }
+
+    private BufferedImage colorMap(Grid grid, Color c, int width, int height, boolean withValues) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+        // range of the mapped quantity over non empty pixels
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int cell = 0; cell < pixels.length; cell++) {
+            if (grid.count[cell] > 0) {
+                double v = mappedValue(grid, cell, withValues);
+                min = FastMath.min(min, v);
+                max = FastMath.max(max, v);
+            }
+        }
+
+        int rgb = c.getRGB() & 0x00FFFFFF;
+        for (int cell = 0; cell < pixels.length; cell++) {
+            if (grid.count[cell] == 0) {
+                pixels[cell] = 0;
+                continue;
+            }
+            double t = max > min ? (mappedValue(grid, cell, withValues) - min) / (max - min) : 1;
+            int alpha = minAlpha + (int) (t * (255 - minAlpha));
+            pixels[cell] = (alpha << 24) | rgb;
+        }
+        return image;
+    }
+
+    // counts are log scaled, so that sparse regions remain visible
+    private double mappedValue(Grid grid, int cell, boolean withValues) {
+        if (!withValues) {
+            return FastMath.log(1 + grid.count[cell]);
+        }
+        if (mode == MEAN) {
+            return grid.value[cell] / grid.count[cell];
+        }
+        return grid.value[cell];
+    }
+}
@@ -6,7 +6,7 @@ package org.math.plot.render;
 import org.math.plot.plotObjects.*;
 import org.math.plot.utils.FastMath;
 
-public abstract class Projection {
+public abstract class Projection implements Cloneable {
 
     protected int[][] baseScreenCoords;
     public static double DEFAULT_BORDER = 0.15;
@@ -36,6 +36,152 @@ public abstract class Projection {
             baseScreenCoords[i][1] = (int) (draw.canvas.getHeight() * (.5 - (borderCoeff * ratio[1] / totalScreenRatio[1])));
         }
         //System.err.println("\n" + Array.toString(baseScreenCoords));
+        updateScreenCoefficients();
+    }
+
+    /**
+     * Returns a copy of this projection bound to another drawer, so that both
+     * can be used (and moved) independently.
+     */
+    public Projection copy(AWTDrawer _draw) {
+        Projection p;
+        try {
+            p = (Projection) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        p.draw = _draw;
+        p.columnsX = p.columnsY = p.columnsLog = null;
+        p.baseScreenCoords = new int[baseScreenCoords.length][];
+        for (int i = 0; i < baseScreenCoords.length; i++) {
+            p.baseScreenCoords[i] = baseScreenCoords[i].clone();
+        }
+        p.totalScreenRatio = totalScreenRatio.clone();
+        p.maxScreenRatio = maxScreenRatio.clone();
+        p.minScreenRatio = minScreenRatio.clone();
+        p.axisScreenX = axisScreenX.clone();
+        p.axisScreenY = axisScreenY.clone();
+        if (axisScaleKind != null) {
+            p.axisScaleKind = axisScaleKind.clone();
+            p.axisScaleOrigin = axisScaleOrigin.clone();
+            p.axisScaleRange = axisScaleRange.clone();
+        }
+        return p;
+    }
+
+    // ///////////////////////////////////////////
+    // ////// precomputed coefficients ///////////
+    // ///////////////////////////////////////////
+    protected final static int NO_SCALE = 0;
+    protected final static int LINEAR_SCALE = 1;
+    protected final static int LOG_SCALE = 2;
+    // screen origin and screen vector of each axis, updated when baseScreenCoords change
+    protected double screenOriginX, screenOriginY;
+    protected double[] axisScreenX, axisScreenY;
+    // per axis scale kind, origin and extent (in log space for log axes), updated when the base changes
+    protected int[] axisScaleKind;
+    protected double[] axisScaleOrigin, axisScaleRange;
+    // base coordinates the scale coefficients were computed for (Base allocates new coords on each change)
+    private double[][] coefficientsBaseCoords;
+    private String[] coefficientsAxesScales;
+    // incremented each time the coefficients change
+    protected int version;
+    // buffers of screenProjectionColumns, not shared with copies
+    private double[] columnsX, columnsY, columnsLog;
+
+    /**
+     * @return a counter incremented each time the plot to screen projection
+     *         changes (bounds, scales, zoom, translation or rotation)
+     */
+    public int getVersion() {
+        updateScaleCoefficients();
+        return version;
+    }
+
+    protected void updateScreenCoefficients() {
+        int d = draw.canvas.base.dimension;
+        if (axisScreenX == null || axisScreenX.length != d) {
+            axisScreenX = new double[d];
+            axisScreenY = new double[d];
+        }
+        screenOriginX = baseScreenCoords[0][0];
+        screenOriginY = baseScreenCoords[0][1];
+        for (int i = 0; i < d; i++) {
+            axisScreenX[i] = baseScreenCoords[i + 1][0] - baseScreenCoords[0][0];
+            axisScreenY[i] = baseScreenCoords[i + 1][1] - baseScreenCoords[0][1];
+        }
+        version++;
+    }
+
+    protected void updateScaleCoefficients() {
+        Base base = draw.canvas.base;
+        if (coefficientsBaseCoords == base.baseCoords && coefficientsAxesScales == base.axesScales && axisScaleKind != null) {
+            return;
+        }
+        int d = base.dimension;
+        if (axisScaleKind == null || axisScaleKind.length != d) {
+            axisScaleKind = new int[d];
+            axisScaleOrigin = new double[d];
+            axisScaleRange = new double[d];
+        }
+        for (int i = 0; i < d; i++) {
+            axisScaleKind[i] = NO_SCALE;
+            if (base.baseCoords == null) {
+                continue;
+            }
+            if (base.axesScales[i].equalsIgnoreCase(Base.LOGARITHM)) {
+                axisScaleKind[i] = LOG_SCALE;
+                axisScaleOrigin[i] = FastMath.log(base.baseCoords[0][i]);
+                axisScaleRange[i] = FastMath.log(base.baseCoords[i + 1][i]) - axisScaleOrigin[i];
+            } else if (base.axesScales[i].equalsIgnoreCase(Base.LINEAR) || base.axesScales[i].equalsIgnoreCase(Base.STRINGS)) {
+                if (base.baseCoords[i + 1] != null) {
+                    axisScaleKind[i] = LINEAR_SCALE;
+                    axisScaleOrigin[i] = base.baseCoords[0][i];
+                    axisScaleRange[i] = base.baseCoords[i + 1][i] - axisScaleOrigin[i];
+                }
+            }
+        }
+        coefficientsBaseCoords = base.baseCoords;
+        coefficientsAxesScales = base.axesScales;
+        version++;
+    }
+
+    protected double normedCoord(int i, double pCi) {
+        switch (axisScaleKind[i]) {
+            case LINEAR_SCALE:
+                return (pCi - axisScaleOrigin[i]) / axisScaleRange[i];
+            case LOG_SCALE:
+                return (FastMath.log(pCi) - axisScaleOrigin[i]) / axisScaleRange[i];
+            default:
+                return 0;
+        }
+    }
+
+    // screen shift induced by the drawer base and screen offsets
+    private double offsetX() {
+        double o = 0;
+        if (draw.base_offset != null) {
+            for (int i = 0; i < axisScreenX.length; i++) {
+                o += draw.base_offset[i] * axisScreenX[i];
+            }
+        }
+        if (draw.screen_offset != null) {
+            o += draw.screen_offset[0];
+        }
+        return o;
+    }
+
+    private double offsetY() {
+        double o = 0;
+        if (draw.base_offset != null) {
+            for (int i = 0; i < axisScreenY.length; i++) {
+                o += draw.base_offset[i] * axisScreenY[i];
+            }
+        }
+        if (draw.screen_offset != null) {
+            o += draw.screen_offset[1];
+        }
+        return o;
     }
 
     // ///////////////////////////////////////////
@@ -46,6 +192,7 @@ public abstract class Projection {
             baseScreenCoords[i][0] = baseScreenCoords[i][0] + screenTranslation[0];
             baseScreenCoords[i][1] = baseScreenCoords[i][1] + screenTranslation[1];
         }
+        updateScreenCoefficients();
     }
     // This stores the whole zooming ratio along all dilate calls.
     public double[] totalScreenRatio = new double[]{1, 1};
@@ -76,6 +223,7 @@ public abstract class Projection {
         // Update the zooming ratio history
         totalScreenRatio[0] = totalScreenRatio[0] * screenRatio[0];
         totalScreenRatio[1] = totalScreenRatio[1] * screenRatio[1];
+        updateScreenCoefficients();
     }
 
     // ///////////////////////////////////////////
@@ -83,37 +231,119 @@ public abstract class Projection {
     // ///////////////////////////////////////////
     public int[] screenProjection(double... pC) {
         // System.out.println("Projection.screenProjection("+Array.toString(pC)+")");
-        double[] sC = new double[2];
-        sC[0] = baseScreenCoords[0][0];
-        sC[1] = baseScreenCoords[0][1];
-        for (int i = 0; i < draw.canvas.base.dimension; i++) {
-            double normdist_pC_baseCoords = 0;
-            if (draw.canvas.base.axesScales[i].equalsIgnoreCase(Base.LOGARITHM)) {
-                normdist_pC_baseCoords = ((FastMath.log(pC[i]) - FastMath.log(draw.canvas.base.baseCoords[0][i])) / (FastMath.log(draw.canvas.base.baseCoords[i + 1][i]) - FastMath.log(draw.canvas.base.baseCoords[0][i])));
-            } else if (draw.canvas.base.axesScales[i].equalsIgnoreCase(Base.LINEAR) || draw.canvas.base.axesScales[i].equalsIgnoreCase(Base.STRINGS)) {
-                if(pC!=null && draw.canvas.base.baseCoords!=null && draw.canvas.base.baseCoords[i+1] != null)
-                    normdist_pC_baseCoords = ((pC[i] - draw.canvas.base.baseCoords[0][i]) / (draw.canvas.base.baseCoords[i + 1][i] - draw.canvas.base.baseCoords[0][i]));
+        int[] sC = new int[2];
+        screenProjection(pC, sC);
+        return sC;
+    }
+
+    /**
+     * Same as {@link #screenProjection(double...)}, but stores the result in
+     * the caller-supplied sC buffer instead of allocating a new one.
+     */
+    public void screenProjection(double[] pC, int[] sC) {
+        updateScaleCoefficients();
+        draw.projected++;
+        double sX = screenOriginX;
+        double sY = screenOriginY;
+        if (pC != null) {
+            for (int i = 0; i < axisScaleKind.length; i++) {
+                double normdist_pC_baseCoords = normedCoord(i, pC[i]);
+                sX += normdist_pC_baseCoords * axisScreenX[i];
+                sY += normdist_pC_baseCoords * axisScreenY[i];
             }
-            sC[0] += normdist_pC_baseCoords * (baseScreenCoords[i + 1][0] - baseScreenCoords[0][0]);
-            sC[1] += normdist_pC_baseCoords * (baseScreenCoords[i + 1][1] - baseScreenCoords[0][1]);
         }
+        double oX = offsetX();
+        double oY = offsetY();
+        sC[0] = (int) (sX + oX);
+        sC[1] = (int) (sY + oY);
+    }
 
-        if (draw.base_offset != null) {
-            for (int i = 0; i < draw.canvas.base.dimension; i++) {
-                sC[0] += draw.base_offset[i] * (baseScreenCoords[i + 1][0] - baseScreenCoords[0][0]);
-                sC[1] += draw.base_offset[i] * (baseScreenCoords[i + 1][1] - baseScreenCoords[0][1]);
+    /**
+     * Bulk version of {@link #screenProjection(double...)} : projects the rows
+     * pC[from] to pC[to-1] into the caller-supplied sX and sY buffers, starting
+     * at index 0 of the buffers.
+     */
+    public void screenProjection(double[][] pC, int from, int to, int[] sX, int[] sY) {
+        updateScaleCoefficients();
+        draw.projected += to - from;
+        double oX = offsetX();
+        double oY = offsetY();
+        int d = axisScaleKind.length;
+        for (int j = from; j < to; j++) {
+            double[] pCj = pC[j];
+            double x = screenOriginX;
+            double y = screenOriginY;
+            for (int i = 0; i < d; i++) {
+                double normdist_pC_baseCoords = normedCoord(i, pCj[i]);
+                x += normdist_pC_baseCoords * axisScreenX[i];
+                y += normdist_pC_baseCoords * axisScreenY[i];
             }
+            sX[j - from] = (int) (x + oX);
+            sY[j - from] = (int) (y + oY);
         }
+    }
 
-        if (draw.screen_offset != null) {
-            sC[0] += draw.screen_offset[0];
-            sC[1] += draw.screen_offset[1];
+    /**
+     * Columnar version of {@link #screenProjection(double[][], int, int, int[], int[])} :
+     * columns[i] holds the coordinates along axis i, and points from to to-1
+     * are projected into sX and sY, starting at index 0 of the buffers.
+     */
+    public void screenProjectionColumns(double[][] columns, int from, int to, int[] sX, int[] sY) {
+        updateScaleCoefficients();
+        draw.projected += to - from;
+        double oX = offsetX();
+        double oY = offsetY();
+        int n = to - from;
+        if (columnsX == null || columnsX.length < n) {
+            columnsX = new double[n];
+            columnsY = new double[n];
         }
+        double[] x = columnsX;
+        double[] y = columnsY;
+        for (int j = 0; j < n; j++) {
+            x[j] = screenOriginX;
+            y[j] = screenOriginY;
+        }
+        // one axis at a time, log axes taking the logarithms of their whole column at once
+        for (int i = 0; i < axisScaleKind.length; i++) {
+            double[] c = columns[i];
+            int start = from;
+            if (axisScaleKind[i] == LOG_SCALE) {
+                if (columnsLog == null || columnsLog.length < n) {
+                    columnsLog = new double[n];
+                }
+                FastMath.log(c, from, to, columnsLog, 0);
+                c = columnsLog;
+                start = 0;
+            } else if (axisScaleKind[i] != LINEAR_SCALE) {
+                continue;
+            }
+            double origin = axisScaleOrigin[i];
+            double range = axisScaleRange[i];
+            double ax = axisScreenX[i];
+            double ay = axisScreenY[i];
+            for (int j = 0; j < n; j++) {
+                double normdist_pC_baseCoords = (c[start + j] - origin) / range;
+                x[j] += normdist_pC_baseCoords * ax;
+                y[j] += normdist_pC_baseCoords * ay;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            sX[j] = (int) (x[j] + oX);
+            sY[j] = (int) (y[j] + oY);
+        }
+    }
 
-        return new int[]{(int) sC[0], (int) sC[1]};
+    /**
+     * @return the depth of pC along the viewing direction, increasing towards
+     *         the viewer, 0 if the projection has no depth
+     */
+    public double depth(double... pC) {
+        return 0;
     }
 
     public int[] screenProjectionBase(double... rC) {
+        draw.projected++;
         double[] sC = new double[2];
         sC[0] = baseScreenCoords[0][0];
         sC[1] = baseScreenCoords[0][1];
@@ -100,6 +100,15 @@ public class Projection3D extends Projection {
         return sC;
     }
 
+    /*
+     * The viewing direction is orthogonal to both screen axes of
+     * baseCoordsScreenProjectionRatio, in normed coordinates.
+     */
+    public double depth(double... pC) {
+        updateScaleCoefficients();
+        return cos_phi * (cos_theta * normedCoord(0, pC[0]) + sin_theta * normedCoord(1, pC[1])) + sin_phi * normedCoord(2, pC[2]);
+    }
+
     // TODO test efficiceny of an approximation of cos and sin fuctions.
     /*
      * private final static double _2PI = 2 * Math.PI;
@@ -0,0 +1,214 @@
+package org.math.plot.render;
+
+import java.awt.Rectangle;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.math.plot.canvas.PlotCanvas;
+
+/**
+ * Timings and counters of one paint of a {@link PlotCanvas}, for the frame and
+ * for each element drawn : grid, plots, layers, plotables, notes and overlay.
+ *
+ * Counters are points projected on screen, Java2D drawing calls and bytes
+ * allocated by the painting thread (0 if the JVM cannot measure it). An
+ * element includes the elements drawn inside it : a plot includes its layers.
+ * When the layers are rendered in tiles, each tile is measured by its own
+ * drawer and merged in the frame : an element then sums the times and
+ * counters of all the tiles, and can last longer than the frame.
+ */
+public class RenderStats {
+
+    public final static String GRID = "grid";
+    public final static String PLOT = "plot";
+    public final static String LAYER = "layer";
+    public final static String PLOTABLE = "plotable";
+    public final static String NOTE = "note";
+    public final static String OVERLAY = "overlay";
+
+    /**
+     * Receives the stats of each paint of a canvas, on the painting thread.
+     */
+    public interface Listener {
+
+        public void frameRendered(PlotCanvas canvas, RenderStats stats);
+    }
+
+    public static class Element {
+
+        // one of GRID, PLOT, LAYER, PLOTABLE, NOTE, OVERLAY
+        public String kind;
+        public String name;
+        public Object source;
+        public long nanos;
+        public long projected;
+        public long primitives;
+        public long allocated;
+
+        public String toString() {
+            return (name == null ? kind : kind + " " + name) + " : " + nanos / 1000 + " us, " + projected + " points, " + primitives + " calls, " + allocated + " bytes";
+        }
+    }
+
+    // System.currentTimeMillis() at the start of the frame
+    public long time;
+    public long nanos;
+    public long projected;
+    public long primitives;
+    public long allocated;
+    // true if the layers were reused from the retained image, without drawing anything
+    public boolean retained;
+    // if not null, only this area of the retained layers was drawn again
+    public Rectangle damage;
+    public boolean draft;
+    public int tiles = 1;
+    public final List<Element> elements = new ArrayList<Element>();
+    // nanoTime, projected, primitives and allocated at the start of the elements being drawn
+    private long[] marks = new long[4 * 8];
+    private int depth;
+
+    public RenderStats() {
+        time = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts measuring an element, to be closed by
+     * {@link #end(String, String, Object, AbstractDrawer)}. Elements can be
+     * nested.
+     */
+    public void begin(AbstractDrawer draw) {
+        if (4 * depth == marks.length) {
+            long[] m = new long[2 * marks.length];
+            System.arraycopy(marks, 0, m, 0, marks.length);
+            marks = m;
+        }
+        int k = 4 * depth++;
+        marks[k] = System.nanoTime();
+        marks[k + 1] = draw.projected;
+        marks[k + 2] = draw.primitives;
+        marks[k + 3] = allocatedBytes();
+    }
+
+    public void end(String kind, String name, Object source, AbstractDrawer draw) {
+        int k = 4 * --depth;
+        Element e = new Element();
+        e.kind = kind;
+        e.name = name;
+        e.source = source;
+        e.nanos = System.nanoTime() - marks[k];
+        e.projected = draw.projected - marks[k + 1];
+        e.primitives = draw.primitives - marks[k + 2];
+        e.allocated = allocatedBytes() - marks[k + 3];
+        elements.add(e);
+    }
+
+    /**
+     * Starts measuring the frame.
+     */
+    public void beginFrame(AbstractDrawer draw) {
+        depth = 0;
+        begin(draw);
+    }
+
+    /**
+     * Ends measuring the frame, adding counts of the merged tiles.
+     */
+    public void endFrame(AbstractDrawer draw) {
+        depth = 0;
+        nanos = System.nanoTime() - marks[0];
+        projected += draw.projected - marks[1];
+        primitives += draw.primitives - marks[2];
+        allocated += allocatedBytes() - marks[3];
+    }
+
+    /**
+     * Adds the counters of a tile, measured by its own drawer between
+     * {@link #beginFrame(AbstractDrawer)} and
+     * {@link #endFrame(AbstractDrawer)}. Its elements are summed with the
+     * elements of the same kind and source.
+     */
+    public void merge(RenderStats tile) {
+        projected += tile.projected;
+        primitives += tile.primitives;
+        allocated += tile.allocated;
+        HashMap<List<Object>, Element> merged = new HashMap<List<Object>, Element>();
+        for (Element e : elements) {
+            merged.put(Arrays.asList(e.kind, e.source), e);
+        }
+        for (Element t : tile.elements) {
+            List<Object> key = Arrays.asList(t.kind, t.source);
+            Element e = merged.get(key);
+            if (e == null) {
+                e = new Element();
+                e.kind = t.kind;
+                e.name = t.name;
+                e.source = t.source;
+                elements.add(e);
+                merged.put(key, e);
+            }
+            e.nanos += t.nanos;
+            e.projected += t.projected;
+            e.primitives += t.primitives;
+            e.allocated += t.allocated;
+        }
+    }
+
+    /**
+     * @return the element drawn the longest, not counting the frame itself,
+     *         or null if none was recorded
+     */
+    public Element slowest() {
+        Element slowest = null;
+        for (Element e : elements) {
+            if (slowest == null || e.nanos > slowest.nanos) {
+                slowest = e;
+            }
+        }
+        return slowest;
+    }
+
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("frame : ").append(nanos / 1000).append(" us, ").append(projected).append(" points, ").append(primitives).append(" calls, ").append(allocated).append(" bytes");
+        if (retained) {
+            s.append(", retained");
+        } else if (damage != null) {
+            s.append(", damage ").append(damage.width).append("x").append(damage.height);
+        }
+        if (draft) {
+            s.append(", draft");
+        }
+        for (Element e : elements) {
+            s.append("\n  ").append(e);
+        }
+        return s.toString();
+    }
+
+    private final static ThreadMXBean THREADS = allocationsBean();
+
+    private static ThreadMXBean allocationsBean() {
+        try {
+            ThreadMXBean b = ManagementFactory.getThreadMXBean();
+            if (b instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) b).isThreadAllocatedMemorySupported()) {
+                ((com.sun.management.ThreadMXBean) b).setThreadAllocatedMemoryEnabled(true);
+                return b;
+            }
+        } catch (LinkageError e) {
+            // not a HotSpot JVM
+        } catch (UnsupportedOperationException e) {
+        } catch (SecurityException e) {
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS == null) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,184 @@
+package org.math.plot.render;
+
+import java.util.Arrays;
+
+import org.math.plot.utils.FastMath;
+
+/**
+ * Screen space index of a set of points, answering picking queries around a
+ * screen position without projecting all the points. The points are bucketed
+ * in a grid of screen cells covering the canvas, so that a query only
+ * projects the points of the cells it overlaps.
+ *
+ * The index is rebuilt on the first query after the points, their data
+ * version, the projection (bounds, scales, zoom, translation, rotation) or the
+ * canvas size change. Changes made inside the arrays of the points are
+ * detected through the data version only.
+ */
+public class ScreenIndex {
+
+    // size of the grid cells, in pixels
+    private final static int CELL = 8;
+    // number of points projected at once
+    private final static int CHUNK = 4096;
+    private PlotData points;
+    private AbstractDrawer draw;
+    private int dataVersion, version, width, height;
+    // indexed screen area : [-margin, width + margin[ x [-margin, height + margin[
+    private int margin = -1;
+    private int columns, rows;
+    // indexes of the points of cell c are cellPoints[cellStart[c]] .. cellPoints[cellStart[c + 1] - 1], increasing
+    private int[] cellStart;
+    private int[] cellPoints;
+    // screen coordinates of the points of cellPoints
+    private int[] cellX;
+    private int[] cellY;
+
+    /**
+     * @param dataVersion
+     *            version of the points, incremented when they change in place
+     * @return the index of the point whose screen projection is the nearest to
+     *         (x, y), among the points closer than radius pixels along both
+     *         screen axes, or -1 if there is none
+     */
+    public synchronized int nearest(AbstractDrawer draw, PlotData points, int dataVersion, int x, int y, int radius) {
+        update(draw, points, dataVersion, radius);
+        int nearest = -1;
+        long nearestDistance = Long.MAX_VALUE;
+        int c0 = column(x - radius), c1 = column(x + radius);
+        int r0 = row(y - radius), r1 = row(y + radius);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellPoints[k];
+                    long dx = cellX[k] - x;
+                    long dy = cellY[k] - y;
+                    if (FastMath.abs(dx) >= radius || FastMath.abs(dy) >= radius) {
+                        continue;
+                    }
+                    long d = dx * dx + dy * dy;
+                    if (d < nearestDistance || (d == nearestDistance && i < nearest)) {
+                        nearestDistance = d;
+                        nearest = i;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @param dataVersion
+     *            version of the points, incremented when they change in place
+     * @return the indexes, in increasing order, of the points whose screen
+     *         projection is closer to (x, y) than radius pixels along both
+     *         screen axes
+     */
+    public synchronized int[] within(AbstractDrawer draw, PlotData points, int dataVersion, int x, int y, int radius) {
+        update(draw, points, dataVersion, radius);
+        int[] found = new int[16];
+        int n = 0;
+        int c0 = column(x - radius), c1 = column(x + radius);
+        int r0 = row(y - radius), r1 = row(y + radius);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellPoints[k];
+                    if (FastMath.abs(cellX[k] - x) < radius && FastMath.abs(cellY[k] - y) < radius) {
+                        if (n == found.length) {
+                            found = Arrays.copyOf(found, 2 * n);
+                        }
+                        found[n++] = i;
+                    }
+                }
+            }
+        }
+        found = Arrays.copyOf(found, n);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Drops the index, to be rebuilt by the next query.
+     */
+    public synchronized void invalidate() {
+        points = null;
+        cellStart = null;
+        cellPoints = null;
+        cellX = null;
+        cellY = null;
+    }
+
+    private int column(int x) {
+        return FastMath.max(0, FastMath.min(columns - 1, (x + margin) / CELL));
+    }
+
+    private int row(int y) {
+        return FastMath.max(0, FastMath.min(rows - 1, (y + margin) / CELL));
+    }
+
+    private void update(AbstractDrawer _draw, PlotData _points, int _dataVersion, int radius) {
+        int _version = _draw.getProjectionVersion();
+        int _width = _draw.canvas.getWidth();
+        int _height = _draw.canvas.getHeight();
+        if (points != null && _points.sameAs(points) && _dataVersion == dataVersion && _draw == draw && _version == version && _width == width && _height == height && radius <= margin) {
+            return;
+        }
+        points = _points;
+        dataVersion = _dataVersion;
+        draw = _draw;
+        version = _version;
+        width = _width;
+        height = _height;
+        margin = FastMath.max(radius, CELL);
+        build();
+    }
+
+    private void build() {
+        // x + margin and y + margin are >= 0 in the indexed area, so that divisions round down
+        columns = (width + 2 * margin) / CELL + 1;
+        rows = (height + 2 * margin) / CELL + 1;
+        int dimension = draw.canvas.base.dimension;
+
+        // points are projected twice : to count the points of each cell, then to place them
+        int n = points.size();
+        cellStart = new int[columns * rows + 1];
+        int[] next = null;
+        int[] sX = new int[CHUNK];
+        int[] sY = new int[CHUNK];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int from = 0; from < n; from += CHUNK) {
+                int to = FastMath.min(from + CHUNK, n);
+                points.project(draw, from, to, sX, sY);
+                for (int i = from; i < to; i++) {
+                    int x = sX[i - from] + margin;
+                    int y = sY[i - from] + margin;
+                    if (x < 0 || y < 0 || x >= columns * CELL || y >= rows * CELL || points.isNaN(i, dimension)) {
+                        continue;
+                    }
+                    int cell = (y / CELL) * columns + x / CELL;
+                    if (pass == 0) {
+                        cellStart[cell + 1]++;
+                    } else {
+                        int k = next[cell]++;
+                        cellPoints[k] = i;
+                        cellX[k] = sX[i - from];
+                        cellY[k] = sY[i - from];
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int c = 0; c < columns * rows; c++) {
+                    cellStart[c + 1] += cellStart[c];
+                }
+                int indexed = cellStart[columns * rows];
+                cellPoints = new int[indexed];
+                cellX = new int[indexed];
+                cellY = new int[indexed];
+                next = Arrays.copyOf(cellStart, columns * rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.math.plot.render;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.text.Bidi;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Texts laid out by a drawer, keyed on string, font, rendering context and
+ * angle, the least recently used being evicted first. Labels drawn at each
+ * paint are split in lines and measured once, and their lines drawn from
+ * their glyphs. Not thread safe : each drawer has its own.
+ */
+public class TextCache {
+
+    /** number of texts kept by each drawer */
+    public static int CAPACITY = 1024;
+
+    public static class Text {
+
+        public final String[] lines;
+        // glyphs of each line, or null where the line needs a text layout (bidirectional text)
+        private final GlyphVector[] glyphs;
+        private final TextLayout[] layouts;
+        // width of the whole label, and font size
+        public final double width;
+        public final double height;
+
+        Text(String label, Font font, FontRenderContext frc, double angle) {
+            lines = label.split("\n");
+            glyphs = new GlyphVector[lines.length];
+            layouts = new TextLayout[lines.length];
+            for (int i = 0; i < lines.length; i++) {
+                char[] chars = lines[i].toCharArray();
+                if (chars.length > 0 && Bidi.requiresBidi(chars, 0, chars.length)) {
+                    layouts[i] = new TextLayout(lines[i], font, frc);
+                } else {
+                    glyphs[i] = font.createGlyphVector(frc, chars);
+                }
+            }
+            width = font.getStringBounds(label, frc).getWidth();
+            height = font.getSize2D();
+        }
+
+        public void drawLine(Graphics2D g, int line, float x, float y) {
+            if (layouts[line] != null) {
+                layouts[line].draw(g, x, y);
+            } else {
+                g.drawGlyphVector(glyphs[line], x, y);
+            }
+        }
+    }
+
+    private static class Key {
+
+        String label;
+        Font font;
+        FontRenderContext frc;
+        double angle;
+        int hash;
+
+        Key set(String _label, Font _font, FontRenderContext _frc, double _angle) {
+            label = _label;
+            font = _font;
+            frc = _frc;
+            angle = _angle;
+            long a = Double.doubleToLongBits(angle);
+            hash = ((label.hashCode() * 31 + font.hashCode()) * 31 + frc.hashCode()) * 31 + (int) (a ^ (a >>> 32));
+            return this;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            Key k = (Key) o;
+            return hash == k.hash && angle == k.angle && label.equals(k.label) && font.equals(k.font) && frc.equals(k.frc);
+        }
+    }
+
+    private final Map<Key, Text> texts = new LinkedHashMap<Key, Text>(64, 0.75f, true) {
+
+        protected boolean removeEldestEntry(Map.Entry<Key, Text> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    // reused to look texts up without allocating
+    private final Key probe = new Key();
+
+    /**
+     * @return label laid out with font in frc, from the cache if it was laid
+     *         out recently
+     */
+    public Text get(String label, Font font, FontRenderContext frc, double angle) {
+        Text t = texts.get(probe.set(label, font, frc, angle));
+        if (t == null) {
+            t = new Text(label, font, frc, angle);
+            texts.put(new Key().set(label, font, frc, angle), t);
+        }
+        return t;
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    public void clear() {
+        texts.clear();
+    }
+}
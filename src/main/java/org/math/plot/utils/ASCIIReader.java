@@ -0,0 +1,376 @@
+package org.math.plot.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads ASCII data files (one row per line, values separated by blanks,
+ * commas or semicolons, optional first line of column names) into columns.
+ *
+ * Files are memory mapped and split in chunks on line boundaries. Chunks are
+ * read in two parallel passes : rows are counted, then parsed straight into
+ * the columns, without any String nor temporary object per value. Numbers are
+ * parsed as {@link Double#parseDouble(String)} does : exactly representable
+ * mantissas (below 2^53) with small exponents are computed in place, others
+ * are parsed from a String.
+ */
+public class ASCIIReader {
+
+    // bytes per chunk
+    private final static int CHUNK = 8 << 20;
+    private final static double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = 10 * POW10[i - 1];
+        }
+    }
+
+    /**
+     * @return the columns of file
+     */
+    public static double[][] readColumns(File file) throws IOException {
+        return readColumns(new File[]{file})[0];
+    }
+
+    /**
+     * Reads files concurrently, the chunks of all the files sharing the
+     * threads of {@link Parallel}.
+     *
+     * @return the columns of each file
+     */
+    public static double[][][] readColumns(File... files) throws IOException {
+        final List<Chunk> chunks = new ArrayList<Chunk>();
+        Source[] sources = new Source[files.length];
+        try {
+            for (int f = 0; f < files.length; f++) {
+                sources[f] = new Source(files[f]);
+                sources[f].split(chunks);
+            }
+
+            Parallel.map(chunks.size(), Parallel.ranges(chunks.size(), 1), new Parallel.RangeTask<Object>() {
+
+                public Object compute(int from, int to) {
+                    for (int c = from; c < to; c++) {
+                        chunks.get(c).count();
+                    }
+                    return null;
+                }
+            });
+            for (Source s : sources) {
+                s.allocate();
+            }
+            Parallel.map(chunks.size(), Parallel.ranges(chunks.size(), 1), new Parallel.RangeTask<Object>() {
+
+                public Object compute(int from, int to) {
+                    for (int c = from; c < to; c++) {
+                        chunks.get(c).parse();
+                    }
+                    return null;
+                }
+            });
+        } finally {
+            for (Source s : sources) {
+                if (s != null) {
+                    s.close();
+                }
+            }
+        }
+
+        double[][][] columns = new double[files.length][][];
+        for (int f = 0; f < files.length; f++) {
+            columns[f] = sources[f].columns;
+        }
+        return columns;
+    }
+
+    /**
+     * @return the rows of file
+     */
+    public static double[][] readDoubleArray(File file) throws IOException {
+        double[][] columns = readColumns(file);
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        double[][] XY = new double[rows][columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            for (int i = 0; i < rows; i++) {
+                XY[i][j] = columns[j][i];
+            }
+        }
+        return XY;
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == ' ' || c == '\t' || c == ',' || c == ';' || c == '\r';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // file being read, split in chunks
+    private static class Source {
+
+        final File file;
+        final RandomAccessFile raf;
+        final FileChannel channel;
+        final List<Chunk> chunks = new ArrayList<Chunk>();
+        int dimension;
+        double[][] columns;
+
+        Source(File _file) throws IOException {
+            file = _file;
+            raf = new RandomAccessFile(file, "r");
+            channel = raf.getChannel();
+        }
+
+        // splits the file after the column names line, if any, in chunks ending at line ends
+        void split(List<Chunk> all) throws IOException {
+            long size = channel.size();
+            long start = 0;
+            boolean first = true;
+            dimension = 0;
+            while (start < size && dimension == 0) {
+                long end = lineEnd(start);
+                ByteBuffer line = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                dimension = tokens(line, 0, line.limit());
+                if (dimension > 0 && first && !startsWithNumber(line)) {
+                    // column names
+                    dimension = 0;
+                }
+                if (dimension == 0) {
+                    first &= tokens(line, 0, line.limit()) == 0;
+                    start = end;
+                }
+            }
+
+            int n = (int) FastMath.max(1, (size - start + CHUNK - 1) / CHUNK);
+            for (int k = 0; k < n; k++) {
+                long end = k == n - 1 ? size : lineEnd(start + (size - start) / (n - k));
+                if (end > start) {
+                    Chunk c = new Chunk(this, channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                    chunks.add(c);
+                    all.add(c);
+                }
+                start = end;
+            }
+        }
+
+        // position after the end of the line containing position
+        long lineEnd(long position) throws IOException {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (position < size) {
+                buffer.clear();
+                int n = channel.read(buffer, position);
+                for (int i = 0; i < n; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += n;
+            }
+            return size;
+        }
+
+        boolean startsWithNumber(ByteBuffer line) {
+            int i = 0;
+            while (i < line.limit() && isSeparator(line.get(i))) {
+                i++;
+            }
+            StringBuilder token = new StringBuilder();
+            while (i < line.limit() && line.get(i) != '\n' && !isSeparator(line.get(i))) {
+                token.append((char) line.get(i++));
+            }
+            try {
+                Double.parseDouble(token.toString());
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        void allocate() {
+            int rows = 0;
+            for (Chunk c : chunks) {
+                c.firstRow = rows;
+                rows += c.rows;
+            }
+            columns = new double[dimension][rows];
+        }
+
+        void close() throws IOException {
+            raf.close();
+        }
+    }
+
+    // number of tokens of the line [from, to[
+    private static int tokens(ByteBuffer b, int from, int to) {
+        int n = 0;
+        boolean in = false;
+        for (int i = from; i < to; i++) {
+            int c = b.get(i);
+            if (c == '\n' || isSeparator(c)) {
+                in = false;
+            } else if (!in) {
+                in = true;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // lines of a file, [start, end[ of the mapped buffer
+    private static class Chunk {
+
+        final Source source;
+        final ByteBuffer buffer;
+        int rows;
+        int firstRow;
+
+        Chunk(Source _source, ByteBuffer _buffer) {
+            source = _source;
+            buffer = _buffer;
+        }
+
+        // counts non blank lines
+        void count() {
+            ByteBuffer b = buffer;
+            int n = b.limit();
+            boolean blank = true;
+            for (int i = 0; i < n; i++) {
+                int c = b.get(i);
+                if (c == '\n') {
+                    if (!blank) {
+                        rows++;
+                    }
+                    blank = true;
+                } else if (blank && !isSeparator(c)) {
+                    blank = false;
+                }
+            }
+            if (!blank) {
+                rows++;
+            }
+        }
+
+        void parse() {
+            ByteBuffer b = buffer;
+            double[][] columns = source.columns;
+            int dimension = columns.length;
+            int n = b.limit();
+            int row = firstRow;
+            int j = 0;
+            int i = 0;
+            while (i <= n) {
+                int c = i < n ? b.get(i) : '\n';
+                if (c == '\n') {
+                    if (j > 0 && j != dimension) {
+                        throw new NumberFormatException(source.file + " : " + j + " values instead of " + dimension + " in row " + row);
+                    }
+                    if (j > 0) {
+                        row++;
+                    }
+                    j = 0;
+                    i++;
+                } else if (isSeparator(c)) {
+                    i++;
+                } else {
+                    int end = i + 1;
+                    while (end < n && b.get(end) != '\n' && !isSeparator(b.get(end))) {
+                        end++;
+                    }
+                    if (j < dimension) {
+                        columns[j][row] = parseDouble(b, i, end);
+                    }
+                    j++;
+                    i = end;
+                }
+            }
+        }
+
+        // parses [from, to[, allocating only for numbers out of the fast path (NaN, mantissas of 2^53 or more, large exponents)
+        double parseDouble(ByteBuffer b, int from, int to) {
+            int i = from;
+            int c = b.get(i);
+            boolean negative = c == '-';
+            if (c == '-' || c == '+') {
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            boolean any = false;
+            boolean exact = true;
+            while (i < to && isDigit(c = b.get(i))) {
+                if (digits < 18) {
+                    mantissa = 10 * mantissa + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                } else {
+                    exact &= c == '0';
+                    exponent++;
+                }
+                any = true;
+                i++;
+            }
+            if (i < to && b.get(i) == '.') {
+                i++;
+                while (i < to && isDigit(c = b.get(i))) {
+                    if (digits < 18) {
+                        mantissa = 10 * mantissa + (c - '0');
+                        if (mantissa != 0) {
+                            digits++;
+                        }
+                        exponent--;
+                    } else {
+                        exact &= c == '0';
+                    }
+                    any = true;
+                    i++;
+                }
+            }
+            if (any && i < to && ((c = b.get(i)) == 'e' || c == 'E')) {
+                i++;
+                boolean negativeExponent = i < to && b.get(i) == '-';
+                if (i < to && (b.get(i) == '-' || b.get(i) == '+')) {
+                    i++;
+                }
+                int e = 0;
+                any = false;
+                while (i < to && isDigit(c = b.get(i))) {
+                    e = FastMath.min(10 * e + (c - '0'), 100000);
+                    any = true;
+                    i++;
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+            // a single correctly rounded operation on exact operands : the result is correctly rounded
+            if (!any || i != to || !exact || mantissa >= 1L << 53 || exponent < -22 || exponent > 22) {
+                return parseString(b, from, to);
+            }
+            double v = mantissa;
+            v = exponent < 0 ? v / POW10[-exponent] : v * POW10[exponent];
+            return negative ? -v : v;
+        }
+
+        double parseString(ByteBuffer b, int from, int to) {
+            char[] chars = new char[to - from];
+            for (int i = from; i < to; i++) {
+                chars[i - from] = (char) b.get(i);
+            }
+            String s = new String(chars);
+            try {
+                return Double.parseDouble(s);
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(source.file + " : invalid number '" + s + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package org.math.plot.utils;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.StringTokenizer;
+
+import org.math.plot.render.AbstractDrawer;
+import org.math.plot.render.PlotData;
+
+/**
+ * Binary columnar data file, memory mapped when opened so that the values are
+ * read by the plots straight from the file, without being parsed nor copied
+ * on the heap.
+ *
+ * Format, little endian :
+ * <pre>
+ * int    magic "JMPD"
+ * int    version
+ * int    dimension (number of columns)
+ * long   number of rows
+ * dimension x (int length, UTF-8 bytes) column names
+ * padding to a multiple of 8 bytes
+ * dimension x (rows x double) values, column after column
+ * </pre>
+ */
+public class ColumnFile {
+
+    public final static int MAGIC = 0x4A4D5044;
+    public final static int VERSION = 1;
+    // rows mapped per buffer, as a mapping is limited to 2^31 bytes
+    private final static int SEGMENT = 1 << 27;
+    // values buffered per column by the ASCII converter
+    private final static int CHUNK = 8192;
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+    private final static String SEPARATORS = " \t,;";
+    private final File file;
+    private final String[] names;
+    private final int rows;
+    private final Mapped data;
+
+    private ColumnFile(File _file, String[] _names, int _rows, Mapped _data) {
+        file = _file;
+        names = _names;
+        rows = _rows;
+        data = _data;
+    }
+
+    /**
+     * Maps file in memory. The mapping stays valid after the file is closed,
+     * so that no file handle is kept open.
+     */
+    public static ColumnFile open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < 20) {
+                throw new IOException(file + " is not a column file");
+            }
+            ByteBuffer header = read(channel, 0, 20);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a column file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int dimension = header.getInt();
+            long rows = header.getLong();
+            // each column has at least its name length in the file
+            if (dimension < 0 || dimension > (size - 20) / 4 || rows < 0 || rows > Integer.MAX_VALUE) {
+                throw new IOException(file + " has invalid size " + rows + " x " + dimension);
+            }
+            String[] names = new String[dimension];
+            long position = 20;
+            for (int j = 0; j < dimension; j++) {
+                if (position + 4 > size) {
+                    throw new IOException(file + " is truncated");
+                }
+                int length = read(channel, position, 4).getInt();
+                position += 4;
+                if (length < 0 || length > size - position) {
+                    throw new IOException(file + " has invalid length " + length + " of column name " + j);
+                }
+                names[j] = new String(read(channel, position, length).array(), UTF8);
+                position += length;
+            }
+            long offset = pad(position);
+            if (offset + 8 * rows * dimension > channel.size()) {
+                throw new IOException(file + " is truncated");
+            }
+
+            DoubleBuffer[][] columns = new DoubleBuffer[dimension][(int) ((rows + SEGMENT - 1) / SEGMENT)];
+            for (int j = 0; j < dimension; j++) {
+                for (int s = 0; s < columns[j].length; s++) {
+                    long first = (long) s * SEGMENT;
+                    long length = FastMath.min(SEGMENT, rows - first);
+                    columns[j][s] = channel.map(FileChannel.MapMode.READ_ONLY, offset + 8 * (rows * j + first), 8 * length).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                }
+            }
+            return new ColumnFile(file, names, (int) rows, new Mapped(columns, (int) rows));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @return true if file starts as a column file
+     */
+    public static boolean isColumnFile(File file) throws IOException {
+        if (!file.isFile() || file.length() < 4) {
+            return false;
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            byte[] magic = new byte[4];
+            return in.read(magic) == 4 && ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes columns, all of the same length.
+     *
+     * @param names
+     *            names of the columns, or null for default names
+     */
+    public static void write(File file, String[] names, double[]... columns) throws IOException {
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        for (int j = 1; j < columns.length; j++) {
+            if (columns[j].length != rows) {
+                throw new IllegalArgumentException("Column " + j + " has " + columns[j].length + " values instead of " + rows);
+            }
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            raf.setLength(0);
+            long offset = writeHeader(channel, names(names, columns.length), rows);
+            ByteBuffer buffer = ByteBuffer.allocate(8 * CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            for (int j = 0; j < columns.length; j++) {
+                for (int from = 0; from < rows; from += CHUNK) {
+                    int to = FastMath.min(from + CHUNK, rows);
+                    buffer.clear();
+                    buffer.asDoubleBuffer().put(columns[j], from, to - from);
+                    buffer.limit(8 * (to - from));
+                    offset += writeFully(channel, buffer, offset);
+                }
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Converts an ASCII file (one row per line, values separated by blanks,
+     * commas or semicolons, optional first line of column names) to a column
+     * file. The ASCII file is read twice, to count the rows then to write the
+     * columns, so that memory use does not depend on its size.
+     */
+    public static void convert(File ascii, File binary) throws IOException {
+        String[] names = null;
+        int dimension = -1;
+        int rows = 0;
+        BufferedReader in = new BufferedReader(new FileReader(ascii));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = tokens(line);
+                if (tokens.length == 0) {
+                    continue;
+                }
+                if (dimension < 0) {
+                    dimension = tokens.length;
+                    if (!isNumber(tokens[0])) {
+                        names = tokens;
+                        continue;
+                    }
+                } else if (tokens.length != dimension) {
+                    throw new IOException(ascii + " : " + tokens.length + " values instead of " + dimension + " in row " + rows);
+                }
+                rows++;
+            }
+        } finally {
+            in.close();
+        }
+        dimension = FastMath.max(dimension, 0);
+
+        RandomAccessFile raf = new RandomAccessFile(binary, "rw");
+        in = new BufferedReader(new FileReader(ascii));
+        try {
+            FileChannel channel = raf.getChannel();
+            raf.setLength(0);
+            long offset = writeHeader(channel, names(names, dimension), rows);
+            double[][] chunk = new double[dimension][CHUNK];
+            ByteBuffer buffer = ByteBuffer.allocate(8 * CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            boolean header = names != null;
+            int i = 0;
+            int n = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = tokens(line);
+                if (tokens.length == 0) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                for (int j = 0; j < dimension; j++) {
+                    chunk[j][n] = Double.parseDouble(tokens[j]);
+                }
+                if (++n == CHUNK) {
+                    writeChunk(channel, buffer, chunk, n, offset, rows, i);
+                    i += n;
+                    n = 0;
+                }
+            }
+            writeChunk(channel, buffer, chunk, n, offset, rows, i);
+        } finally {
+            in.close();
+            raf.close();
+        }
+    }
+
+    // writes rows i to i+n-1 of each column
+    private static void writeChunk(FileChannel channel, ByteBuffer buffer, double[][] chunk, int n, long offset, int rows, int i) throws IOException {
+        for (int j = 0; j < chunk.length; j++) {
+            buffer.clear();
+            buffer.asDoubleBuffer().put(chunk[j], 0, n);
+            buffer.limit(8 * n);
+            writeFully(channel, buffer, offset + 8 * ((long) rows * j + i));
+        }
+    }
+
+    private static long writeHeader(FileChannel channel, String[] names, int rows) throws IOException {
+        int size = 20;
+        byte[][] bytes = new byte[names.length][];
+        for (int j = 0; j < names.length; j++) {
+            bytes[j] = names[j].getBytes(UTF8);
+            size += 4 + bytes[j].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate((int) pad(size)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(names.length).putLong(rows);
+        for (int j = 0; j < names.length; j++) {
+            header.putInt(bytes[j].length).put(bytes[j]);
+        }
+        header.clear();
+        return writeFully(channel, header, 0);
+    }
+
+    // reads n bytes from position, which must be in the file
+    private static ByteBuffer read(FileChannel channel, long position, int n) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(n).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static long pad(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static String[] names(String[] names, int dimension) {
+        if (names != null) {
+            return names;
+        }
+        String[] n = new String[dimension];
+        for (int j = 0; j < dimension; j++) {
+            n[j] = j < 3 ? String.valueOf((char) ('X' + j)) : "C" + j;
+        }
+        return n;
+    }
+
+    private static String[] tokens(String line) {
+        StringTokenizer st = new StringTokenizer(line, SEPARATORS);
+        String[] tokens = new String[st.countTokens()];
+        for (int j = 0; j < tokens.length; j++) {
+            tokens[j] = st.nextToken();
+        }
+        return tokens;
+    }
+
+    private static boolean isNumber(String token) {
+        try {
+            Double.parseDouble(token);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+
+    public int getDimension() {
+        return names.length;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the mapped columns, read by plots without copy
+     */
+    public PlotData getData() {
+        return data;
+    }
+
+    /**
+     * @return a heap copy of column j
+     */
+    public double[] getColumn(int j) {
+        double[] column = new double[rows];
+        data.get(j, 0, rows, column, 0);
+        return column;
+    }
+
+    /**
+     * @return a heap copy of the rows
+     */
+    public double[][] getRows(int from, int to) {
+        double[][] XY = new double[to - from][];
+        for (int i = from; i < to; i++) {
+            XY[i - from] = data.getRow(i);
+        }
+        return XY;
+    }
+
+    // columns split in mapped segments of SEGMENT rows
+    private static class Mapped extends PlotData {
+
+        // number of points projected at once
+        private final static int CHUNK = 4096;
+        final DoubleBuffer[][] columns;
+        final int size;
+
+        Mapped(DoubleBuffer[][] _columns, int _size) {
+            columns = _columns;
+            size = _size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int dimension() {
+            return columns.length;
+        }
+
+        public double get(int i, int j) {
+            return columns[j][i / SEGMENT].get(i % SEGMENT);
+        }
+
+        // copies values from to to-1 of column j to dest, from offset
+        void get(int j, int from, int to, double[] dest, int offset) {
+            while (from < to) {
+                // absolute bulk get : a duplicate keeps the shared buffer position untouched
+                DoubleBuffer segment = columns[j][from / SEGMENT].duplicate();
+                int start = from % SEGMENT;
+                int n = FastMath.min(to - from, segment.limit() - start);
+                segment.position(start);
+                segment.get(dest, offset, n);
+                from += n;
+                offset += n;
+            }
+        }
+
+        public double[] getRow(int i) {
+            double[] row = new double[columns.length];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = get(i, j);
+            }
+            return row;
+        }
+
+        public boolean isMapped() {
+            return true;
+        }
+
+        // mapped columns are read in place : an explicit heap copy is made by ColumnFile.getRows()
+        public double[][] toRows() {
+            throw new UnsupportedOperationException("Mapped columns are not copied to rows, use ColumnFile.getRows()");
+        }
+
+        public void project(AbstractDrawer draw, int from, int to, int[] sX, int[] sY) {
+            int n = FastMath.min(to - from, CHUNK);
+            double[][] chunk = new double[columns.length][n];
+            int[] cX = to - from > CHUNK ? new int[CHUNK] : sX;
+            int[] cY = to - from > CHUNK ? new int[CHUNK] : sY;
+            for (int f = from; f < to; f += CHUNK) {
+                int t = FastMath.min(f + CHUNK, to);
+                for (int j = 0; j < columns.length; j++) {
+                    get(j, f, t, chunk[j], 0);
+                }
+                draw.projectColumns(chunk, 0, t - f, cX, cY);
+                if (cX != sX) {
+                    System.arraycopy(cX, 0, sX, f - from, t - f);
+                    System.arraycopy(cY, 0, sY, f - from, t - f);
+                }
+            }
+        }
+
+        public PlotData select(int[] indexes, int n) {
+            double[][] selected = new double[columns.length][n];
+            for (int j = 0; j < columns.length; j++) {
+                for (int k = 0; k < n; k++) {
+                    selected[j][k] = get(indexes[k], j);
+                }
+            }
+            return PlotData.columns(selected);
+        }
+
+        public boolean sameAs(PlotData d) {
+            return d == this;
+        }
+    }
+}
@@ -43,7 +43,17 @@ package org.math.plot.utils;
  * Non-redefined methods of java.lang.Math class are also available,
  * for easy replacement.
  * 
- * Use of look-up tables: around 1 Mo total, and initialized on class load.
+ * Use of look-up tables: a few hundred Ko total, each family of functions
+ * (sin and cos, tan, asin, atan, exp, log, sqrt, cbrt) allocating and filling
+ * its own tables on first use only.
+ * 
+ * Each family has a backend: these look-up tables, StrictMath, or Math
+ * (which the JIT usually replaces by processor instructions). It is Math
+ * unless set by a property, so that results do not depend on the machine.
+ * The auto backend is chosen on the first use of the family, by timing the
+ * three of them once warmed up, and keeping the fastest, the tables only if
+ * clearly faster since they are less accurate. Quick and Fast methods always
+ * use the tables.
  * 
  * - Methods with same signature than Math ones, are meant to return
  *   "good" approximations on all range.
@@ -54,6 +64,23 @@ package org.math.plot.utils;
  * 
  * Properties:
  * 
+ * - org.math.plot.fastmath.backend (tables, strictmath, math or auto, default is math):
+ *   Backend of all the families, auto meaning calibrated on first use,
+ *   which can choose differently from one run to another.
+ *   
+ * - org.math.plot.fastmath.<family>.backend (same values):
+ *   Backend of one family (sincos, tan, asin, atan, exp, log, sqrt or cbrt).
+ *   
+ * - org.math.plot.fastmath.<family>.bits (integer in [4,20]):
+ *   Power of two of the size of the family's look-up tables (asinpow for the
+ *   second tables of asin), default is 11 for sincos and exp, 13 for asin,
+ *   and 12 for the others. Larger tables are more accurate, and slower to fill.
+ * 
+ * - org.math.plot.fastmath.parallel (integer, default is 65536):
+ *   Number of values above which array treatments are split in parallel ranges.
+ * 
+ * The following properties are not read, but set as constants in this class:
+ * 
  * - jodk.fastmath.strict (boolean, default is true):
  *   If true, non-redefined Math methods which results could vary between Math and StrictMath,
  *   delegate to StrictMath, and if false, to Math.
@@ -143,6 +170,15 @@ public class IntWrapper {
         return Integer.toString(this.value);
     }
 }
+
+/**
+ * Implementation of a family of functions: look-up tables of this class,
+ * java.lang.StrictMath, or java.lang.Math (usually intrinsified by the JIT).
+ */
+public enum Backend {
+    TABLES, STRICT_MATH, MATH
+}
+
     //--------------------------------------------------------------------------
     // CONFIGURATION
     //--------------------------------------------------------------------------
@@ -161,6 +197,74 @@ public class IntWrapper {
     // Set it to true if FastMath.sqrt(double) is slow (more tables, but less calls to FastMath.sqrt(double)).
     private static final boolean USE_POWTABS_FOR_ASIN = true;
 
+    private static final String PROPERTY_PREFIX = "org.math.plot.fastmath.";
+
+    // Bounds of the look-up tables size powers set by properties.
+    private static final int MIN_TAB_SIZE_POWER = 4;
+    private static final int MAX_TAB_SIZE_POWER = 20;
+
+    // Families of functions sharing a backend, and the property names of their backend and tables size.
+    private static final int SIN_COS = 0;
+    private static final int TAN = 1;
+    private static final int ASIN = 2;
+    private static final int ATAN = 3;
+    private static final int EXP = 4;
+    private static final int LOG = 5;
+    private static final int SQRT = 6;
+    private static final int CBRT = 7;
+    private static final String[] FAMILIES = {"sincos", "tan", "asin", "atan", "exp", "log", "sqrt", "cbrt"};
+
+    // Calls timed per round for each backend, and rounds, when calibrating a family.
+    private static final int CALIBRATION_ARGS = 64;
+    private static final int CALIBRATION_ROUNDS = 16;
+
+    // Untimed rounds of each backend before calibrating, for the JIT to compile them.
+    private static final int CALIBRATION_WARMUP_ROUNDS = 512;
+
+    // Look-up tables, less accurate than the JDK, are only chosen if faster by this factor.
+    private static final double CALIBRATION_TABLES_GAIN = 0.9;
+
+    // Result of the calibration calls, so that they cannot be optimized away.
+    private static double calibrationSum;
+
+    /*
+     * Backends of the families, in holder classes so that each family is
+     * calibrated on its first use only, and so that the JIT can fold
+     * the backend tests of the hot methods.
+     */
+
+    private static final class SinCosBackend {
+        static final Backend BACKEND = chooseBackend(SIN_COS);
+    }
+
+    private static final class TanBackend {
+        static final Backend BACKEND = chooseBackend(TAN);
+    }
+
+    private static final class AsinBackend {
+        static final Backend BACKEND = chooseBackend(ASIN);
+    }
+
+    private static final class AtanBackend {
+        static final Backend BACKEND = chooseBackend(ATAN);
+    }
+
+    private static final class ExpBackend {
+        static final Backend BACKEND = chooseBackend(EXP);
+    }
+
+    private static final class LogBackend {
+        static final Backend BACKEND = chooseBackend(LOG);
+    }
+
+    private static final class SqrtBackend {
+        static final Backend BACKEND = chooseBackend(SQRT);
+    }
+
+    private static final class CbrtBackend {
+        static final Backend BACKEND = chooseBackend(CBRT);
+    }
+
     //--------------------------------------------------------------------------
     // GENERAL CONSTANTS
     //--------------------------------------------------------------------------
@@ -269,12 +373,10 @@ public class IntWrapper {
     // CONSTANTS AND TABLES FOR COS, SIN
     //--------------------------------------------------------------------------
 
-    private static final int SIN_COS_TABS_SIZE = (1<<getTabSizePower(11)) + 1;
+    private static final int SIN_COS_TABS_SIZE = (1<<getTabSizePower(FAMILIES[SIN_COS],11)) + 1;
     private static final double SIN_COS_DELTA_HI = TWOPI_HI/(SIN_COS_TABS_SIZE-1);
     private static final double SIN_COS_DELTA_LO = TWOPI_LO/(SIN_COS_TABS_SIZE-1);
     private static final double SIN_COS_INDEXER = 1/(SIN_COS_DELTA_HI+SIN_COS_DELTA_LO);
-    private static final double[] sinTab = new double[SIN_COS_TABS_SIZE];
-    private static final double[] cosTab = new double[SIN_COS_TABS_SIZE];
 
     // Max abs value for fast modulo, above which we use regular angle normalization.
     // This value must be < (Integer.MAX_VALUE / SIN_COS_INDEXER), to stay in range of int type.
@@ -293,7 +395,7 @@ public class IntWrapper {
 
     // We use indexing past look-up tables, so that indexing information
     // allows for fast recomputation of angle in [0,PI/2] range.
-    private static final int TAN_VIRTUAL_TABS_SIZE = (1<<getTabSizePower(12)) + 1;
+    private static final int TAN_VIRTUAL_TABS_SIZE = (1<<getTabSizePower(FAMILIES[TAN],12)) + 1;
 
     // Must be >= 45deg, and supposed to be >= 51.4deg, as fdlibm code is not
     // supposed to work with values inferior to that (51.4deg is about
@@ -304,11 +406,6 @@ public class IntWrapper {
     private static final double TAN_DELTA_HI = PIO2_HI/(TAN_VIRTUAL_TABS_SIZE-1);
     private static final double TAN_DELTA_LO = PIO2_LO/(TAN_VIRTUAL_TABS_SIZE-1);
     private static final double TAN_INDEXER = 1/(TAN_DELTA_HI+TAN_DELTA_LO);
-    private static final double[] tanTab = new double[TAN_TABS_SIZE];
-    private static final double[] tanDer1DivF1Tab = new double[TAN_TABS_SIZE];
-    private static final double[] tanDer2DivF2Tab = new double[TAN_TABS_SIZE];
-    private static final double[] tanDer3DivF3Tab = new double[TAN_TABS_SIZE];
-    private static final double[] tanDer4DivF4Tab = new double[TAN_TABS_SIZE];
 
     // Max abs value for fast modulo, above which we use regular angle normalization.
     // This value must be < (Integer.MAX_VALUE / TAN_INDEXER), to stay in range of int type.
@@ -330,27 +427,16 @@ public class IntWrapper {
     // but seems to work well enough as long as value >= sin(25deg).
     private static final double ASIN_MAX_VALUE_FOR_TABS = StrictMath.sin(Math.toRadians(73.0));
 
-    private static final int ASIN_TABS_SIZE = (1<<getTabSizePower(13)) + 1;
+    private static final int ASIN_TABS_SIZE = (1<<getTabSizePower(FAMILIES[ASIN],13)) + 1;
     private static final double ASIN_DELTA = ASIN_MAX_VALUE_FOR_TABS/(ASIN_TABS_SIZE - 1);
     private static final double ASIN_INDEXER = 1/ASIN_DELTA;
-    private static final double[] asinTab = new double[ASIN_TABS_SIZE];
-    private static final double[] asinDer1DivF1Tab = new double[ASIN_TABS_SIZE];
-    private static final double[] asinDer2DivF2Tab = new double[ASIN_TABS_SIZE];
-    private static final double[] asinDer3DivF3Tab = new double[ASIN_TABS_SIZE];
-    private static final double[] asinDer4DivF4Tab = new double[ASIN_TABS_SIZE];
 
     private static final double ASIN_MAX_VALUE_FOR_POWTABS = StrictMath.sin(Math.toRadians(88.6));
     private static final int ASIN_POWTABS_POWER = 84;
 
     private static final double ASIN_POWTABS_ONE_DIV_MAX_VALUE = 1/ASIN_MAX_VALUE_FOR_POWTABS;
-    private static final int ASIN_POWTABS_SIZE = USE_POWTABS_FOR_ASIN ? (1<<getTabSizePower(12)) + 1 : 0;
+    private static final int ASIN_POWTABS_SIZE = USE_POWTABS_FOR_ASIN ? (1<<getTabSizePower("asinpow",12)) + 1 : 0;
     private static final int ASIN_POWTABS_SIZE_MINUS_ONE = ASIN_POWTABS_SIZE - 1;
-    private static final double[] asinParamPowTab = new double[ASIN_POWTABS_SIZE];
-    private static final double[] asinPowTab = new double[ASIN_POWTABS_SIZE];
-    private static final double[] asinDer1DivF1PowTab = new double[ASIN_POWTABS_SIZE];
-    private static final double[] asinDer2DivF2PowTab = new double[ASIN_POWTABS_SIZE];
-    private static final double[] asinDer3DivF3PowTab = new double[ASIN_POWTABS_SIZE];
-    private static final double[] asinDer4DivF4PowTab = new double[ASIN_POWTABS_SIZE];
 
     private static final double ASIN_PIO2_HI = Double.longBitsToDouble(0x3FF921FB54442D18L); // 1.57079632679489655800e+00
     private static final double ASIN_PIO2_LO = Double.longBitsToDouble(0x3C91A62633145C07L); // 6.12323399573676603587e-17
@@ -377,14 +463,9 @@ public class IntWrapper {
     // Supposed to be >= tan(67.7deg), as fdlibm code is supposed to work with values > 2.4375.
     private static final double ATAN_MAX_VALUE_FOR_TABS = StrictMath.tan(Math.toRadians(74.0));
 
-    private static final int ATAN_TABS_SIZE = (1<<getTabSizePower(12)) + 1;
+    private static final int ATAN_TABS_SIZE = (1<<getTabSizePower(FAMILIES[ATAN],12)) + 1;
     private static final double ATAN_DELTA = ATAN_MAX_VALUE_FOR_TABS/(ATAN_TABS_SIZE - 1);
     private static final double ATAN_INDEXER = 1/ATAN_DELTA;
-    private static final double[] atanTab = new double[ATAN_TABS_SIZE];
-    private static final double[] atanDer1DivF1Tab = new double[ATAN_TABS_SIZE];
-    private static final double[] atanDer2DivF2Tab = new double[ATAN_TABS_SIZE];
-    private static final double[] atanDer3DivF3Tab = new double[ATAN_TABS_SIZE];
-    private static final double[] atanDer4DivF4Tab = new double[ATAN_TABS_SIZE];
 
     private static final double ATAN_HI3 = Double.longBitsToDouble(0x3ff921fb54442d18L); // 1.57079632679489655800e+00 atan(inf)hi
     private static final double ATAN_LO3 = Double.longBitsToDouble(0x3c91a62633145c07L); // 6.12323399573676603587e-17 atan(inf)lo
@@ -409,15 +490,11 @@ public class IntWrapper {
     private static final double EXP_MIN_INT_LIMIT = -705;
     private static final int EXP_LO_DISTANCE_TO_ZERO_POT = 0;
     private static final int EXP_LO_DISTANCE_TO_ZERO = (1<<EXP_LO_DISTANCE_TO_ZERO_POT);
-    private static final int EXP_LO_TAB_SIZE_POT = getTabSizePower(11);
+    private static final int EXP_LO_TAB_SIZE_POT = getTabSizePower(FAMILIES[EXP],11);
     private static final int EXP_LO_TAB_SIZE = (1<<EXP_LO_TAB_SIZE_POT)+1;
     private static final int EXP_LO_TAB_MID_INDEX = ((EXP_LO_TAB_SIZE-1)/2);
     private static final int EXP_LO_INDEXING = EXP_LO_TAB_MID_INDEX/EXP_LO_DISTANCE_TO_ZERO;
     private static final int EXP_LO_INDEXING_DIV_SHIFT = EXP_LO_TAB_SIZE_POT-1-EXP_LO_DISTANCE_TO_ZERO_POT;
-    private static final double[] expHiTab = new double[1+(int)EXP_OVERFLOW_LIMIT];
-    private static final double[] expHiInvTab = new double[1-(int)EXP_UNDERFLOW_LIMIT];
-    private static final double[] expLoPosTab = new double[EXP_LO_TAB_SIZE];
-    private static final double[] expLoNegTab = new double[EXP_LO_TAB_SIZE];
 
     //--------------------------------------------------------------------------
     // CONSTANTS FOR QUICK EXP
@@ -431,34 +508,26 @@ public class IntWrapper {
     // CONSTANTS AND TABLES FOR LOG AND LOG1P
     //--------------------------------------------------------------------------
 
-    private static final int LOG_BITS = getTabSizePower(12);
+    private static final int LOG_BITS = getTabSizePower(FAMILIES[LOG],12);
     private static final int LOG_TAB_SIZE = (1<<LOG_BITS);
-    private static final double[] logXLogTab = new double[LOG_TAB_SIZE];
-    private static final double[] logXTab = new double[LOG_TAB_SIZE];
-    private static final double[] logXInvTab = new double[LOG_TAB_SIZE];
 
     //--------------------------------------------------------------------------
     // TABLE FOR POWERS OF TWO
     //--------------------------------------------------------------------------
 
-    private static final double[] twoPowTab = new double[(MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT)+1];
 
     //--------------------------------------------------------------------------
     // CONSTANTS AND TABLES FOR SQRT
     //--------------------------------------------------------------------------
 
-    private static final int SQRT_LO_BITS = getTabSizePower(12);
+    private static final int SQRT_LO_BITS = getTabSizePower(FAMILIES[SQRT],12);
     private static final int SQRT_LO_TAB_SIZE = (1<<SQRT_LO_BITS);
-    private static final double[] sqrtXSqrtHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
-    private static final double[] sqrtXSqrtLoTab = new double[SQRT_LO_TAB_SIZE];
-    private static final double[] sqrtSlopeHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
-    private static final double[] sqrtSlopeLoTab = new double[SQRT_LO_TAB_SIZE];
 
     //--------------------------------------------------------------------------
     // CONSTANTS AND TABLES FOR CBRT
     //--------------------------------------------------------------------------
 
-    private static final int CBRT_LO_BITS = getTabSizePower(12);
+    private static final int CBRT_LO_BITS = getTabSizePower(FAMILIES[CBRT],12);
     private static final int CBRT_LO_TAB_SIZE = (1<<CBRT_LO_BITS);
     // For CBRT_LO_BITS = 12:
     // cbrtXCbrtLoTab[0] = 1.0.
@@ -467,15 +536,39 @@ public class IntWrapper {
     // cbrtXCbrtLoTab[3] = cbrt(1. 000000000010 1111111111111111111111111111111111111111b)
     // cbrtXCbrtLoTab[4] = cbrt(1. 000000000011 1111111111111111111111111111111111111111b)
     // etc.
-    private static final double[] cbrtXCbrtHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
-    private static final double[] cbrtXCbrtLoTab = new double[CBRT_LO_TAB_SIZE];
-    private static final double[] cbrtSlopeHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
-    private static final double[] cbrtSlopeLoTab = new double[CBRT_LO_TAB_SIZE];
 
     //--------------------------------------------------------------------------
     // PUBLIC TREATMENTS
     //--------------------------------------------------------------------------
 
+    /**
+     * Calibrates the family now if it has not been used yet.
+     * 
+     * @param family One of "sincos" (cos, sin), "tan", "asin" (asin, acos), "atan" (atan, atan2),
+     *        "exp" (exp, pow), "log" (log, log10, pow), "sqrt" or "cbrt".
+     * @return The backend of the family's functions.
+     */
+    public static Backend getBackend(String family) {
+        if (family.equals(FAMILIES[SIN_COS])) {
+            return SinCosBackend.BACKEND;
+        } else if (family.equals(FAMILIES[TAN])) {
+            return TanBackend.BACKEND;
+        } else if (family.equals(FAMILIES[ASIN])) {
+            return AsinBackend.BACKEND;
+        } else if (family.equals(FAMILIES[ATAN])) {
+            return AtanBackend.BACKEND;
+        } else if (family.equals(FAMILIES[EXP])) {
+            return ExpBackend.BACKEND;
+        } else if (family.equals(FAMILIES[LOG])) {
+            return LogBackend.BACKEND;
+        } else if (family.equals(FAMILIES[SQRT])) {
+            return SqrtBackend.BACKEND;
+        } else if (family.equals(FAMILIES[CBRT])) {
+            return CbrtBackend.BACKEND;
+        }
+        throw new IllegalArgumentException("Unknown family of functions : " + family);
+    }
+
     /**
      * @param angle Angle in radians.
      * @return Angle cosine.
@@ -484,6 +577,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.cos(angle) : Math.cos(angle);
         }
+        if (SinCosBackend.BACKEND == Backend.MATH) {
+            return Math.cos(angle);
+        } else if (SinCosBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.cos(angle);
+        }
+        return cosWithTabs(angle);
+    }
+
+    private static double cosWithTabs(double angle) {
         angle = Math.abs(angle);
         if (angle > SIN_COS_MAX_VALUE_FOR_INT_MODULO) {
             // Faster than using normalizeZeroTwoPi.
@@ -498,8 +600,8 @@ public class IntWrapper {
         // Making sure index is within tables range.
         // Last value of each table is the same than first, so we ignore it (tabs size minus one) for modulo.
         index &= (SIN_COS_TABS_SIZE-2); // index % (SIN_COS_TABS_SIZE-1)
-        double indexCos = cosTab[index];
-        double indexSin = sinTab[index];
+        double indexCos = SinCosTabs.cosTab[index];
+        double indexSin = SinCosTabs.sinTab[index];
         return indexCos + delta * (-indexSin + delta * (-indexCos * ONE_DIV_F2 + delta * (indexSin * ONE_DIV_F3 + delta * indexCos * ONE_DIV_F4)));
     }
 
@@ -515,7 +617,7 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.cos(angle) : Math.cos(angle);
         }
-        return cosTab[((int)(Math.abs(angle) * SIN_COS_INDEXER + 0.5)) & (SIN_COS_TABS_SIZE-2)];
+        return SinCosTabs.cosTab[((int)(Math.abs(angle) * SIN_COS_INDEXER + 0.5)) & (SIN_COS_TABS_SIZE-2)];
     }
 
     /**
@@ -526,6 +628,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.sin(angle) : Math.sin(angle);
         }
+        if (SinCosBackend.BACKEND == Backend.MATH) {
+            return Math.sin(angle);
+        } else if (SinCosBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.sin(angle);
+        }
+        return sinWithTabs(angle);
+    }
+
+    private static double sinWithTabs(double angle) {
         boolean negateResult;
         if (angle < 0.0) {
             angle = -angle;
@@ -543,8 +654,8 @@ public class IntWrapper {
         int index = (int)(angle * SIN_COS_INDEXER + 0.5);
         double delta = (angle - index * SIN_COS_DELTA_HI) - index * SIN_COS_DELTA_LO;
         index &= (SIN_COS_TABS_SIZE-2); // index % (SIN_COS_TABS_SIZE-1)
-        double indexSin = sinTab[index];
-        double indexCos = cosTab[index];
+        double indexSin = SinCosTabs.sinTab[index];
+        double indexCos = SinCosTabs.cosTab[index];
         double result = indexSin + delta * (indexCos + delta * (-indexSin * ONE_DIV_F2 + delta * (-indexCos * ONE_DIV_F3 + delta * indexSin * ONE_DIV_F4)));
         return negateResult ? -result : result;
     }
@@ -561,7 +672,7 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.sin(angle) : Math.sin(angle);
         }
-        return cosTab[((int)(Math.abs(angle-Math.PI/2) * SIN_COS_INDEXER + 0.5)) & (SIN_COS_TABS_SIZE-2)];
+        return SinCosTabs.cosTab[((int)(Math.abs(angle-Math.PI/2) * SIN_COS_INDEXER + 0.5)) & (SIN_COS_TABS_SIZE-2)];
     }
 
     /**
@@ -595,8 +706,8 @@ public class IntWrapper {
         int index = (int)(angle * SIN_COS_INDEXER + 0.5);
         double delta = (angle - index * SIN_COS_DELTA_HI) - index * SIN_COS_DELTA_LO;
         index &= (SIN_COS_TABS_SIZE-2); // index % (SIN_COS_TABS_SIZE-1)
-        double indexSin = sinTab[index];
-        double indexCos = cosTab[index];
+        double indexSin = SinCosTabs.sinTab[index];
+        double indexCos = SinCosTabs.cosTab[index];
         double result = indexSin + delta * (indexCos + delta * (-indexSin * ONE_DIV_F2 + delta * (-indexCos * ONE_DIV_F3 + delta * indexSin * ONE_DIV_F4)));
         sine.value = negateResult ? -result : result;
         cosine.value = indexCos + delta * (-indexSin + delta * (-indexCos * ONE_DIV_F2 + delta * (indexSin * ONE_DIV_F3 + delta * indexCos * ONE_DIV_F4)));
@@ -610,6 +721,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.tan(angle) : Math.tan(angle);
         }
+        if (TanBackend.BACKEND == Backend.MATH) {
+            return Math.tan(angle);
+        } else if (TanBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.tan(angle);
+        }
+        return tanWithTabs(angle);
+    }
+
+    private static double tanWithTabs(double angle) {
         if (Math.abs(angle) > TAN_MAX_VALUE_FOR_INT_MODULO) {
             // Faster than using normalizeMinusHalfPiHalfPi.
             angle = remainderTwoPi(angle);
@@ -638,11 +758,11 @@ public class IntWrapper {
         }
         double result;
         if (index < TAN_TABS_SIZE) {
-            result = tanTab[index] + delta * (tanDer1DivF1Tab[index] + delta * (tanDer2DivF2Tab[index] + delta * (tanDer3DivF3Tab[index] + delta * tanDer4DivF4Tab[index])));
+            result = TanTabs.tanTab[index] + delta * (TanTabs.tanDer1DivF1Tab[index] + delta * (TanTabs.tanDer2DivF2Tab[index] + delta * (TanTabs.tanDer3DivF3Tab[index] + delta * TanTabs.tanDer4DivF4Tab[index])));
         } else { // angle in ]TAN_MAX_VALUE_FOR_TABS,TAN_MAX_VALUE_FOR_INT_MODULO], or angle is NaN
             // Using tan(angle) == 1/tan(PI/2-angle) formula: changing angle (index and delta), and inverting.
             index = (TAN_VIRTUAL_TABS_SIZE-1) - index;
-            result = 1/(tanTab[index] - delta * (tanDer1DivF1Tab[index] - delta * (tanDer2DivF2Tab[index] - delta * (tanDer3DivF3Tab[index] - delta * tanDer4DivF4Tab[index]))));
+            result = 1/(TanTabs.tanTab[index] - delta * (TanTabs.tanDer1DivF1Tab[index] - delta * (TanTabs.tanDer2DivF2Tab[index] - delta * (TanTabs.tanDer3DivF3Tab[index] - delta * TanTabs.tanDer4DivF4Tab[index]))));
         }
         return negateResult ? -result : result;
     }
@@ -682,6 +802,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.asin(value) : Math.asin(value);
         }
+        if (AsinBackend.BACKEND == Backend.MATH) {
+            return Math.asin(value);
+        } else if (AsinBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.asin(value);
+        }
+        return asinWithTabs(value);
+    }
+
+    private static double asinWithTabs(double value) {
         boolean negateResult;
         if (value < 0.0) {
             value = -value;
@@ -692,12 +821,12 @@ public class IntWrapper {
         if (value <= ASIN_MAX_VALUE_FOR_TABS) {
             int index = (int)(value * ASIN_INDEXER + 0.5);
             double delta = value - index * ASIN_DELTA;
-            double result = asinTab[index] + delta * (asinDer1DivF1Tab[index] + delta * (asinDer2DivF2Tab[index] + delta * (asinDer3DivF3Tab[index] + delta * asinDer4DivF4Tab[index])));
+            double result = AsinTabs.asinTab[index] + delta * (AsinTabs.asinDer1DivF1Tab[index] + delta * (AsinTabs.asinDer2DivF2Tab[index] + delta * (AsinTabs.asinDer3DivF3Tab[index] + delta * AsinTabs.asinDer4DivF4Tab[index])));
             return negateResult ? -result : result;
         } else if (USE_POWTABS_FOR_ASIN && (value <= ASIN_MAX_VALUE_FOR_POWTABS)) {
             int index = (int)(FastMath.powFast(value * ASIN_POWTABS_ONE_DIV_MAX_VALUE, ASIN_POWTABS_POWER) * ASIN_POWTABS_SIZE_MINUS_ONE + 0.5);
-            double delta = value - asinParamPowTab[index];
-            double result = asinPowTab[index] + delta * (asinDer1DivF1PowTab[index] + delta * (asinDer2DivF2PowTab[index] + delta * (asinDer3DivF3PowTab[index] + delta * asinDer4DivF4PowTab[index])));
+            double delta = value - AsinTabs.asinParamPowTab[index];
+            double result = AsinTabs.asinPowTab[index] + delta * (AsinTabs.asinDer1DivF1PowTab[index] + delta * (AsinTabs.asinDer2DivF2PowTab[index] + delta * (AsinTabs.asinDer3DivF3PowTab[index] + delta * AsinTabs.asinDer4DivF4PowTab[index])));
             return negateResult ? -result : result;
         } else { // value > ASIN_MAX_VALUE_FOR_TABS, or value is NaN
             // This part is derived from fdlibm.
@@ -743,6 +872,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.atan(value) : Math.atan(value);
         }
+        if (AtanBackend.BACKEND == Backend.MATH) {
+            return Math.atan(value);
+        } else if (AtanBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.atan(value);
+        }
+        return atanWithTabs(value);
+    }
+
+    private static double atanWithTabs(double value) {
         boolean negateResult;
         if (value < 0.0) {
             value = -value;
@@ -756,7 +894,7 @@ public class IntWrapper {
         } else if (value <= ATAN_MAX_VALUE_FOR_TABS) {
             int index = (int)(value * ATAN_INDEXER + 0.5);
             double delta = value - index * ATAN_DELTA;
-            double result = atanTab[index] + delta * (atanDer1DivF1Tab[index] + delta * (atanDer2DivF2Tab[index] + delta * (atanDer3DivF3Tab[index] + delta * atanDer4DivF4Tab[index])));
+            double result = AtanTabs.atanTab[index] + delta * (AtanTabs.atanDer1DivF1Tab[index] + delta * (AtanTabs.atanDer2DivF2Tab[index] + delta * (AtanTabs.atanDer3DivF3Tab[index] + delta * AtanTabs.atanDer4DivF4Tab[index])));
             return negateResult ? -result : result;
         } else { // value > ATAN_MAX_VALUE_FOR_TABS, or value is NaN
             // This part is derived from fdlibm.
@@ -1012,6 +1150,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.exp(value) : Math.exp(value);
         }
+        if (ExpBackend.BACKEND == Backend.MATH) {
+            return Math.exp(value);
+        } else if (ExpBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.exp(value);
+        }
+        return expWithTabs(value);
+    }
+
+    private static double expWithTabs(double value) {
         // exp(x) = exp([x])*exp(y)
         // with [x] the integer part of x, and y = x-[x]
         // ===>
@@ -1033,7 +1180,7 @@ public class IntWrapper {
             int valueInt = (i>>EXP_LO_INDEXING_DIV_SHIFT);
             i -= (valueInt<<EXP_LO_INDEXING_DIV_SHIFT);
             double delta = (value-valueInt)-i*(1.0/EXP_LO_INDEXING);
-            return expHiTab[valueInt] * (expLoPosTab[i+EXP_LO_TAB_MID_INDEX]*(1+delta*(1+delta*(1.0/2+delta*(1.0/6+delta*(1.0/24))))));
+            return ExpTabs.expHiTab[valueInt] * (ExpTabs.expLoPosTab[i+EXP_LO_TAB_MID_INDEX]*(1+delta*(1+delta*(1.0/2+delta*(1.0/6+delta*(1.0/24))))));
         } else { // value < 0.0, or value is NaN
             if (!(value >= EXP_UNDERFLOW_LIMIT)) { // value < EXP_UNDERFLOW_LIMIT, or value is NaN
                 return (value < EXP_UNDERFLOW_LIMIT) ? 0.0 : Double.NaN;
@@ -1050,7 +1197,7 @@ public class IntWrapper {
             int valueInt = -((-i)>>EXP_LO_INDEXING_DIV_SHIFT);
             i -= ((valueInt)<<EXP_LO_INDEXING_DIV_SHIFT);
             double delta = (value-valueInt)-i*(1.0/EXP_LO_INDEXING);
-            double tmp = expHiInvTab[-valueInt] * (expLoPosTab[i+EXP_LO_TAB_MID_INDEX]*(1+delta*(1+delta*(1.0/2+delta*(1.0/6+delta*(1.0/24))))));
+            double tmp = ExpTabs.expHiInvTab[-valueInt] * (ExpTabs.expLoPosTab[i+EXP_LO_TAB_MID_INDEX]*(1+delta*(1+delta*(1.0/2+delta*(1.0/6+delta*(1.0/24))))));
             // We took care not to compute with subnormal values.
             return (valueInt >= EXP_MIN_INT_LIMIT) ? tmp : tmp * TWO_POW_N54;
         }
@@ -1105,7 +1252,7 @@ public class IntWrapper {
             // Taking int part instead of rounding, which takes too long.
             int i = (int)(value*EXP_LO_INDEXING);
             double delta = value-i*(1.0/EXP_LO_INDEXING);
-            return expLoPosTab[i+EXP_LO_TAB_MID_INDEX]*(expLoNegTab[i+EXP_LO_TAB_MID_INDEX]+delta*(1+delta*(1.0/2+delta*(1.0/6+delta*(1.0/24+delta*(1.0/120))))));
+            return ExpTabs.expLoPosTab[i+EXP_LO_TAB_MID_INDEX]*(ExpTabs.expLoNegTab[i+EXP_LO_TAB_MID_INDEX]+delta*(1+delta*(1.0/2+delta*(1.0/6+delta*(1.0/24+delta*(1.0/120))))));
         } else {
             return FastMath.exp(value)-1;
         }
@@ -1116,6 +1263,18 @@ public class IntWrapper {
      * @return Value logarithm (base e).
      */
     public static double log(double value) {
+        if (USE_JDK_MATH || (!USE_REDEFINED_LOG)) {
+            return STRICT_MATH ? StrictMath.log(value) : Math.log(value);
+        }
+        if (LogBackend.BACKEND == Backend.MATH) {
+            return Math.log(value);
+        } else if (LogBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.log(value);
+        }
+        return logWithTabs(value);
+    }
+
+    private static double logWithTabs(double value) {
         if (USE_JDK_MATH || (!USE_REDEFINED_LOG)) {
             return STRICT_MATH ? StrictMath.log(value) : Math.log(value);
         } else {
@@ -1167,11 +1326,11 @@ public class IntWrapper {
                 int xIndex = ((valueBitsHi<<12)>>>(32-LOG_BITS));
 
                 // 1.mantissa/1.mantissaApprox - 1
-                double z = (value * twoPowTab[-valueExp-MIN_DOUBLE_EXPONENT]) * logXInvTab[xIndex] - 1;
+                double z = (value * TwoPowTabs.twoPowTab[-valueExp-MIN_DOUBLE_EXPONENT]) * LogTabs.logXInvTab[xIndex] - 1;
 
                 z *= (1-z*((1.0/2)-z*((1.0/3))));
 
-                return h + valueExp * LOG_2 + (logXLogTab[xIndex] + z);
+                return h + valueExp * LOG_2 + (LogTabs.logXLogTab[xIndex] + z);
 
             } else if (value == 0.0) {
                 return Double.NEGATIVE_INFINITY;
@@ -1217,7 +1376,7 @@ public class IntWrapper {
         int valueExp = (valueBitsHi>>20)-MAX_DOUBLE_EXPONENT;
         int xIndex = ((valueBitsHi<<12)>>>(32-LOG_BITS));
 
-        return h + valueExp * LOG_2 + logXLogTab[xIndex];
+        return h + valueExp * LOG_2 + LogTabs.logXLogTab[xIndex];
     }
 
     /**
@@ -1290,7 +1449,7 @@ public class IntWrapper {
             int xIndex = ((valuePlusOneBitsHi<<12)>>>(32-LOG_BITS));
 
             // 1.mantissa/1.mantissaApprox - 1
-            double z = (valuePlusOne * twoPowTab[-valuePlusOneExp-MIN_DOUBLE_EXPONENT]) * logXInvTab[xIndex] - 1;
+            double z = (valuePlusOne * TwoPowTabs.twoPowTab[-valuePlusOneExp-MIN_DOUBLE_EXPONENT]) * LogTabs.logXInvTab[xIndex] - 1;
 
             z *= (1-z*((1.0/2)-z*(1.0/3)));
 
@@ -1299,7 +1458,7 @@ public class IntWrapper {
             // epsilon = value - (valuePlusOne-1)
             // (valuePlusOne + epsilon ~= 1+value (not rounded))
 
-            return valuePlusOneExp * LOG_2 + logXLogTab[xIndex] + (z + (value - (valuePlusOne-1))/valuePlusOne);
+            return valuePlusOneExp * LOG_2 + LogTabs.logXLogTab[xIndex] + (z + (value - (valuePlusOne-1))/valuePlusOne);
         } else if (value == -1.0) {
             return Double.NEGATIVE_INFINITY;
         } else { // value < -1.0, or value is NaN
@@ -1489,14 +1648,14 @@ public class IntWrapper {
          */
         if (power >= 0) {
             if (power <= MAX_DOUBLE_EXPONENT) {
-                return twoPowTab[power-MIN_DOUBLE_EXPONENT];
+                return TwoPowTabs.twoPowTab[power-MIN_DOUBLE_EXPONENT];
             } else {
                 // Overflow.
                 return Double.POSITIVE_INFINITY;
             }
         } else {
             if (power >= MIN_DOUBLE_EXPONENT) {
-                return twoPowTab[power-MIN_DOUBLE_EXPONENT];
+                return TwoPowTabs.twoPowTab[power-MIN_DOUBLE_EXPONENT];
             } else {
                 // Underflow.
                 return 0.0;
@@ -1573,6 +1732,18 @@ public class IntWrapper {
      * @return Value square root.
      */
     public static double sqrt(double value) {
+        if (USE_JDK_MATH || (!USE_REDEFINED_SQRT)) {
+            return STRICT_MATH ? StrictMath.sqrt(value) : Math.sqrt(value);
+        }
+        if (SqrtBackend.BACKEND == Backend.MATH) {
+            return Math.sqrt(value);
+        } else if (SqrtBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.sqrt(value);
+        }
+        return sqrtWithTabs(value);
+    }
+
+    private static double sqrtWithTabs(double value) {
         if (USE_JDK_MATH || (!USE_REDEFINED_SQRT)) {
             return STRICT_MATH ? StrictMath.sqrt(value) : Math.sqrt(value);
         } else {
@@ -1596,8 +1767,8 @@ public class IntWrapper {
             int valueExponentIndex = (valueBitsHi>>20)+(-MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT);
             int xIndex = ((valueBitsHi<<12)>>>(32-SQRT_LO_BITS));
 
-            double result = sqrtXSqrtHiTab[valueExponentIndex] * sqrtXSqrtLoTab[xIndex];
-            double slope = sqrtSlopeHiTab[valueExponentIndex] * sqrtSlopeLoTab[xIndex];
+            double result = SqrtTabs.sqrtXSqrtHiTab[valueExponentIndex] * SqrtTabs.sqrtXSqrtLoTab[xIndex];
+            double slope = SqrtTabs.sqrtSlopeHiTab[valueExponentIndex] * SqrtTabs.sqrtSlopeLoTab[xIndex];
             value *= 0.25;
 
             result += (value - result * result) * slope;
@@ -1614,6 +1785,15 @@ public class IntWrapper {
         if (USE_JDK_MATH) {
             return STRICT_MATH ? StrictMath.cbrt(value) : Math.cbrt(value);
         }
+        if (CbrtBackend.BACKEND == Backend.MATH) {
+            return Math.cbrt(value);
+        } else if (CbrtBackend.BACKEND == Backend.STRICT_MATH) {
+            return StrictMath.cbrt(value);
+        }
+        return cbrtWithTabs(value);
+    }
+
+    private static double cbrtWithTabs(double value) {
         double h;
         if (value < 0.0) {
             if (value == Double.NEGATIVE_INFINITY) {
@@ -1659,8 +1839,8 @@ public class IntWrapper {
         int valueExponentIndex = (valueBitsHi>>20)+(-MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT);
         // Getting the first CBRT_LO_BITS bits of the mantissa.
         int xIndex = ((valueBitsHi<<12)>>>(32-CBRT_LO_BITS));
-        double result = cbrtXCbrtHiTab[valueExponentIndex] * cbrtXCbrtLoTab[xIndex];
-        double slope = cbrtSlopeHiTab[valueExponentIndex] * cbrtSlopeLoTab[xIndex];
+        double result = CbrtTabs.cbrtXCbrtHiTab[valueExponentIndex] * CbrtTabs.cbrtXCbrtLoTab[xIndex];
+        double slope = CbrtTabs.cbrtSlopeHiTab[valueExponentIndex] * CbrtTabs.cbrtSlopeLoTab[xIndex];
 
         // Lowering values to avoid overflows when using Newton's method
         // (we will then just have to return twice the result).
@@ -2473,6 +2653,196 @@ public class IntWrapper {
         return Math.ulp(f);
     }
 
+    //--------------------------------------------------------------------------
+    // ARRAY TREATMENTS
+    //--------------------------------------------------------------------------
+
+    /*
+     * results[offset+k] = f(values[from+k]) for k in [0,to-from[. results can be
+     * values only if offset == from, since parallel ranges would otherwise read
+     * values already overwritten by other ranges. The backend test is done once
+     * per call, so that the loops only hold the computation, and ranges longer
+     * than PARALLEL_THRESHOLD are split over the threads of Parallel.
+     */
+
+    // number of values above which array treatments are split in parallel ranges
+    private static final int PARALLEL_THRESHOLD = Math.max(1, getIntProperty("parallel", 1 << 16));
+
+    private static final int ARRAY_LOG = 0;
+    private static final int ARRAY_LOG10 = 1;
+    private static final int ARRAY_EXP = 2;
+    private static final int ARRAY_POW = 3;
+    private static final int ARRAY_SIN_COS = 4;
+
+    /**
+     * @param values Values, from index from to index to-1.
+     * @param results Receive the value logarithms (base e), from index offset.
+     * Can be values if offset is from.
+     */
+    public static void log(double[] values, int from, int to, double[] results, int offset) {
+        arrayTreatment(ARRAY_LOG, values, 0.0, from, to, results, null, offset);
+    }
+
+    /**
+     * @param values Values, from index from to index to-1.
+     * @param results Receive the value logarithms (base 10), from index offset.
+     * Can be values if offset is from.
+     */
+    public static void log10(double[] values, int from, int to, double[] results, int offset) {
+        arrayTreatment(ARRAY_LOG10, values, 0.0, from, to, results, null, offset);
+    }
+
+    /**
+     * @param values Values, from index from to index to-1.
+     * @param results Receive the value exponentials, from index offset.
+     * Can be values if offset is from.
+     */
+    public static void exp(double[] values, int from, int to, double[] results, int offset) {
+        arrayTreatment(ARRAY_EXP, values, 0.0, from, to, results, null, offset);
+    }
+
+    /**
+     * @param values Values, from index from to index to-1.
+     * @param power A double value.
+     * @param results Receive the values raised to power, from index offset.
+     * Can be values if offset is from.
+     */
+    public static void pow(double[] values, double power, int from, int to, double[] results, int offset) {
+        arrayTreatment(ARRAY_POW, values, power, from, to, results, null, offset);
+    }
+
+    /**
+     * Computes sines and cosines together, sharing the look-up of each angle.
+     * sines or cosines can be angles if offset is from.
+     */
+    public static void sinAndCos(double[] angles, int from, int to, double[] sines, double[] cosines, int offset) {
+        arrayTreatment(ARRAY_SIN_COS, angles, 0.0, from, to, sines, cosines, offset);
+    }
+
+    /**
+     * @return exp(-(values[i]-mean)^2/(2*sigma^2)) for each value, the Gaussian
+     *         density of the values up to the 1/(sigma*sqrt(2*PI)) factor
+     */
+    public static double[] gaussian(double[] values, double mean, double sigma) {
+        double[] results = new double[values.length];
+        double factor = -1/(2*sigma*sigma);
+        for (int i=0;i<values.length;i++) {
+            double d = values[i] - mean;
+            results[i] = d * d * factor;
+        }
+        exp(results, 0, results.length, results, 0);
+        return results;
+    }
+
+    private static void arrayTreatment(final int treatment, final double[] values, final double parameter, final int from, int to, final double[] results, final double[] results2, final int offset) {
+        if ((results == values || results2 == values) && offset != from) {
+            throw new IllegalArgumentException("results can be values only if offset is from");
+        }
+        int n = to - from;
+        int ranges = Parallel.ranges(n, PARALLEL_THRESHOLD);
+        if (ranges <= 1) {
+            arrayKernel(treatment, values, parameter, from, to, results, results2, offset);
+            return;
+        }
+        Parallel.map(n, ranges, new Parallel.RangeTask<Object>() {
+
+            public Object compute(int rangeFrom, int rangeTo) {
+                arrayKernel(treatment, values, parameter, from + rangeFrom, from + rangeTo, results, results2, offset + rangeFrom);
+                return null;
+            }
+        });
+    }
+
+    private static void arrayKernel(int treatment, double[] values, double parameter, int from, int to, double[] results, double[] results2, int offset) {
+        int shift = offset - from;
+        switch (treatment) {
+        case ARRAY_LOG:
+        case ARRAY_LOG10:
+            boolean log10 = (treatment == ARRAY_LOG10);
+            if (USE_JDK_MATH || (!USE_REDEFINED_LOG)) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = log10 ? log10(values[i]) : log(values[i]);
+                }
+                break;
+            }
+            // as log10(double), log(double) * INV_LOG_10
+            double factor = log10 ? INV_LOG_10 : 1.0;
+            if (LogBackend.BACKEND == Backend.MATH) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = Math.log(values[i]) * factor;
+                }
+            } else if (LogBackend.BACKEND == Backend.STRICT_MATH) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = StrictMath.log(values[i]) * factor;
+                }
+            } else {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = logWithTabs(values[i]) * factor;
+                }
+            }
+            break;
+        case ARRAY_EXP:
+            if (USE_JDK_MATH) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = exp(values[i]);
+                }
+            } else if (ExpBackend.BACKEND == Backend.MATH) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = Math.exp(values[i]);
+                }
+            } else if (ExpBackend.BACKEND == Backend.STRICT_MATH) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = StrictMath.exp(values[i]);
+                }
+            } else {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = expWithTabs(values[i]);
+                }
+            }
+            break;
+        case ARRAY_POW:
+            for (int i=from;i<to;i++) {
+                results[i+shift] = pow(values[i], parameter);
+            }
+            break;
+        default:
+            if (USE_JDK_MATH || (SinCosBackend.BACKEND != Backend.TABLES)) {
+                for (int i=from;i<to;i++) {
+                    results[i+shift] = sin(values[i]);
+                    results2[i+shift] = cos(values[i]);
+                }
+                break;
+            }
+            final double[] sinTab = SinCosTabs.sinTab;
+            final double[] cosTab = SinCosTabs.cosTab;
+            for (int i=from;i<to;i++) {
+                // Same algorithm than sinAndCos(double,DoubleWrapper,DoubleWrapper).
+                double angle = values[i];
+                boolean negateResult;
+                if (angle < 0.0) {
+                    angle = -angle;
+                    negateResult = true;
+                } else {
+                    negateResult = false;
+                }
+                if (angle > SIN_COS_MAX_VALUE_FOR_INT_MODULO) {
+                    angle = remainderTwoPi(angle);
+                    if (angle < 0.0) {
+                        angle += 2*Math.PI;
+                    }
+                }
+                int index = (int)(angle * SIN_COS_INDEXER + 0.5);
+                double delta = (angle - index * SIN_COS_DELTA_HI) - index * SIN_COS_DELTA_LO;
+                index &= (SIN_COS_TABS_SIZE-2); // index % (SIN_COS_TABS_SIZE-1)
+                double indexSin = sinTab[index];
+                double indexCos = cosTab[index];
+                double result = indexSin + delta * (indexCos + delta * (-indexSin * ONE_DIV_F2 + delta * (-indexCos * ONE_DIV_F3 + delta * indexSin * ONE_DIV_F4)));
+                results[i+shift] = negateResult ? -result : result;
+                results2[i+shift] = indexCos + delta * (-indexSin + delta * (-indexCos * ONE_DIV_F2 + delta * (indexSin * ONE_DIV_F3 + delta * indexCos * ONE_DIV_F4)));
+            }
+        }
+    }
+
     //--------------------------------------------------------------------------
     //  PRIVATE TREATMENTS
     //--------------------------------------------------------------------------
@@ -2486,10 +2856,120 @@ public class IntWrapper {
     /**
      * Use look-up tables size power through this method,
      * to make sure is it small in case java.lang.Math
-     * is directly used.
+     * is directly used, and to read its
+     * org.math.plot.fastmath.<name>.bits property.
+     */
+    private static int getTabSizePower(String name, int tabSizePower) {
+        if (USE_JDK_MATH) {
+            return Math.min(2, tabSizePower);
+        }
+        tabSizePower = getIntProperty(name + ".bits", tabSizePower);
+        return Math.max(MIN_TAB_SIZE_POWER, Math.min(MAX_TAB_SIZE_POWER, tabSizePower));
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = getProperty(name, null);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                // keeping the default value
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String getProperty(String name, String defaultValue) {
+        try {
+            return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+        } catch (SecurityException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return The backend set by the properties of the family,
+     *         Math if none is set, or the fastest one on this JVM if auto.
+     */
+    private static Backend chooseBackend(int family) {
+        String name = getProperty(FAMILIES[family] + ".backend", getProperty("backend", "math")).replace("_", "");
+        for (Backend backend : Backend.values()) {
+            if (backend.name().replace("_", "").equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+        return "auto".equalsIgnoreCase(name) ? calibrate(family) : Backend.MATH;
+    }
+
+    /**
+     * Times the backends of a family on a sample of usual arguments, once
+     * warmed up so that they are timed compiled, rounds of each backend
+     * alternating, and keeps the fastest round of each.
+     * 
+     * @return The fastest JDK backend, unless look-up tables are clearly faster.
+     */
+    private static Backend calibrate(int family) {
+        double[] args = new double[CALIBRATION_ARGS];
+        for (int i=0;i<CALIBRATION_ARGS;i++) {
+            // in ]0,1[, shuffled not to help branch prediction
+            double u = (((i * 37) % CALIBRATION_ARGS) + 0.5) / CALIBRATION_ARGS;
+            args[i] = calibrationArgument(family, u);
+        }
+        Backend[] backends = Backend.values();
+        long[] fastest = new long[backends.length];
+        for (int b=0;b<backends.length;b++) {
+            fastest[b] = Long.MAX_VALUE;
+        }
+        double sum = 0.0;
+        for (int r=0;r<CALIBRATION_WARMUP_ROUNDS;r++) {
+            for (int b=0;b<backends.length;b++) {
+                for (int i=0;i<CALIBRATION_ARGS;i++) {
+                    sum += evaluate(family, backends[b], args[i]);
+                }
+            }
+        }
+        for (int r=0;r<CALIBRATION_ROUNDS;r++) {
+            for (int b=0;b<backends.length;b++) {
+                long start = System.nanoTime();
+                for (int i=0;i<CALIBRATION_ARGS;i++) {
+                    sum += evaluate(family, backends[b], args[i]);
+                }
+                fastest[b] = Math.min(fastest[b], System.nanoTime() - start);
+            }
+        }
+        calibrationSum += sum;
+        Backend jdk = fastest[Backend.MATH.ordinal()] <= fastest[Backend.STRICT_MATH.ordinal()] ? Backend.MATH : Backend.STRICT_MATH;
+        return fastest[Backend.TABLES.ordinal()] < CALIBRATION_TABLES_GAIN * fastest[jdk.ordinal()] ? Backend.TABLES : jdk;
+    }
+
+    /**
+     * @param u Value in ]0,1[.
+     * @return A usual argument of the family's functions.
      */
-    private static int getTabSizePower(int tabSizePower) {
-        return USE_JDK_MATH ? Math.min(2, tabSizePower) : tabSizePower;
+    private static double calibrationArgument(int family, double u) {
+        switch (family) {
+        case SIN_COS: return 4*Math.PI*(u-0.5);
+        case TAN: return Math.PI*(u-0.5);
+        case ASIN: return 2*u-1;
+        case ATAN: return 40*(u-0.5);
+        case EXP: return 40*(u-0.5);
+        case LOG: return StrictMath.exp(40*(u-0.25));
+        case SQRT: return StrictMath.exp(40*(u-0.25));
+        default: return 2e6*(u-0.5);
+        }
+    }
+
+    private static double evaluate(int family, Backend backend, double x) {
+        switch (family) {
+        case SIN_COS: return (backend == Backend.TABLES) ? sinWithTabs(x) : ((backend == Backend.MATH) ? Math.sin(x) : StrictMath.sin(x));
+        case TAN: return (backend == Backend.TABLES) ? tanWithTabs(x) : ((backend == Backend.MATH) ? Math.tan(x) : StrictMath.tan(x));
+        case ASIN: return (backend == Backend.TABLES) ? asinWithTabs(x) : ((backend == Backend.MATH) ? Math.asin(x) : StrictMath.asin(x));
+        case ATAN: return (backend == Backend.TABLES) ? atanWithTabs(x) : ((backend == Backend.MATH) ? Math.atan(x) : StrictMath.atan(x));
+        case EXP: return (backend == Backend.TABLES) ? expWithTabs(x) : ((backend == Backend.MATH) ? Math.exp(x) : StrictMath.exp(x));
+        case LOG: return (backend == Backend.TABLES) ? logWithTabs(x) : ((backend == Backend.MATH) ? Math.log(x) : StrictMath.log(x));
+        case SQRT: return (backend == Backend.TABLES) ? sqrtWithTabs(x) : ((backend == Backend.MATH) ? Math.sqrt(x) : StrictMath.sqrt(x));
+        default: return (backend == Backend.TABLES) ? cbrtWithTabs(x) : ((backend == Backend.MATH) ? Math.cbrt(x) : StrictMath.cbrt(x));
+        }
     }
 
     /**
@@ -2652,7 +3132,7 @@ public class IntWrapper {
         z   = q0+fw;
 
         // Here, q is in [-25,2] range or so, so we can use the table right away.
-        double twoPowQ = twoPowTab[q-MIN_DOUBLE_EXPONENT];
+        double twoPowQ = TwoPowTabs.twoPowTab[q-MIN_DOUBLE_EXPONENT];
 
         z = (z*twoPowQ) % 8.0;
         z -= (double)((int)z);
@@ -2826,183 +3306,267 @@ public class IntWrapper {
     // STATIC INITIALIZATIONS
     //--------------------------------------------------------------------------
 
-    /**
-     * Initializes look-up tables.
+    /*
+     * Look-up tables, one holder class per family, so that each family is
+     * allocated and filled by the JVM on first use only, thread safely.
      * 
      * Might use some FastMath methods in there, not to spend
      * an hour in it, but must take care not to use methods
-     * which look-up tables have not yet been initialized,
-     * or that are not accurate enough.
-     */
-    static {
-
-        // sin and cos
-
-        final int SIN_COS_PI_INDEX = (SIN_COS_TABS_SIZE-1)/2;
-        final int SIN_COS_PI_MUL_2_INDEX = 2*SIN_COS_PI_INDEX;
-        final int SIN_COS_PI_MUL_0_5_INDEX = SIN_COS_PI_INDEX/2;
-        final int SIN_COS_PI_MUL_1_5_INDEX = 3*SIN_COS_PI_INDEX/2;
-        for (int i=0;i<SIN_COS_TABS_SIZE;i++) {
-            // angle: in [0,2*PI].
-            double angle = i * SIN_COS_DELTA_HI + i * SIN_COS_DELTA_LO;
-            double sinAngle = StrictMath.sin(angle);
-            double cosAngle = StrictMath.cos(angle);
-            // For indexes corresponding to null cosine or sine, we make sure the value is zero
-            // and not an epsilon. This allows for a much better accuracy for results close to zero.
-            if (i == SIN_COS_PI_INDEX) {
-                sinAngle = 0.0;
-            } else if (i == SIN_COS_PI_MUL_2_INDEX) {
-                sinAngle = 0.0;
-            } else if (i == SIN_COS_PI_MUL_0_5_INDEX) {
-                cosAngle = 0.0;
-            } else if (i == SIN_COS_PI_MUL_1_5_INDEX) {
-                cosAngle = 0.0;
-            }
-            sinTab[i] = sinAngle;
-            cosTab[i] = cosAngle;
-        }
-
-        // tan
-
-        for (int i=0;i<TAN_TABS_SIZE;i++) {
-            // angle: in [0,TAN_MAX_VALUE_FOR_TABS].
-            double angle = i * TAN_DELTA_HI + i * TAN_DELTA_LO;
-            tanTab[i] = StrictMath.tan(angle);
-            double cosAngle = StrictMath.cos(angle);
-            double sinAngle = StrictMath.sin(angle);
-            double cosAngleInv = 1/cosAngle;
-            double cosAngleInv2 = cosAngleInv*cosAngleInv;
-            double cosAngleInv3 = cosAngleInv2*cosAngleInv;
-            double cosAngleInv4 = cosAngleInv2*cosAngleInv2;
-            double cosAngleInv5 = cosAngleInv3*cosAngleInv2;
-            tanDer1DivF1Tab[i] = cosAngleInv2;
-            tanDer2DivF2Tab[i] = ((2*sinAngle)*cosAngleInv3) * ONE_DIV_F2;
-            tanDer3DivF3Tab[i] = ((2*(1+2*sinAngle*sinAngle))*cosAngleInv4) * ONE_DIV_F3;
-            tanDer4DivF4Tab[i] = ((8*sinAngle*(2+sinAngle*sinAngle))*cosAngleInv5) * ONE_DIV_F4;
-        }
-
-        // asin
-
-        for (int i=0;i<ASIN_TABS_SIZE;i++) {
-            // x: in [0,ASIN_MAX_VALUE_FOR_TABS].
-            double x = i * ASIN_DELTA;
-            asinTab[i] = StrictMath.asin(x);
-            double oneMinusXSqInv = 1.0/(1-x*x);
-            double oneMinusXSqInv0_5 = StrictMath.sqrt(oneMinusXSqInv);
-            double oneMinusXSqInv1_5 = oneMinusXSqInv0_5*oneMinusXSqInv;
-            double oneMinusXSqInv2_5 = oneMinusXSqInv1_5*oneMinusXSqInv;
-            double oneMinusXSqInv3_5 = oneMinusXSqInv2_5*oneMinusXSqInv;
-            asinDer1DivF1Tab[i] = oneMinusXSqInv0_5;
-            asinDer2DivF2Tab[i] = (x*oneMinusXSqInv1_5) * ONE_DIV_F2;
-            asinDer3DivF3Tab[i] = ((1+2*x*x)*oneMinusXSqInv2_5) * ONE_DIV_F3;
-            asinDer4DivF4Tab[i] = ((5+2*x*(2+x*(5-2*x)))*oneMinusXSqInv3_5) * ONE_DIV_F4;
-        }
-
-        if (USE_POWTABS_FOR_ASIN) {
-            for (int i=0;i<ASIN_POWTABS_SIZE;i++) {
-                // x: in [0,ASIN_MAX_VALUE_FOR_POWTABS].
-                double x = StrictMath.pow(i*(1.0/ASIN_POWTABS_SIZE_MINUS_ONE), 1.0/ASIN_POWTABS_POWER) * ASIN_MAX_VALUE_FOR_POWTABS;
-                asinParamPowTab[i] = x;
-                asinPowTab[i] = StrictMath.asin(x);
+     * that are not accurate enough.
+     */
+
+    // Look-up tables of cos, sin and their Quick versions.
+    private static final class SinCosTabs {
+
+        static final double[] sinTab = new double[SIN_COS_TABS_SIZE];
+        static final double[] cosTab = new double[SIN_COS_TABS_SIZE];
+
+        static {
+            final int SIN_COS_PI_INDEX = (SIN_COS_TABS_SIZE-1)/2;
+            final int SIN_COS_PI_MUL_2_INDEX = 2*SIN_COS_PI_INDEX;
+            final int SIN_COS_PI_MUL_0_5_INDEX = SIN_COS_PI_INDEX/2;
+            final int SIN_COS_PI_MUL_1_5_INDEX = 3*SIN_COS_PI_INDEX/2;
+            for (int i=0;i<SIN_COS_TABS_SIZE;i++) {
+                // angle: in [0,2*PI].
+                double angle = i * SIN_COS_DELTA_HI + i * SIN_COS_DELTA_LO;
+                double sinAngle = StrictMath.sin(angle);
+                double cosAngle = StrictMath.cos(angle);
+                // For indexes corresponding to null cosine or sine, we make sure the value is zero
+                // and not an epsilon. This allows for a much better accuracy for results close to zero.
+                if (i == SIN_COS_PI_INDEX) {
+                    sinAngle = 0.0;
+                } else if (i == SIN_COS_PI_MUL_2_INDEX) {
+                    sinAngle = 0.0;
+                } else if (i == SIN_COS_PI_MUL_0_5_INDEX) {
+                    cosAngle = 0.0;
+                } else if (i == SIN_COS_PI_MUL_1_5_INDEX) {
+                    cosAngle = 0.0;
+                }
+                sinTab[i] = sinAngle;
+                cosTab[i] = cosAngle;
+            }
+        }
+    }
+
+    // Look-up tables of tan.
+    private static final class TanTabs {
+
+        static final double[] tanTab = new double[TAN_TABS_SIZE];
+        static final double[] tanDer1DivF1Tab = new double[TAN_TABS_SIZE];
+        static final double[] tanDer2DivF2Tab = new double[TAN_TABS_SIZE];
+        static final double[] tanDer3DivF3Tab = new double[TAN_TABS_SIZE];
+        static final double[] tanDer4DivF4Tab = new double[TAN_TABS_SIZE];
+
+        static {
+            for (int i=0;i<TAN_TABS_SIZE;i++) {
+                // angle: in [0,TAN_MAX_VALUE_FOR_TABS].
+                double angle = i * TAN_DELTA_HI + i * TAN_DELTA_LO;
+                tanTab[i] = StrictMath.tan(angle);
+                double cosAngle = StrictMath.cos(angle);
+                double sinAngle = StrictMath.sin(angle);
+                double cosAngleInv = 1/cosAngle;
+                double cosAngleInv2 = cosAngleInv*cosAngleInv;
+                double cosAngleInv3 = cosAngleInv2*cosAngleInv;
+                double cosAngleInv4 = cosAngleInv2*cosAngleInv2;
+                double cosAngleInv5 = cosAngleInv3*cosAngleInv2;
+                tanDer1DivF1Tab[i] = cosAngleInv2;
+                tanDer2DivF2Tab[i] = ((2*sinAngle)*cosAngleInv3) * ONE_DIV_F2;
+                tanDer3DivF3Tab[i] = ((2*(1+2*sinAngle*sinAngle))*cosAngleInv4) * ONE_DIV_F3;
+                tanDer4DivF4Tab[i] = ((8*sinAngle*(2+sinAngle*sinAngle))*cosAngleInv5) * ONE_DIV_F4;
+            }
+        }
+    }
+
+    // Look-up tables of asin and acos.
+    private static final class AsinTabs {
+
+        static final double[] asinTab = new double[ASIN_TABS_SIZE];
+        static final double[] asinDer1DivF1Tab = new double[ASIN_TABS_SIZE];
+        static final double[] asinDer2DivF2Tab = new double[ASIN_TABS_SIZE];
+        static final double[] asinDer3DivF3Tab = new double[ASIN_TABS_SIZE];
+        static final double[] asinDer4DivF4Tab = new double[ASIN_TABS_SIZE];
+        static final double[] asinParamPowTab = new double[ASIN_POWTABS_SIZE];
+        static final double[] asinPowTab = new double[ASIN_POWTABS_SIZE];
+        static final double[] asinDer1DivF1PowTab = new double[ASIN_POWTABS_SIZE];
+        static final double[] asinDer2DivF2PowTab = new double[ASIN_POWTABS_SIZE];
+        static final double[] asinDer3DivF3PowTab = new double[ASIN_POWTABS_SIZE];
+        static final double[] asinDer4DivF4PowTab = new double[ASIN_POWTABS_SIZE];
+
+        static {
+            for (int i=0;i<ASIN_TABS_SIZE;i++) {
+                // x: in [0,ASIN_MAX_VALUE_FOR_TABS].
+                double x = i * ASIN_DELTA;
+                asinTab[i] = StrictMath.asin(x);
                 double oneMinusXSqInv = 1.0/(1-x*x);
                 double oneMinusXSqInv0_5 = StrictMath.sqrt(oneMinusXSqInv);
                 double oneMinusXSqInv1_5 = oneMinusXSqInv0_5*oneMinusXSqInv;
                 double oneMinusXSqInv2_5 = oneMinusXSqInv1_5*oneMinusXSqInv;
                 double oneMinusXSqInv3_5 = oneMinusXSqInv2_5*oneMinusXSqInv;
-                asinDer1DivF1PowTab[i] = oneMinusXSqInv0_5;
-                asinDer2DivF2PowTab[i] = (x*oneMinusXSqInv1_5) * ONE_DIV_F2;
-                asinDer3DivF3PowTab[i] = ((1+2*x*x)*oneMinusXSqInv2_5) * ONE_DIV_F3;
-                asinDer4DivF4PowTab[i] = ((5+2*x*(2+x*(5-2*x)))*oneMinusXSqInv3_5) * ONE_DIV_F4;
-            }
-        }
-
-        // atan
-
-        for (int i=0;i<ATAN_TABS_SIZE;i++) {
-            // x: in [0,ATAN_MAX_VALUE_FOR_TABS].
-            double x = i * ATAN_DELTA;
-            double onePlusXSqInv = 1.0/(1+x*x);
-            double onePlusXSqInv2 = onePlusXSqInv*onePlusXSqInv;
-            double onePlusXSqInv3 = onePlusXSqInv2*onePlusXSqInv;
-            double onePlusXSqInv4 = onePlusXSqInv2*onePlusXSqInv2;
-            atanTab[i] = StrictMath.atan(x);
-            atanDer1DivF1Tab[i] = onePlusXSqInv;
-            atanDer2DivF2Tab[i] = (-2*x*onePlusXSqInv2) * ONE_DIV_F2;
-            atanDer3DivF3Tab[i] = ((-2+6*x*x)*onePlusXSqInv3) * ONE_DIV_F3;
-            atanDer4DivF4Tab[i] = ((24*x*(1-x*x))*onePlusXSqInv4) * ONE_DIV_F4;
-        }
-
-        // exp
-
-        for (int i=0;i<EXP_LO_TAB_SIZE;i++) {
-            // x: in [-EXPM1_DISTANCE_TO_ZERO,EXPM1_DISTANCE_TO_ZERO].
-            double x = -EXP_LO_DISTANCE_TO_ZERO + i/(double)EXP_LO_INDEXING;
-            // exp(x)
-            expLoPosTab[i] = StrictMath.exp(x);
-            // 1-exp(-x), accurately computed
-            expLoNegTab[i] = -StrictMath.expm1(-x);
-        }
-        for (int i=0;i<=(int)EXP_OVERFLOW_LIMIT;i++) {
-            expHiTab[i] = StrictMath.exp(i);
-        }
-        for (int i=0;i<=-(int)EXP_UNDERFLOW_LIMIT;i++) {
-            // We take care not to compute with subnormal values.
-            if ((double)-i >= EXP_MIN_INT_LIMIT) {
-                expHiInvTab[i] = StrictMath.exp(-i);
-            } else {
-                expHiInvTab[i] = StrictMath.exp(54*LOG_2-i);
+                asinDer1DivF1Tab[i] = oneMinusXSqInv0_5;
+                asinDer2DivF2Tab[i] = (x*oneMinusXSqInv1_5) * ONE_DIV_F2;
+                asinDer3DivF3Tab[i] = ((1+2*x*x)*oneMinusXSqInv2_5) * ONE_DIV_F3;
+                asinDer4DivF4Tab[i] = ((5+2*x*(2+x*(5-2*x)))*oneMinusXSqInv3_5) * ONE_DIV_F4;
             }
-        }
 
-        // log
+            if (USE_POWTABS_FOR_ASIN) {
+                for (int i=0;i<ASIN_POWTABS_SIZE;i++) {
+                    // x: in [0,ASIN_MAX_VALUE_FOR_POWTABS].
+                    double x = StrictMath.pow(i*(1.0/ASIN_POWTABS_SIZE_MINUS_ONE), 1.0/ASIN_POWTABS_POWER) * ASIN_MAX_VALUE_FOR_POWTABS;
+                    asinParamPowTab[i] = x;
+                    asinPowTab[i] = StrictMath.asin(x);
+                    double oneMinusXSqInv = 1.0/(1-x*x);
+                    double oneMinusXSqInv0_5 = StrictMath.sqrt(oneMinusXSqInv);
+                    double oneMinusXSqInv1_5 = oneMinusXSqInv0_5*oneMinusXSqInv;
+                    double oneMinusXSqInv2_5 = oneMinusXSqInv1_5*oneMinusXSqInv;
+                    double oneMinusXSqInv3_5 = oneMinusXSqInv2_5*oneMinusXSqInv;
+                    asinDer1DivF1PowTab[i] = oneMinusXSqInv0_5;
+                    asinDer2DivF2PowTab[i] = (x*oneMinusXSqInv1_5) * ONE_DIV_F2;
+                    asinDer3DivF3PowTab[i] = ((1+2*x*x)*oneMinusXSqInv2_5) * ONE_DIV_F3;
+                    asinDer4DivF4PowTab[i] = ((5+2*x*(2+x*(5-2*x)))*oneMinusXSqInv3_5) * ONE_DIV_F4;
+                }
+            }
+        }
+    }
 
-        for (int i=0;i<LOG_TAB_SIZE;i++) {
-            // Exact to use inverse of tab size, since it is a power of two.
-            double x = 1+i*(1.0/LOG_TAB_SIZE);
-            logXLogTab[i] = StrictMath.log(x);
-            logXTab[i] = x;
-            logXInvTab[i] = 1/x;
+    // Look-up tables of atan and atan2.
+    private static final class AtanTabs {
+
+        static final double[] atanTab = new double[ATAN_TABS_SIZE];
+        static final double[] atanDer1DivF1Tab = new double[ATAN_TABS_SIZE];
+        static final double[] atanDer2DivF2Tab = new double[ATAN_TABS_SIZE];
+        static final double[] atanDer3DivF3Tab = new double[ATAN_TABS_SIZE];
+        static final double[] atanDer4DivF4Tab = new double[ATAN_TABS_SIZE];
+
+        static {
+            for (int i=0;i<ATAN_TABS_SIZE;i++) {
+                // x: in [0,ATAN_MAX_VALUE_FOR_TABS].
+                double x = i * ATAN_DELTA;
+                double onePlusXSqInv = 1.0/(1+x*x);
+                double onePlusXSqInv2 = onePlusXSqInv*onePlusXSqInv;
+                double onePlusXSqInv3 = onePlusXSqInv2*onePlusXSqInv;
+                double onePlusXSqInv4 = onePlusXSqInv2*onePlusXSqInv2;
+                atanTab[i] = StrictMath.atan(x);
+                atanDer1DivF1Tab[i] = onePlusXSqInv;
+                atanDer2DivF2Tab[i] = (-2*x*onePlusXSqInv2) * ONE_DIV_F2;
+                atanDer3DivF3Tab[i] = ((-2+6*x*x)*onePlusXSqInv3) * ONE_DIV_F3;
+                atanDer4DivF4Tab[i] = ((24*x*(1-x*x))*onePlusXSqInv4) * ONE_DIV_F4;
+            }
         }
+    }
+
+    // Look-up tables of exp and expm1.
+    private static final class ExpTabs {
 
-        // twoPow
+        static final double[] expHiTab = new double[1+(int)EXP_OVERFLOW_LIMIT];
+        static final double[] expHiInvTab = new double[1-(int)EXP_UNDERFLOW_LIMIT];
+        static final double[] expLoPosTab = new double[EXP_LO_TAB_SIZE];
+        static final double[] expLoNegTab = new double[EXP_LO_TAB_SIZE];
 
-        for (int i=MIN_DOUBLE_EXPONENT;i<=MAX_DOUBLE_EXPONENT;i++) {
-            twoPowTab[i-MIN_DOUBLE_EXPONENT] = StrictMath.pow(2.0,i);
+        static {
+            for (int i=0;i<EXP_LO_TAB_SIZE;i++) {
+                // x: in [-EXPM1_DISTANCE_TO_ZERO,EXPM1_DISTANCE_TO_ZERO].
+                double x = -EXP_LO_DISTANCE_TO_ZERO + i/(double)EXP_LO_INDEXING;
+                // exp(x)
+                expLoPosTab[i] = StrictMath.exp(x);
+                // 1-exp(-x), accurately computed
+                expLoNegTab[i] = -StrictMath.expm1(-x);
+            }
+            for (int i=0;i<=(int)EXP_OVERFLOW_LIMIT;i++) {
+                expHiTab[i] = StrictMath.exp(i);
+            }
+            for (int i=0;i<=-(int)EXP_UNDERFLOW_LIMIT;i++) {
+                // We take care not to compute with subnormal values.
+                if ((double)-i >= EXP_MIN_INT_LIMIT) {
+                    expHiInvTab[i] = StrictMath.exp(-i);
+                } else {
+                    expHiInvTab[i] = StrictMath.exp(54*LOG_2-i);
+                }
+            }
         }
+    }
+
+    // Look-up tables of log, logQuick, log10 and log1p.
+    private static final class LogTabs {
 
-        // sqrt
+        static final double[] logXLogTab = new double[LOG_TAB_SIZE];
+        static final double[] logXTab = new double[LOG_TAB_SIZE];
+        static final double[] logXInvTab = new double[LOG_TAB_SIZE];
 
-        for (int i=MIN_DOUBLE_EXPONENT;i<=MAX_DOUBLE_EXPONENT;i++) {
-            double twoPowExpDiv2 = StrictMath.pow(2.0,i*0.5);
-            sqrtXSqrtHiTab[i-MIN_DOUBLE_EXPONENT] = twoPowExpDiv2 * 0.5; // Half sqrt, to avoid overflows.
-            sqrtSlopeHiTab[i-MIN_DOUBLE_EXPONENT] = 1/twoPowExpDiv2;
+        static {
+            for (int i=0;i<LOG_TAB_SIZE;i++) {
+                // Exact to use inverse of tab size, since it is a power of two.
+                double x = 1+i*(1.0/LOG_TAB_SIZE);
+                logXLogTab[i] = StrictMath.log(x);
+                logXTab[i] = x;
+                logXInvTab[i] = 1/x;
+            }
         }
-        sqrtXSqrtLoTab[0] = 1.0;
-        sqrtSlopeLoTab[0] = 1.0;
-        final long SQRT_LO_MASK = (0x3FF0000000000000L | (0x000FFFFFFFFFFFFFL>>SQRT_LO_BITS));
-        for (int i=1;i<SQRT_LO_TAB_SIZE;i++) {
-            long xBits = SQRT_LO_MASK | (((long)(i-1))<<(52-SQRT_LO_BITS));
-            double sqrtX = StrictMath.sqrt(Double.longBitsToDouble(xBits));
-            sqrtXSqrtLoTab[i] = sqrtX;
-            sqrtSlopeLoTab[i] = 1/sqrtX;
+    }
+
+    // Look-up tables of twoPow, also used by log and angles reduction.
+    private static final class TwoPowTabs {
+
+        static final double[] twoPowTab = new double[(MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT)+1];
+
+        static {
+            for (int i=MIN_DOUBLE_EXPONENT;i<=MAX_DOUBLE_EXPONENT;i++) {
+                twoPowTab[i-MIN_DOUBLE_EXPONENT] = StrictMath.pow(2.0,i);
+            }
         }
+    }
 
-        // cbrt
+    // Look-up tables of sqrt.
+    private static final class SqrtTabs {
 
-        for (int i=MIN_DOUBLE_EXPONENT;i<=MAX_DOUBLE_EXPONENT;i++) {
-            double twoPowExpDiv3 = StrictMath.pow(2.0,i/3.0);
-            cbrtXCbrtHiTab[i-MIN_DOUBLE_EXPONENT] = twoPowExpDiv3 * 0.5; // Half cbrt, to avoid overflows.
-            double tmp = 1/twoPowExpDiv3;
-            cbrtSlopeHiTab[i-MIN_DOUBLE_EXPONENT] = (4.0/3)*tmp*tmp;
+        static final double[] sqrtXSqrtHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
+        static final double[] sqrtXSqrtLoTab = new double[SQRT_LO_TAB_SIZE];
+        static final double[] sqrtSlopeHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
+        static final double[] sqrtSlopeLoTab = new double[SQRT_LO_TAB_SIZE];
+
+        static {
+            for (int i=MIN_DOUBLE_EXPONENT;i<=MAX_DOUBLE_EXPONENT;i++) {
+                double twoPowExpDiv2 = StrictMath.pow(2.0,i*0.5);
+                sqrtXSqrtHiTab[i-MIN_DOUBLE_EXPONENT] = twoPowExpDiv2 * 0.5; // Half sqrt, to avoid overflows.
+                sqrtSlopeHiTab[i-MIN_DOUBLE_EXPONENT] = 1/twoPowExpDiv2;
+            }
+            sqrtXSqrtLoTab[0] = 1.0;
+            sqrtSlopeLoTab[0] = 1.0;
+            final long SQRT_LO_MASK = (0x3FF0000000000000L | (0x000FFFFFFFFFFFFFL>>SQRT_LO_BITS));
+            for (int i=1;i<SQRT_LO_TAB_SIZE;i++) {
+                long xBits = SQRT_LO_MASK | (((long)(i-1))<<(52-SQRT_LO_BITS));
+                double sqrtX = StrictMath.sqrt(Double.longBitsToDouble(xBits));
+                sqrtXSqrtLoTab[i] = sqrtX;
+                sqrtSlopeLoTab[i] = 1/sqrtX;
+            }
         }
-        cbrtXCbrtLoTab[0] = 1.0;
-        cbrtSlopeLoTab[0] = 1.0;
-        final long CBRT_LO_MASK = (0x3FF0000000000000L | (0x000FFFFFFFFFFFFFL>>CBRT_LO_BITS));
-        for (int i=1;i<CBRT_LO_TAB_SIZE;i++) {
-            long xBits = CBRT_LO_MASK | (((long)(i-1))<<(52-CBRT_LO_BITS));
-            double cbrtX = StrictMath.cbrt(Double.longBitsToDouble(xBits));
-            cbrtXCbrtLoTab[i] = cbrtX;
-            cbrtSlopeLoTab[i] = 1/(cbrtX*cbrtX);
+    }
+
+    // Look-up tables of cbrt.
+    private static final class CbrtTabs {
+
+        static final double[] cbrtXCbrtHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
+        static final double[] cbrtXCbrtLoTab = new double[CBRT_LO_TAB_SIZE];
+        static final double[] cbrtSlopeHiTab = new double[MAX_DOUBLE_EXPONENT-MIN_DOUBLE_EXPONENT+1];
+        static final double[] cbrtSlopeLoTab = new double[CBRT_LO_TAB_SIZE];
+
+        static {
+            for (int i=MIN_DOUBLE_EXPONENT;i<=MAX_DOUBLE_EXPONENT;i++) {
+                double twoPowExpDiv3 = StrictMath.pow(2.0,i/3.0);
+                cbrtXCbrtHiTab[i-MIN_DOUBLE_EXPONENT] = twoPowExpDiv3 * 0.5; // Half cbrt, to avoid overflows.
+                double tmp = 1/twoPowExpDiv3;
+                cbrtSlopeHiTab[i-MIN_DOUBLE_EXPONENT] = (4.0/3)*tmp*tmp;
+            }
+            cbrtXCbrtLoTab[0] = 1.0;
+            cbrtSlopeLoTab[0] = 1.0;
+            final long CBRT_LO_MASK = (0x3FF0000000000000L | (0x000FFFFFFFFFFFFFL>>CBRT_LO_BITS));
+            for (int i=1;i<CBRT_LO_TAB_SIZE;i++) {
+                long xBits = CBRT_LO_MASK | (((long)(i-1))<<(52-CBRT_LO_BITS));
+                double cbrtX = StrictMath.cbrt(Double.longBitsToDouble(xBits));
+                cbrtXCbrtLoTab[i] = cbrtX;
+                cbrtSlopeLoTab[i] = 1/(cbrtX*cbrtX);
+            }
+
         }
     }
+
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ package org.math.plot.utils;
 
 import static org.math.plot.utils.Array.*;
 
+import java.util.List;
+
 public class Histogram {
 	//  histograms functions
 
@@ -22,17 +24,223 @@ public class Histogram {
 		return mergeColumns(centers(bounds), histogram(values, bounds));
 	}
 
+	/** number of values above which histograms are computed in parallel */
+	public static int PARALLEL_THRESHOLD = 1 << 16;
+
+	/**
+	 * Result of a histogram : counts of the values in each bin, and of the
+	 * values left out.
+	 */
+	public static class Counts {
+		public double[] bins;
+		/** number of NaN values */
+		public long nan;
+		/** number of values lower than the first bound */
+		public long below;
+		/** number of values greater than the last bound */
+		public long above;
+
+		Counts(int n) {
+			bins = new double[n];
+		}
+
+		void add(Counts c) {
+			for (int j = 0; j < bins.length; j++)
+				bins[j] += c.bins[j];
+			nan += c.nan;
+			below += c.below;
+			above += c.above;
+		}
+	}
+
 	public static double[] histogram(double[] values, double[] bounds) {
-		double[] h = new double[bounds.length - 1];
-		for (int i = 0; i < values.length; i++) {
-			for (int j = 0; j < h.length; j++) {
-				if (((bounds[j + 1] - values[i]) * (bounds[j] - values[i]) <= 0) || ((bounds[j] == values[i]))) {
-					h[j]++;
+		return count(values, bounds).bins;
+	}
+
+	/**
+	 * Counts values in bins. Bin j holds the values of ]bounds[j], bounds[j +
+	 * 1]], the first bin also holds bounds[0]. Bins are found by direct
+	 * computation for uniform bounds, by binary search for other increasing
+	 * bounds, in O(values.length) and O(values.length * log(bins)) time.
+	 */
+	public static Counts count(final double[] values, final double[] bounds) {
+		final Axis axis = new Axis(bounds);
+		List<Counts> partials = Parallel.map(values.length, Parallel.ranges(values.length, PARALLEL_THRESHOLD), new Parallel.RangeTask<Counts>() {
+			public Counts compute(int from, int to) {
+				Counts c = new Counts(axis.n);
+				for (int i = from; i < to; i++) {
+					int j = axis.bin(values[i]);
+					if (j >= 0)
+						c.bins[j]++;
+					else if (j == NAN)
+						c.nan++;
+					else if (j == BELOW)
+						c.below++;
+					else
+						c.above++;
+				}
+				return c;
+			}
+		});
+		Counts c = partials.get(0);
+		for (int r = 1; r < partials.size(); r++)
+			c.add(partials.get(r));
+		return c;
+	}
+
+	private final static int NAN = -1, BELOW = -2, ABOVE = -3;
+
+	// bins of one axis
+	private static class Axis {
+		private final static int UNIFORM = 0, INCREASING = 1, OTHER = 2;
+		final double[] bounds;
+		final int n;
+		final int mode;
+		final double min, max, scale;
+
+		Axis(double[] _bounds) {
+			bounds = _bounds;
+			n = FastMath.max(bounds.length - 1, 0);
+			min = bounds[0];
+			max = bounds[n];
+			scale = n / (max - min);
+			int m = UNIFORM;
+			// rounding errors are tolerated, the bin estimate being corrected from the bounds
+			double tolerance = 1E-6 * (max - min) / n;
+			for (int i = 0; i < n; i++) {
+				if (!(bounds[i] <= bounds[i + 1])) {
+					m = OTHER;
 					break;
 				}
+				if (FastMath.abs(bounds[i + 1] - (min + (max - min) * (i + 1) / (double) n)) > tolerance)
+					m = INCREASING;
 			}
+			mode = m;
+		}
+
+		/**
+		 * @return the bin of v, or NAN, BELOW, ABOVE
+		 */
+		int bin(double v) {
+			if (Double.isNaN(v))
+				return NAN;
+			if (mode == OTHER) {
+				// bounds not sorted : first bin holding v
+				for (int j = 0; j < n; j++)
+					if (((bounds[j + 1] - v) * (bounds[j] - v) <= 0) || ((bounds[j] == v)))
+						return j;
+				return v < min ? BELOW : ABOVE;
+			}
+			if (v < min || n == 0)
+				return BELOW;
+			if (v > max)
+				return ABOVE;
+			int j;
+			if (mode == UNIFORM && max > min) {
+				// estimate, then exact bin from the bounds themselves
+				j = (int) ((v - min) * scale);
+				j = j < 0 ? 0 : (j >= n ? n - 1 : j);
+				while (j > 0 && v <= bounds[j])
+					j--;
+				while (j < n - 1 && v > bounds[j + 1])
+					j++;
+			} else {
+				// lowest j >= 0 such that v <= bounds[j + 1]
+				int lo = 0, hi = n - 1;
+				while (lo < hi) {
+					int mid = (lo + hi) >>> 1;
+					if (v <= bounds[mid + 1])
+						hi = mid;
+					else
+						lo = mid + 1;
+				}
+				j = lo;
+			}
+			return j;
 		}
-		return h;
+	}
+
+	/**
+	 * Counts the rows of values in the cells of a grid, in one pass, with
+	 * partial grids computed in parallel for large samples. The cell of a row
+	 * is i + nX * j (+ nX * nY * k), binned on each axis as by
+	 * {@link #count(double[], double[])}. Rows out of the grid or with NaN
+	 * are ignored.
+	 */
+	public static long[] grid(final double[][] values, double[]... bounds) {
+		final Axis[] axes = new Axis[bounds.length];
+		int size = 1;
+		for (int d = 0; d < axes.length; d++) {
+			axes[d] = new Axis(bounds[d]);
+			size *= axes[d].n;
+		}
+		final int cells = size;
+		List<long[]> partials = Parallel.map(values.length, Parallel.ranges(values.length, FastMath.max(PARALLEL_THRESHOLD, 4 * cells)), new Parallel.RangeTask<long[]>() {
+			public long[] compute(int from, int to) {
+				long[] g = new long[cells];
+				rows: for (int i = from; i < to; i++) {
+					int cell = 0;
+					for (int d = axes.length - 1; d >= 0; d--) {
+						int j = axes[d].bin(values[i][d]);
+						if (j < 0)
+							continue rows;
+						cell = cell * axes[d].n + j;
+					}
+					g[cell]++;
+				}
+				return g;
+			}
+		});
+		long[] g = partials.get(0);
+		for (int r = 1; r < partials.size(); r++) {
+			long[] p = partials.get(r);
+			for (int c = 0; c < cells; c++)
+				g[c] += p[c];
+		}
+		return g;
+	}
+
+	/**
+	 * @return {center X, center Y, (center Z,) count} of the non empty cells
+	 *         of {@link #grid(double[][], double[][])}
+	 */
+	public static double[][] cells(double[][] values, double[]... bounds) {
+		long[] g = grid(values, bounds);
+		int n = 0;
+		for (int c = 0; c < g.length; c++)
+			if (g[c] > 0)
+				n++;
+		double[][] cells = new double[n][bounds.length + 1];
+		n = 0;
+		for (int c = 0; c < g.length; c++) {
+			if (g[c] == 0)
+				continue;
+			int r = c;
+			for (int d = 0; d < bounds.length; d++) {
+				int j = r % (bounds[d].length - 1);
+				r /= bounds[d].length - 1;
+				cells[n][d] = (bounds[d][j] + bounds[d][j + 1]) / 2;
+			}
+			cells[n++][bounds.length] = g[c];
+		}
+		return cells;
+	}
+
+	/**
+	 * @return n + 1 regular bounds from min to max of column j of values, NaN
+	 *         ignored
+	 */
+	public static double[] classBounds(double[][] values, int j, int n) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < values.length; i++) {
+			double v = values[i][j];
+			if (v < min)
+				min = v;
+			if (v > max)
+				max = v;
+		}
+		return bounds(null, min, max, n);
 	}
 
 	public static double[] histogram(double[] values, double min, double max, int n) {
@@ -41,12 +249,19 @@ public class Histogram {
 	}
 
 	public static double[] histogram(double[] values, int n) {
-		return histogram(values, n);
+		return histogram(values, bounds(values, n));
 	}
 
 	private static double[] bounds(double[] values, int n) {
-		double min = min(values);
-		double max = max(values);
+		// NaN ignored
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] < min)
+				min = values[i];
+			if (values[i] > max)
+				max = values[i];
+		}
 		return bounds(values, min, max, n);
 	}
 
@@ -72,51 +287,40 @@ public class Histogram {
 	}
 
 	public static double[][] histogram_classes_2D(double[][] values, double minX, double maxX, int nX, double minY, double maxY, int nY) {
-		double[] valuesX = getColumnCopy(values, 0);
-		double[] valuesY = getColumnCopy(values, 1);
-		double[] boundsX = bounds(valuesX, minX, maxX, nX);
-		double[] boundsY = bounds(valuesY, minY, maxY, nY);
+		double[] boundsX = bounds(null, minX, maxX, nX);
+		double[] boundsY = bounds(null, minY, maxY, nY);
 		return insertColumn(centers_2D(boundsX, boundsY), histogram_2D(values, boundsX, boundsY), 2);
 	}
 
 	public static double[][] histogram_classes_2D(double[][] values, int nX, int nY) {
-		double[] valuesX = getColumnCopy(values, 0);
-		double[] valuesY = getColumnCopy(values, 1);
-		double[] boundsX = bounds(valuesX, nX);
-		double[] boundsY = bounds(valuesY, nY);
+		double[] boundsX = classBounds(values, 0, nX);
+		double[] boundsY = classBounds(values, 1, nY);
 		return insertColumn(centers_2D(boundsX, boundsY), histogram_2D(values, boundsX, boundsY), 2);
 	}
 
 	public static double[] histogram_2D(double[][] values, double[] boundsX, double[] boundsY) {
-		double[] h = new double[(boundsX.length - 1) * (boundsY.length - 1)];
-		for (int n = 0; n < values.length; n++) {
-			for (int i = 0; i < boundsX.length - 1; i++) {
-				for (int j = 0; j < boundsY.length - 1; j++) {
-					if ((((boundsX[i + 1] - values[n][0]) * (boundsX[i] - values[n][0]) < 0) || ((boundsX[i] == values[n][0])))
-							&& (((boundsY[j + 1] - values[n][1]) * (boundsY[j] - values[n][1]) < 0) || ((boundsY[j] == values[n][1]))))
-						h[index2(i, j, boundsX.length - 1)]++;
-				}
-			}
-		}
-		return h;
+		return toDouble(grid(values, boundsX, boundsY));
 	}
 
 	public static double[] histogram_2D(double[][] values, double minX, double maxX, int nX, double minY, double maxY, int nY) {
-		double[] valuesX = getColumnCopy(values, 0);
-		double[] valuesY = getColumnCopy(values, 1);
-		double[] boundsX = bounds(valuesX, minX, maxX, nX);
-		double[] boundsY = bounds(valuesY, minY, maxY, nY);
+		double[] boundsX = bounds(null, minX, maxX, nX);
+		double[] boundsY = bounds(null, minY, maxY, nY);
 		return histogram_2D(values, boundsX, boundsY);
 	}
 
 	public static double[] histogram_2D(double[][] values, int nX, int nY) {
-		double[] valuesX = getColumnCopy(values, 0);
-		double[] valuesY = getColumnCopy(values, 1);
-		double[] boundsX = bounds(valuesX, nX);
-		double[] boundsY = bounds(valuesY, nY);
+		double[] boundsX = classBounds(values, 0, nX);
+		double[] boundsY = classBounds(values, 1, nY);
 		return histogram_2D(values, boundsX, boundsY);
 	}
 
+	private static double[] toDouble(long[] g) {
+		double[] h = new double[g.length];
+		for (int c = 0; c < g.length; c++)
+			h[c] = g[c];
+		return h;
+	}
+
 	private static double[][] centers_2D(double[] boundsX, double[] boundsY) {
 		int nb_centers = (boundsX.length - 1) * (boundsY.length - 1);
 		double[][] center = new double[nb_centers][2];
@@ -140,32 +344,16 @@ public class Histogram {
 
 
 	public static double[][] histogram_classes_3D(double[][] values, int nX, int nY, int nZ) {
-		double[] valuesX = getColumnCopy(values, 0);
-		double[] valuesY = getColumnCopy(values, 1);
-		double[] valuesZ = getColumnCopy(values, 2);
-		double[] boundsX = bounds(valuesX, nX);
-		double[] boundsY = bounds(valuesY, nY);
-		double[] boundsZ = bounds(valuesZ, nZ);
+		double[] boundsX = classBounds(values, 0, nX);
+		double[] boundsY = classBounds(values, 1, nY);
+		double[] boundsZ = classBounds(values, 2, nZ);
 		return insertColumn(centers_3D(boundsX, boundsY, boundsZ), histogram_3D(values, boundsX, boundsY, boundsZ), 3);
 	}
 
 	public static double[] histogram_3D(double[][] values, double[] boundsX, double[] boundsY, double[] boundsZ) {
-		double[] h = new double[(boundsX.length - 1) * (boundsY.length - 1)* (boundsZ.length - 1)];
-		for (int n = 0; n < values.length; n++) {
-			for (int i = 0; i < boundsX.length - 1; i++) {
-				for (int j = 0; j < boundsY.length - 1; j++) {
-					for (int k = 0; k < boundsZ.length - 1; k++) {
-					if ((((boundsX[i + 1] - values[n][0]) * (boundsX[i] - values[n][0]) < 0) || ((boundsX[i] == values[n][0])))
-							&& (((boundsY[j + 1] - values[n][1]) * (boundsY[j] - values[n][1]) < 0) || ((boundsY[j] == values[n][1])))&& (((boundsZ[k + 1] - values[n][2]) * (boundsZ[k] - values[n][2]) < 0) || ((boundsZ[k] == values[n][2]))))
-						h[index3(i, j,k, boundsX.length - 1, boundsY.length - 1)]++;
-				}}
-			}
-		}
-		return h;
+		return toDouble(grid(values, boundsX, boundsY, boundsZ));
 	}
 
-	
-
 	private static double[][] centers_3D(double[] boundsX, double[] boundsY, double[] boundsZ) {
 		int nb_centers = (boundsX.length - 1) * (boundsY.length - 1)* (boundsZ.length - 1);
 		double[][] center = new double[nb_centers][3];
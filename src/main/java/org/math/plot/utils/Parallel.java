@@ -0,0 +1,108 @@
+package org.math.plot.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Splits index ranges over a shared pool of daemon threads. Each range gives a
+ * partial result, which the caller merges. The calling thread computes the
+ * first range itself, and calls made from a pool thread run sequentially, so
+ * nested calls cannot starve the pool.
+ */
+public class Parallel {
+
+    /** number of worker threads, used at pool creation */
+    public static int THREADS = Runtime.getRuntime().availableProcessors();
+    private static ExecutorService executor;
+
+    /**
+     * Computation over the index range [from, to[.
+     */
+    public static abstract class RangeTask<T> {
+
+        public abstract T compute(int from, int to);
+    }
+
+    private static class Worker extends Thread {
+
+        Worker(Runnable r, int i) {
+            super(r, "jmathplot-parallel-" + i);
+            setDaemon(true);
+        }
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+
+                int count = 0;
+
+                public Thread newThread(Runnable r) {
+                    return new Worker(r, count++);
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * @return the number of ranges to split n indexes into, so that each range
+     *         holds at least minRange indexes
+     */
+    public static int ranges(int n, int minRange) {
+        if (THREADS <= 1 || Thread.currentThread() instanceof Worker) {
+            return 1;
+        }
+        return FastMath.max(1, FastMath.min(THREADS, n / FastMath.max(minRange, 1)));
+    }
+
+    /**
+     * Computes task over [0, n[ split in the given number of contiguous
+     * ranges.
+     *
+     * @return the partial results, in range order
+     */
+    public static <T> List<T> map(int n, int ranges, final RangeTask<T> task) {
+        List<T> results = new ArrayList<T>(FastMath.max(ranges, 1));
+        if (ranges <= 1 || Thread.currentThread() instanceof Worker) {
+            results.add(task.compute(0, n));
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<Future<T>>(ranges - 1);
+        for (int r = 1; r < ranges; r++) {
+            final int from = (int) ((long) n * r / ranges);
+            final int to = (int) ((long) n * (r + 1) / ranges);
+            futures.add(executor().submit(new Callable<T>() {
+
+                public T call() {
+                    return task.compute(from, to);
+                }
+            }));
+        }
+        results.add(task.compute(0, (int) ((long) n / ranges)));
+        for (Future<T> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for parallel computation", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+}
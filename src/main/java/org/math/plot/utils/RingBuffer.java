@@ -0,0 +1,299 @@
+package org.math.plot.utils;
+
+import java.util.Arrays;
+
+import org.math.plot.render.AbstractDrawer;
+import org.math.plot.render.PlotData;
+
+/**
+ * Buffer of rows to which rows are appended, keeping the min and max of each
+ * column up to date. A buffer is either growable, or has a fixed capacity over
+ * which the oldest rows are evicted (sliding window).
+ *
+ * Appending a row costs O(1) amortized, bounds included : in the sliding
+ * window case, bounds are maintained with monotonic queues of rows. NaN values
+ * are ignored by bounds, as in {@link PlotData#bounds()}.
+ */
+public class RingBuffer {
+
+    private double[][] rows;
+    // rows are rows[start], ..., rows[(start + size - 1) % rows.length]
+    private int start;
+    private int size;
+    private final boolean window;
+    private int columns = -1;
+    // growable buffer bounds
+    private double[] min;
+    private double[] max;
+    // sliding window bounds : per column, slots of the rows which can become min (resp. max)
+    private Queue[] minQueues;
+    private Queue[] maxQueues;
+
+    /**
+     * Creates a growable buffer.
+     */
+    public RingBuffer() {
+        rows = new double[16][];
+        window = false;
+    }
+
+    /**
+     * Creates a sliding window buffer.
+     *
+     * @param capacity
+     *            maximum number of rows, the oldest rows being evicted over
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be > 0 : " + capacity);
+        }
+        rows = new double[capacity][];
+        window = true;
+    }
+
+    /**
+     * @return the maximum number of rows of a sliding window buffer, -1 for a
+     *         growable buffer
+     */
+    public int getCapacity() {
+        return window ? rows.length : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the i-th oldest row
+     */
+    public double[] get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Row " + i + " of " + size);
+        }
+        return rows[(start + i) % rows.length];
+    }
+
+    public void append(double[]... R) {
+        for (int i = 0; i < R.length; i++) {
+            append(R[i]);
+        }
+    }
+
+    public void append(double[] row) {
+        if (columns < 0) {
+            initBounds(row.length);
+        } else if (row.length < columns) {
+            throw new IllegalArgumentException("Row of " + row.length + " columns appended to a buffer of " + columns + " columns");
+        }
+
+        if (!window) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, 2 * rows.length);
+            }
+            rows[size++] = row;
+            for (int j = 0; j < columns; j++) {
+                if (!Double.isNaN(row[j])) {
+                    min[j] = FastMath.min(min[j], row[j]);
+                    max[j] = FastMath.max(max[j], row[j]);
+                }
+            }
+            return;
+        }
+
+        if (size == rows.length) {
+            evict();
+        }
+        int slot = (start + size) % rows.length;
+        rows[slot] = row;
+        size++;
+        for (int j = 0; j < columns; j++) {
+            if (Double.isNaN(row[j])) {
+                continue;
+            }
+            Queue q = minQueues[j];
+            while (q.size > 0 && rows[q.last()][j] >= row[j]) {
+                q.removeLast();
+            }
+            q.add(slot);
+            q = maxQueues[j];
+            while (q.size > 0 && rows[q.last()][j] <= row[j]) {
+                q.removeLast();
+            }
+            q.add(slot);
+        }
+    }
+
+    // removes the oldest row
+    private void evict() {
+        for (int j = 0; j < columns; j++) {
+            if (minQueues[j].size > 0 && minQueues[j].first() == start) {
+                minQueues[j].removeFirst();
+            }
+            if (maxQueues[j].size > 0 && maxQueues[j].first() == start) {
+                maxQueues[j].removeFirst();
+            }
+        }
+        // the slot is not cleared : it is refilled by append, and may still be read by a view
+        start = (start + 1) % rows.length;
+        size--;
+    }
+
+    private void initBounds(int c) {
+        columns = c;
+        if (window) {
+            minQueues = new Queue[columns];
+            maxQueues = new Queue[columns];
+            for (int j = 0; j < columns; j++) {
+                minQueues[j] = new Queue(rows.length);
+                maxQueues[j] = new Queue(rows.length);
+            }
+        } else {
+            min = new double[columns];
+            max = new double[columns];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * @return {min, max} of each column over the buffered rows, NaN for
+     *         columns without any value
+     */
+    public double[][] getBounds() {
+        double[][] bounds = new double[2][FastMath.max(columns, 0)];
+        for (int j = 0; j < columns; j++) {
+            if (window) {
+                bounds[0][j] = minQueues[j].size > 0 ? rows[minQueues[j].first()][j] : Double.NaN;
+                bounds[1][j] = maxQueues[j].size > 0 ? rows[maxQueues[j].first()][j] : Double.NaN;
+            } else {
+                bounds[0][j] = min[j] <= max[j] ? min[j] : Double.NaN;
+                bounds[1][j] = min[j] <= max[j] ? max[j] : Double.NaN;
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * @return the buffered rows, oldest first
+     */
+    public double[][] toArray() {
+        double[][] array = new double[size][];
+        int head = FastMath.min(size, rows.length - start);
+        System.arraycopy(rows, start, array, 0, head);
+        System.arraycopy(rows, 0, array, head, size - head);
+        return array;
+    }
+
+    /**
+     * @return a view of the buffered rows, read in place. Rows appended later
+     *         are not in the view, but can take the slots of its oldest rows
+     *         in a sliding window.
+     */
+    public PlotData view() {
+        return new View(rows, start, size);
+    }
+
+    // rows slots[first], ..., slots[(first + size - 1) % slots.length]
+    private static class View extends PlotData {
+
+        final double[][] slots;
+        final int first;
+        final int size;
+
+        View(double[][] _slots, int _first, int _size) {
+            slots = _slots;
+            first = _first;
+            size = _size;
+        }
+
+        private int slot(int i) {
+            int s = first + i;
+            return s < slots.length ? s : s - slots.length;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int dimension() {
+            return size == 0 ? 0 : slots[first].length;
+        }
+
+        public double get(int i, int j) {
+            return slots[slot(i)][j];
+        }
+
+        public double[] getRow(int i) {
+            return slots[slot(i)];
+        }
+
+        public double[][] toRows() {
+            double[][] XY = new double[size][];
+            int head = FastMath.min(size, slots.length - first);
+            System.arraycopy(slots, first, XY, 0, head);
+            System.arraycopy(slots, 0, XY, head, size - head);
+            return XY;
+        }
+
+        public void project(AbstractDrawer draw, int from, int to, int[] sX, int[] sY) {
+            int s = slot(from);
+            int n = to - from;
+            if (s + n <= slots.length) {
+                draw.project(slots, s, s + n, sX, sY);
+                return;
+            }
+            // wrapped rows : the tail is projected first, then moved after the head
+            int head = slots.length - s;
+            draw.project(slots, 0, n - head, sX, sY);
+            System.arraycopy(sX, 0, sX, head, n - head);
+            System.arraycopy(sY, 0, sY, head, n - head);
+            draw.project(slots, s, slots.length, sX, sY);
+        }
+
+        public PlotData select(int[] indexes, int n) {
+            double[][] selected = new double[n][];
+            for (int k = 0; k < n; k++) {
+                selected[k] = getRow(indexes[k]);
+            }
+            return PlotData.rows(selected);
+        }
+
+        public boolean sameAs(PlotData d) {
+            return d instanceof View && ((View) d).slots == slots && ((View) d).first == first && ((View) d).size == size;
+        }
+    }
+
+    // fixed capacity deque of slots
+    private static class Queue {
+
+        final int[] slots;
+        int head;
+        int size;
+
+        Queue(int capacity) {
+            slots = new int[capacity];
+        }
+
+        int first() {
+            return slots[head];
+        }
+
+        int last() {
+            return slots[(head + size - 1) % slots.length];
+        }
+
+        void add(int slot) {
+            slots[(head + size) % slots.length] = slot;
+            size++;
+        }
+
+        void removeFirst() {
+            head = (head + 1) % slots.length;
+            size--;
+        }
+
+        void removeLast() {
+            size--;
+        }
+    }
+}